@@ -0,0 +1,51 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j;
+
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+
+/**
+ * Host-installed MinGW binutils used instead of the ones bundled with Launch4j,
+ * e.g. on platforms for which Launch4j only provides emulated binaries.
+ */
+public class Binutils {
+
+    /**
+     * Path to the linker, e.g. <code>/usr/bin/i686-w64-mingw32-ld</code>.
+     */
+    @Parameter(required = true)
+    File ld;
+
+    /**
+     * Path to the resource compiler, e.g. <code>/usr/bin/i686-w64-mingw32-windres</code>.
+     */
+    @Parameter(required = true)
+    File windres;
+
+    @Override
+    public String toString() {
+        return "Binutils{" +
+                "ld=" + ld +
+                ", windres=" + windres +
+                '}';
+    }
+}
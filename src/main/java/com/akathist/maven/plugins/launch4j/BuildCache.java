@@ -0,0 +1,91 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j;
+
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+
+/**
+ * Details about caching of the built executables.
+ */
+public class BuildCache {
+
+    /**
+     * If set to true, built executables are stored in a cache shared by all the projects
+     * and restored from it instead of being built again when the inputs are the same.
+     */
+    @Parameter(defaultValue = "false")
+    boolean local;
+
+    /**
+     * Location of the local cache. Defaults to <code>launch4j-cache</code> next to the local repository,
+     * usually <code>~/.m2/launch4j-cache</code>.
+     */
+    @Parameter
+    File localDirectory;
+
+    /**
+     * Maximum size of the local cache in megabytes. The least recently used executables are evicted
+     * when the cache grows beyond this size.
+     */
+    @Parameter(defaultValue = "1024")
+    long localMaxSize = 1024;
+
+    /**
+     * If set to true, the executable is stored in and restored from the local cache as a hard link instead of a copy.
+     * Don't use it if the executable is modified in place afterwards, e.g. signed.
+     */
+    @Parameter(defaultValue = "false")
+    boolean hardLink;
+
+    /**
+     * Base url of a remote cache shared over HTTP, e.g. by CI agents. Executables are downloaded with
+     * <code>GET {remoteUrl}/{key}.exe</code> and uploaded with <code>PUT {remoteUrl}/{key}.exe</code>.
+     */
+    @Parameter
+    String remoteUrl;
+
+    /**
+     * Timeout of each whole transfer from or to the remote cache in seconds. When the remote cache cannot be
+     * reached or does not send a valid executable in time the executable is built locally.
+     */
+    @Parameter(defaultValue = "10")
+    int remoteTimeout = 10;
+
+    /**
+     * If set to true, executables built locally are uploaded to the remote cache.
+     */
+    @Parameter(defaultValue = "true")
+    boolean remotePush = true;
+
+    @Override
+    public String toString() {
+        return "BuildCache{" +
+                "local=" + local +
+                ", localDirectory=" + localDirectory +
+                ", localMaxSize=" + localMaxSize +
+                ", hardLink=" + hardLink +
+                ", remoteUrl='" + remoteUrl + '\'' +
+                ", remoteTimeout=" + remoteTimeout +
+                ", remotePush=" + remotePush +
+                '}';
+    }
+}
@@ -19,13 +19,34 @@
  */
 package com.akathist.maven.plugins.launch4j;
 
+import com.akathist.maven.plugins.launch4j.build.BuildLocks;
+import com.akathist.maven.plugins.launch4j.build.ConfigXml;
+import com.akathist.maven.plugins.launch4j.build.ExecutableBuilder;
+import com.akathist.maven.plugins.launch4j.build.JarRewrapper;
+import com.akathist.maven.plugins.launch4j.build.ResourceCompiler;
+import com.akathist.maven.plugins.launch4j.build.ResourceObjectCache;
+import com.akathist.maven.plugins.launch4j.build.ResourceObjects;
+import com.akathist.maven.plugins.launch4j.build.ResourcePatcher;
+import com.akathist.maven.plugins.launch4j.cache.BuildFingerprint;
+import com.akathist.maven.plugins.launch4j.cache.LocalExecutableCache;
+import com.akathist.maven.plugins.launch4j.cache.RemoteExecutableCache;
+import com.akathist.maven.plugins.launch4j.report.BuildEvents;
+import com.akathist.maven.plugins.launch4j.report.BuildReport;
+import com.akathist.maven.plugins.launch4j.report.ChromeTrace;
+import com.akathist.maven.plugins.launch4j.toolchain.HostToolchain;
+import com.akathist.maven.plugins.launch4j.toolchain.OverlayWorkDir;
+import com.akathist.maven.plugins.launch4j.toolchain.ToolchainCache;
+import com.akathist.maven.plugins.launch4j.toolchain.WorkDirFiles;
+import com.akathist.maven.plugins.launch4j.toolchain.WorkDirInstaller;
+import com.akathist.maven.plugins.launch4j.tools.FsyncPolicy;
+import com.akathist.maven.plugins.launch4j.tools.JarNormalizer;
+import com.akathist.maven.plugins.launch4j.tools.OutputTimestamp;
 import com.akathist.maven.plugins.launch4j.tools.ResourceIO;
-import net.sf.launch4j.Builder;
 import net.sf.launch4j.BuilderException;
 import net.sf.launch4j.config.Config;
-import net.sf.launch4j.config.ConfigPersister;
 import net.sf.launch4j.config.ConfigPersisterException;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
@@ -45,23 +66,31 @@ import org.eclipse.aether.repository.LocalArtifactResult;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
-import java.util.Enumeration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Wraps a jar in a Windows executable.
@@ -74,6 +103,14 @@ import java.util.stream.Collectors;
 )
 public class Launch4jMojo extends AbstractMojo {
 
+    private static final Set<PosixFilePermission> EXECUTABLE_PERMISSIONS = PosixFilePermissions.fromString("rwxr-xr-x");
+
+    // resource objects kept in target/launch4j/resources, enough for a few icon and version changes of many variants
+    private static final int RESOURCE_CACHE_ENTRIES = 256;
+
+    // marks the stored fingerprint of an executable whose resources were patched, see incrementalPatch
+    private static final String PATCHED = "patched";
+
     @Parameter(defaultValue = "launch4j", required = true)
     private String launch4jArtifactId;
 
@@ -92,6 +129,12 @@ public class Launch4jMojo extends AbstractMojo {
     @Parameter(defaultValue = "${session}", required = true, readonly = true)
     private MavenSession session;
 
+    /**
+     * Current execution of the plugin, its id names the private work directory.
+     */
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
     @Parameter(defaultValue = "${project.remoteProjectRepositories}", required = true, readonly = true)
     private List<RemoteRepository> repositories;
 
@@ -254,13 +297,15 @@ public class Launch4jMojo extends AbstractMojo {
     private boolean requireAdminRights;
 
     /**
-     * Object files to include. Used for custom headers only.
+     * Object files to include. Used for custom headers only. Files of the project may be given
+     * as glob patterns relative to the project directory, e.g. <code>src/main/objs/**.o</code>.
      */
     @Parameter
     private List<String> objs;
 
     /**
-     * Win32 libraries to include. Used for custom headers only.
+     * Win32 libraries to include. Used for custom headers only. Files of the project may be given
+     * as glob patterns relative to the project directory, e.g. <code>src/main/libs/*.a</code>.
      */
     @Parameter
     private List<String> libs;
@@ -333,8 +378,12 @@ public class Launch4jMojo extends AbstractMojo {
     private File configOutfile;
 
     /**
-     * If set to true, a synchronized block will be used to protect resources
+     * Not needed anymore, executions running in parallel don't share any configuration state.
+     * Kept for compatibility with existing builds.
+     *
+     * @deprecated ignored
      */
+    @Deprecated
     @Parameter(defaultValue = "false")
     private boolean parallelExecution = false;
 
@@ -344,6 +393,123 @@ public class Launch4jMojo extends AbstractMojo {
     @Parameter(defaultValue = "false")
     private boolean skip = false;
 
+    /**
+     * If set to true, the executable is only built when any of its inputs has changed since the last build.
+     * A fingerprint of all the inputs is stored next to {@link #outfile}. It is computed from the files of the project
+     * and the coordinates of the toolchain, so nothing is prepared for an executable which is up-to-date.
+     * When only the jar has changed, the new jar is wrapped into the header of the previous executable.
+     */
+    @Parameter(defaultValue = "true")
+    private boolean upToDateCheck = true;
+
+    /**
+     * If set to true and only the version information, the icon or the manifest, and possibly the jar, have changed
+     * since the last build, the resources of the previous executable are patched instead of building it again,
+     * see {@link #upToDateCheck}. A patched executable doesn't have the same bytes as a built one, its resources
+     * are laid out differently, so it is never stored in the build caches.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean incrementalPatch = false;
+
+    /**
+     * Details about caching of the built executables.
+     */
+    @Parameter
+    private BuildCache buildCache;
+
+    /**
+     * If set to true, the executable doesn't depend on the time of the build: timestamps of the PE headers
+     * and resources and of the entries of the wrapped jar are set to {@link #outputTimestamp}.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean reproducible = false;
+
+    /**
+     * Timestamp used by the reproducible build, in ISO 8601 format or as seconds since the epoch.
+     * If not set, 1980-01-01T00:00:00Z is used.
+     */
+    @Parameter(defaultValue = "${project.build.outputTimestamp}")
+    private String outputTimestamp;
+
+    /**
+     * Host-installed MinGW <code>ld</code> and <code>windres</code> to use instead of the binaries bundled
+     * with Launch4j, e.g. on aarch64 where the bundled ones run emulated.
+     */
+    @Parameter
+    private Binutils binutils;
+
+    /**
+     * How the resources are compiled: <code>windres</code> runs the resource compiler of the toolchain,
+     * <code>java</code> compiles the resource scripts generated by Launch4j in process, without starting
+     * a windres process, and only falls back to windres for scripts it doesn't support.
+     */
+    @Parameter(defaultValue = "windres")
+    private String resourceCompiler = "windres";
+
+    /**
+     * What is flushed to the disk when the executable is published: <code>none</code> leaves it to the operating
+     * system, <code>file</code> flushes the executable before it is moved into place and <code>full</code> also
+     * flushes its directory afterwards, so the new executable survives a crash of the machine.
+     */
+    @Parameter(defaultValue = "none")
+    private String outputFsync = "none";
+
+    /**
+     * If set to true, the time spent in each phase of the execution, the numbers of started processes and of bytes
+     * read and written and the results of the caches are written as JSON into
+     * <code>${project.build.directory}/launch4j/build-report-{executionId}.json</code>
+     * and summarized in the log. The summary is logged at debug level otherwise.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean buildReport = false;
+
+    /**
+     * If set, the phases of all the executions of the plugin in the build are written into this file as a trace
+     * in the Chrome Trace Event Format, with one track per thread and the time spent blocked on locks shared
+     * with other executions, e.g. <code>${session.executionRootDirectory}/target/launch4j-trace.json</code>
+     * to see how the modules of a parallel build overlap. Open it in <code>chrome://tracing</code> or Perfetto.
+     */
+    @Parameter
+    private File traceFile;
+
+    /**
+     * Several executables built by this execution, in parallel, e.g. a GUI and a console launcher of the same
+     * application. Each launcher sets its own <code>outfile</code> and may override <code>headerType</code>,
+     * <code>jar</code>, <code>icon</code>, <code>jre</code>, <code>classPath</code> and other parameters,
+     * the rest of the configuration of the plugin is shared. The plugin's own <code>outfile</code> isn't built then.
+     */
+    @Parameter
+    private List<Launcher> launchers;
+
+    /**
+     * Variants of the executable, or of each of the {@link #launchers}, differing in the header type
+     * and the locale of the version information and messages. Every combination is built, resources
+     * which are the same for several variants are compiled once.
+     */
+    @Parameter
+    private Matrix matrix;
+
+    private String launch4jVersion;
+
+    private final Map<File, File> normalizedJars = new ConcurrentHashMap<>();
+
+    private ResourceObjects resourceObjects;
+
+
+    private ResourceCompiler resourceCompilerMode;
+
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+
+    private BuildReport report = new BuildReport("default");
+
+    /**
+     * Custom header objects and libraries relative to the work directory mapped to the files of the project
+     * they are copied from, see {@link WorkDirFiles#resolve(File, List)}.
+     */
+    private Map<String, Path> headerObjectFiles;
+
+    private Map<String, Path> libFiles;
+
     private File getJar() {
         return new File(jar);
     }
@@ -351,26 +517,27 @@ public class Launch4jMojo extends AbstractMojo {
     @Override
     public void execute() throws MojoExecutionException {
         if (parallelExecution) {
-            synchronized (Launch4jMojo.class) {
-                doExecute();
-            }
-        } else {
-            doExecute();
+            getLog().debug("<parallelExecution> is not needed anymore, executions don't share any state");
         }
-    }
-
-    private void doExecute() throws MojoExecutionException {
         if (this.skipExecution()) {
             getLog().debug("Skipping execution of the plugin");
             return;
         }
+        report = new BuildReport(project != null ? project.getArtifactId() : null, getExecutionId());
+        try {
+            doExecute();
+        } finally {
+            finishReport();
+        }
+    }
 
+    private void doExecute() throws MojoExecutionException {
         processRequireAdminRights();
 
         fillSensibleJreDefaults();
 
         if (!disableVersionInfoDefaults) {
-            try {
+            try (BuildReport.Phase ignored = report.start("versionInfoDefaults")) {
                 if (versionInfo == null) {
                     versionInfo = new VersionInfo();
                 }
@@ -381,22 +548,73 @@ public class Launch4jMojo extends AbstractMojo {
             }
         }
 
-        final File workDir = setupBuildEnvironment();
+        resourceCompilerMode = getResourceCompiler();
+        fsyncPolicy = getFsyncPolicy();
+
+        BuildEvents.ConfigAssembly assembly = new BuildEvents.ConfigAssembly();
+        assembly.source = infile != null ? "infile" : "pom";
+        final Config c;
+        try (BuildReport.Phase ignored = report.start("configAssembly", null, assembly)) {
+            c = assembleConfig();
+        }
+        final File configDir = infile != null ? infile.getAbsoluteFile().getParentFile() : getBaseDir();
+
+        boolean variants = (launchers != null && !launchers.isEmpty()) || matrix != null;
+        List<Config> configs = variants ? variants(c) : Collections.singletonList(c);
+        if (!variants && getLog().isDebugEnabled()) {
+            printState(c);
+        }
+
+        // fingerprints only need the files of the project and the coordinates of the toolchain,
+        // so unchanged executables are detected before the toolchain and the work directory are prepared
+        Map<Config, BuildFingerprint> fingerprints = fingerprints(configs, configDir);
+        if (allUpToDate(configs, configDir, fingerprints)) {
+            saveConfigs(configs, variants);
+            return;
+        }
+
+        final File toolchain;
+        BuildEvents.Toolchain toolchainEvent = new BuildEvents.Toolchain();
+        try (BuildReport.Phase ignored = report.start("toolchain", null, toolchainEvent)) {
+            toolchain = setupBuildEnvironment(toolchainEvent);
+        }
+        final File workDir;
+        try (BuildReport.Phase ignored = report.start("overlayWorkDir")) {
+            workDir = createOverlayWorkDir(toolchain);
+        }
+        copyToWorkDir(workDir);
+        resourceObjects = new ResourceObjects(workDir, new ResourceObjectCache(
+                new File(project.getBuild().getDirectory(), "launch4j/resources"), RESOURCE_CACHE_ENTRIES));
+
+        if (variants) {
+            buildVariants(workDir, configs, configDir, fingerprints);
+        } else {
+            buildExecutable(workDir, c, configDir, fingerprints.get(c));
+        }
+
+        saveConfigs(configs, variants);
+    }
+
+    /**
+     * The configuration of this execution, loaded from the {@link #infile} or made of the plugin parameters.
+     */
+    private Config assembleConfig() throws MojoExecutionException {
+        final Config c;
         if (infile != null) {
             if (infile.exists()) {
                 try {
                     if (getLog().isDebugEnabled()) {
                         getLog().debug("Trying to load Launch4j native configuration using file=" + infile.getAbsolutePath());
                     }
-                    // load launch4j config file from <infile>
-                    ConfigPersister.getInstance().load(infile);
+                    // load launch4j config file from <infile>, the configuration belongs to this execution only
+                    c = ConfigXml.load(infile);
+                    // custom header objects and libraries of a native configuration are files of the toolchain
+                    headerObjectFiles = toolchainFiles(c.getHeaderObjects());
+                    libFiles = toolchainFiles(c.getLibs());
 
                     // overwrite several properties analogous to the ANT task
                     // https://sourceforge.net/p/launch4j/git/ci/master/tree/src/net/sf/launch4j/ant/Launch4jTask.java#l84
 
-                    // retrieve the loaded configuration for manipulation
-                    Config c = ConfigPersister.getInstance().getConfig();
-
                     String jarDefaultValue = project.getBuild().getDirectory() + "/" + project.getBuild().getFinalName() + ".jar";
                     if (jar != null && !jar.equals(jarDefaultValue)) {
                         getLog().debug("Overwriting config file property 'jar' (='" + c.getJar().getAbsolutePath() + "') with local value '" + getJar().getAbsolutePath() + "'");
@@ -434,8 +652,6 @@ public class Launch4jMojo extends AbstractMojo {
                         }
                     }
 
-                    ConfigPersister.getInstance().setAntConfig(c, infile.getParentFile());
-
                 } catch (ConfigPersisterException e) {
                     getLog().error(e);
                     throw new MojoExecutionException("Could not load Launch4j native configuration file", e);
@@ -444,7 +660,7 @@ public class Launch4jMojo extends AbstractMojo {
                 throw new MojoExecutionException("Launch4j native configuration file [" + infile.getAbsolutePath() + "] does not exist!");
             }
         } else {
-            final Config c = new Config();
+            c = new Config();
 
             c.setHeaderType(headerType);
             c.setOutfile(outfile);
@@ -460,8 +676,10 @@ public class Launch4jMojo extends AbstractMojo {
             c.setRestartOnCrash(restartOnCrash);
             c.setManifest(manifest);
             c.setIcon(icon);
-            c.setHeaderObjects(relativizeAndCopy(workDir, objs));
-            c.setLibs(relativizeAndCopy(workDir, libs));
+            headerObjectFiles = projectFiles(objs);
+            libFiles = projectFiles(libs);
+            c.setHeaderObjects(paths(headerObjectFiles));
+            c.setLibs(paths(libFiles));
             c.setVariables(vars);
 
             if (classPath != null) {
@@ -486,28 +704,583 @@ public class Launch4jMojo extends AbstractMojo {
                 }
                 c.setMessages(messages.toL4j());
             }
-            ConfigPersister.getInstance().setAntConfig(c, getBaseDir());
+        }
+        return c;
+    }
+
+    /**
+     * Configurations of all the {@link #launchers} and their {@link #matrix} variants, using the given configuration
+     * for the parameters they don't set.
+     */
+    private List<Config> variants(Config defaults) throws MojoExecutionException {
+        List<Config> configs = new ArrayList<>();
+        for (Launcher launcher : launchers != null ? launchers : Collections.<Launcher>emptyList()) {
+            if (launcher.outfile == null) {
+                throw new MojoExecutionException("<outfile> is required for each of <launchers>");
+            }
+            File parent = launcher.outfile.getAbsoluteFile().getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs()) {
+                getLog().warn("Cannot create parent " + parent.getPath() + "!");
+            }
+            if (launcher.jre != null) {
+                launcher.jre.deprecationWarning(getLog());
+            }
+            if (launcher.versionInfo != null && !disableVersionInfoDefaults) {
+                try (BuildReport.Phase ignored = report.start("versionInfoDefaults", launcher.outfile.getPath())) {
+                    launcher.versionInfo.setLog(getLog());
+                    launcher.versionInfo.tryFillOutByDefaults(project, launcher.outfile);
+                } catch (RuntimeException exception) {
+                    throw new MojoExecutionException("Cannot fill out VersionInfo of " + launcher.outfile + " by defaults", exception);
+                }
+            }
+            Config config = launcher.toL4j(defaults, dependencies);
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Launcher " + launcher.outfile + ":");
+                printState(config);
+            }
+            configs.add(config);
+        }
+        if (configs.isEmpty()) {
+            configs.add(defaults);
+        }
+        if (matrix != null) {
+            configs = matrix.expand(configs);
+            if (getLog().isDebugEnabled()) {
+                for (Config config : configs) {
+                    getLog().debug("Variant " + config.getOutfile() + ": headerType=" + config.getHeaderType()
+                            + (config.getVersionInfo() != null ? ", language=" + config.getVersionInfo().getLanguage() : ""));
+                }
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Builds all the variants in parallel. All of them share the work directory prepared for this execution,
+     * the normalized jar and the resource objects which are the same for several variants.
+     */
+    private void buildVariants(File workDir, List<Config> configs, File configDir, Map<Config, BuildFingerprint> fingerprints)
+            throws MojoExecutionException {
+        int threads = Math.min(configs.size(), Runtime.getRuntime().availableProcessors());
+        getLog().info("Building " + configs.size() + " executables using " + threads + " threads");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Config config : configs) {
+                futures.add(executor.submit(() -> {
+                    buildExecutable(workDir, config, configDir, fingerprints.get(config));
+                    return null;
+                }));
+            }
+            MojoExecutionException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // other launchers are still built, all the failures are reported together
+                    Throwable cause = e.getCause();
+                    if (failure == null) {
+                        failure = cause instanceof MojoExecutionException
+                                ? (MojoExecutionException) cause
+                                : new MojoExecutionException("Failed to build launcher", cause);
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException("Interrupted while building launchers", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void saveConfigs(List<Config> configs, boolean variants) throws MojoExecutionException {
+        if (!saveConfig) {
+            return;
+        }
+        if (!variants) {
+            saveConfig(configs.get(0), configOutfile);
+            return;
+        }
+        String name = configOutfile.getName().replaceFirst("\\.xml$", "");
+        for (Config config : configs) {
+            String launcherName = config.getOutfile().getName().replaceFirst("\\.exe$", "");
+            saveConfig(config, new File(configOutfile.getParentFile(), name + "-" + launcherName + ".xml"));
+        }
+    }
+
+    private void saveConfig(Config config, File file) throws MojoExecutionException {
+        BuildEvents.ConfigSave event = new BuildEvents.ConfigSave();
+        event.file = file.getPath();
+        try (BuildReport.Phase ignored = report.start("saveConfig", null, event)) {
+            ConfigXml.save(config, file);
+            event.bytes = file.length();
+            report.count(BuildReport.BYTES_WRITTEN, event.bytes);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot save config into a XML file", e);
+        }
+    }
+
+    /**
+     * Computes the fingerprints of the build inputs of all the executables, unless neither the up-to-date check
+     * nor the build cache needs them.
+     */
+    private Map<Config, BuildFingerprint> fingerprints(List<Config> configs, File configDir) throws MojoExecutionException {
+        Map<Config, BuildFingerprint> fingerprints = new IdentityHashMap<>();
+        boolean cached = buildCache != null
+                && (buildCache.local || (buildCache.remoteUrl != null && !buildCache.remoteUrl.trim().isEmpty()));
+        if (!upToDateCheck && !cached) {
+            return fingerprints;
+        }
+        String toolchain = toolchainKey(choosePlatform());
+        Long timestamp = getReproducibleTimestamp();
+        for (Config config : configs) {
+            try (BuildReport.Phase ignored = report.start("fingerprint", outputFile(config, configDir).getPath())) {
+                BuildFingerprint fingerprint = BuildFingerprint.of(config, configDir, toolchain, headerObjectFiles, libFiles)
+                        // the plugin links, wraps and normalizes the executable itself, another version may change the bytes
+                        .with("plugin", getPluginId())
+                        .with("reproducible", timestamp == null ? "false" : String.valueOf(timestamp))
+                        // the resources are laid out differently in the other mode
+                        .with("resourceCompiler", resourceCompilerMode.name());
+                if (binutils != null) {
+                    // probing the versions of the host binutils starts processes, an update changes the files anyway
+                    fingerprint = fingerprint.with("binutils", describe(binutils.ld) + "," + describe(binutils.windres));
+                }
+                fingerprints.put(config, fingerprint);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot compute fingerprint of the build inputs", e);
+            }
+        }
+        return fingerprints;
+    }
+
+    private static String describe(File tool) {
+        return tool + ":" + tool.length() + ":" + tool.lastModified();
+    }
+
+    /**
+     * Whether all the executables are up-to-date with their inputs, so nothing has to be prepared for the build.
+     */
+    private boolean allUpToDate(List<Config> configs, File configDir, Map<Config, BuildFingerprint> fingerprints) {
+        if (!upToDateCheck) {
+            return false;
+        }
+        List<File> outs = new ArrayList<>();
+        for (Config config : configs) {
+            File out = outputFile(config, configDir);
+            BuildFingerprint fingerprint = fingerprints.get(config);
+            if (fingerprint == null || !out.isFile() || !fingerprint.equals(BuildFingerprint.read(BuildFingerprint.fileFor(out)))) {
+                return false;
+            }
+            outs.add(out);
+        }
+        for (File out : outs) {
+            getLog().info("Executable " + out + " is up-to-date, skipping the build");
+            report.result(out.getPath(), "outcome", "up-to-date");
+        }
+        return true;
+    }
+
+    /**
+     * Runs the Launch4j builder, unless the executable is up-to-date with its inputs
+     * or it can be restored from the build cache.
+     *
+     * @param fingerprint fingerprint of the build inputs, null if neither the up-to-date check nor the cache is used
+     */
+    private void buildExecutable(File workDir, Config config, File configDir, BuildFingerprint fingerprint)
+            throws MojoExecutionException {
+        File out = outputFile(config, configDir);
+        // executions writing the same executable, e.g. with different classifiers, must not overlap
+        Lock outputLock = BuildLocks.forOutput(out);
+        BuildEvents.Executable event = new BuildEvents.Executable();
+        try (BuildReport.Phase ignored = report.start("executable", out.getPath(), event)) {
+            if (!outputLock.tryLock()) {
+                try (BuildReport.Phase waiting = report.waitFor("outputLock", out.getPath())) {
+                    outputLock.lock();
+                }
+            }
+            try {
+                buildExecutable(workDir, config, configDir, out, fingerprint);
+            } finally {
+                outputLock.unlock();
+                Map<String, String> results = report.getExecutables().getOrDefault(out.getPath(), Collections.emptyMap());
+                event.outcome = results.get("outcome");
+                event.localCache = results.get("localCache");
+                event.remoteCache = results.get("remoteCache");
+                event.bytes = out.length();
+            }
+        }
+    }
+
+    private void buildExecutable(File workDir, Config config, File configDir, File out, BuildFingerprint fingerprint)
+            throws MojoExecutionException {
+        LocalExecutableCache localCache = createLocalCache();
+        RemoteExecutableCache remoteCache = createRemoteCache();
+
+        Long timestamp = getReproducibleTimestamp();
+        String target = out.getPath();
+
+        BuildFingerprint previous = null;
+        boolean previousPatched = false;
+        File fingerprintFile = null;
+        if (fingerprint != null) {
+            fingerprintFile = BuildFingerprint.fileFor(out);
+            previous = BuildFingerprint.read(fingerprintFile);
+            if (previous != null) {
+                previousPatched = previous.getComponents().containsKey(PATCHED);
+                previous = previous.without(PATCHED);
+            }
+            // the variants of this execution which have changed are built, the others are still up-to-date
+            if (upToDateCheck && out.isFile() && fingerprint.equals(previous)) {
+                getLog().info("Executable " + out + " is up-to-date, skipping the build");
+                report.result(target, "outcome", "up-to-date");
+                return;
+            }
+            if (previous != null) {
+                getLog().debug("Changed build inputs: " + fingerprint.diff(previous));
+            }
+            try {
+                Files.deleteIfExists(fingerprintFile.toPath());
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot delete fingerprint of the previous build " + fingerprintFile, e);
+            }
+        }
+
+        if (localCache != null) {
+            try (BuildReport.Phase ignored = report.start("localCache", target)) {
+                if (localCache.restore(fingerprint.getDigest(), out, buildCache.hardLink)) {
+                    getLog().info("Executable " + out + " restored from the local build cache");
+                    report.result(target, "localCache", "hit");
+                    report.result(target, "outcome", "local-cache");
+                    report.count(BuildReport.BYTES_WRITTEN, out.length());
+                    storeFingerprint(fingerprint, fingerprintFile);
+                    return;
+                }
+                getLog().debug("Executable not found in the local build cache");
+                report.result(target, "localCache", "miss");
+            } catch (IOException e) {
+                getLog().warn("Cannot restore executable from the local build cache, building it", e);
+                report.result(target, "localCache", "error");
+            }
+        }
+
+        if (remoteCache != null) {
+            try (BuildReport.Phase ignored = report.start("remoteCache", target)) {
+                if (remoteCache.fetch(fingerprint.getDigest(), out)) {
+                    getLog().info("Remote build cache hit, executable " + out + " downloaded from " + remoteCache.getUrl());
+                    report.result(target, "remoteCache", "hit");
+                    report.result(target, "outcome", "remote-cache");
+                    report.count(BuildReport.BYTES_WRITTEN, out.length());
+                    storeFingerprint(fingerprint, fingerprintFile);
+                    storeInLocalCache(localCache, fingerprint, out);
+                    return;
+                }
+                getLog().info("Remote build cache miss for " + out + ", building it");
+                report.result(target, "remoteCache", "miss");
+            } catch (IOException e) {
+                getLog().warn("Cannot download executable from the remote build cache " + remoteCache.getUrl() + ", building it: " + e);
+                report.result(target, "remoteCache", "error");
+            }
         }
 
-        if (getLog().isDebugEnabled()) {
-            printState();
+        File originalJar = config.getJar();
+        if (timestamp != null && !config.isDontWrapJar()) {
+            config.setJar(normalizeJar(config, configDir, out, timestamp));
+        }
+        String outcome = "built";
+        try {
+            try (BuildReport.Phase ignored = report.start("patch", target)) {
+                if (upToDateCheck && rewrapExecutable(config, configDir, out, fingerprint, previous, timestamp)) {
+                    outcome = "rewrapped";
+                } else if (incrementalPatch && patchExecutable(config, configDir, out, fingerprint, previous, timestamp)) {
+                    outcome = "patched";
+                }
+            }
+            if (outcome.equals("built")) {
+                try (BuildReport.Phase ignored = report.start("build", target)) {
+                    buildWithLaunch4j(workDir, config, configDir, out, timestamp);
+                }
+            }
+            report.result(target, "outcome", outcome);
+            report.count(BuildReport.BYTES_WRITTEN, out.length());
+        } finally {
+            config.setJar(originalJar);
         }
 
-        final Builder builder = new Builder(new MavenLog(getLog()), workDir);
+        // a rewrapped executable has the same bytes as a built one, unless its header comes from a patched one
+        boolean patched = outcome.equals("patched") || (outcome.equals("rewrapped") && previousPatched);
+        if (fingerprint != null) {
+            storeFingerprint(patched ? fingerprint.with(PATCHED, "true") : fingerprint, fingerprintFile);
+        }
+        if (patched) {
+            // the caches only hold executables with the bytes of a build from scratch, the same key always has the same bytes
+            return;
+        }
+        storeInLocalCache(localCache, fingerprint, out);
+        if (remoteCache != null && buildCache.remotePush) {
+            try (BuildReport.Phase ignored = report.start("upload", target)) {
+                remoteCache.upload(fingerprint.getDigest(), out);
+                getLog().info("Executable " + out + " uploaded to the remote build cache " + remoteCache.getUrl());
+            } catch (IOException e) {
+                getLog().warn("Cannot upload executable to the remote build cache " + remoteCache.getUrl() + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * When only the jar has changed since the previous build, wraps the new jar into the header of the previous
+     * executable instead of building it again, see {@link JarRewrapper}. The header is kept as it is, so the result
+     * is the same as the executable built from scratch.
+     *
+     * @return false if the executable has to be built
+     */
+    private boolean rewrapExecutable(Config config, File configDir, File out, BuildFingerprint fingerprint,
+                                     BuildFingerprint previous, Long timestamp) {
+        if (fingerprint == null || previous == null || !out.isFile() || config.isDontWrapJar()
+                || !fingerprint.diff(previous).equals(Collections.singletonList("jar"))) {
+            return false;
+        }
         try {
-            builder.build();
+            if (!rewrapJar(config, configDir, out, previous, timestamp)) {
+                getLog().debug("Previous executable " + out + " doesn't end with the previous jar, building it");
+                return false;
+            }
+            getLog().info("Only the jar changed, wrapped it into the previous executable " + out);
+            return true;
+        } catch (IOException e) {
+            getLog().warn("Cannot wrap the jar into the previous executable " + out + ", building it: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * When the version information, the icon or the manifest, and possibly the jar, have changed since the previous
+     * build, patches the previous executable instead of building it again, see {@link ResourcePatcher}
+     * and {@link JarRewrapper}.
+     *
+     * @return false if the executable has to be built
+     */
+    private boolean patchExecutable(Config config, File configDir, File out, BuildFingerprint fingerprint,
+                                    BuildFingerprint previous, Long timestamp) {
+        if (fingerprint == null || previous == null || !out.isFile()) {
+            return false;
+        }
+        List<String> changed = fingerprint.diff(previous);
+        List<String> resources = new ArrayList<>(changed);
+        resources.retainAll(ResourcePatcher.COMPONENTS);
+        boolean jar = changed.contains("jar");
+        if (resources.isEmpty() || resources.size() + (jar ? 1 : 0) != changed.size() || (jar && config.isDontWrapJar())) {
+            return false;
+        }
+        try {
+            if (!ResourcePatcher.patch(out, config, configDir, resources, fsyncPolicy)) {
+                getLog().debug("Cannot patch resources of the previous executable " + out + ", building it");
+                return false;
+            }
+            if (jar && !rewrapJar(config, configDir, out, previous, timestamp)) {
+                getLog().debug("Previous executable " + out + " doesn't end with the previous jar, building it");
+                return false;
+            }
+            getLog().info("Only " + changed + " changed, patched the previous executable " + out);
+            return true;
+        } catch (IOException e) {
+            getLog().warn("Cannot patch the previous executable " + out + ", building it: " + e);
+            return false;
+        }
+    }
+
+    private boolean rewrapJar(Config config, File configDir, File out, BuildFingerprint previous, Long timestamp)
+            throws IOException {
+        File jarFile = config.getJar().isAbsolute() ? config.getJar() : new File(configDir, config.getJar().getPath());
+        // a reproducible build wraps the normalized jar, its digest isn't part of the fingerprint
+        String previousJar = previous.getComponents().get("jar");
+        String expectedDigest = timestamp == null && previousJar != null && previousJar.startsWith("sha256:")
+                ? previousJar.substring("sha256:".length()) : null;
+        report.count(BuildReport.BYTES_READ, jarFile.length());
+        BuildEvents.JarWrap event = new BuildEvents.JarWrap();
+        event.jar = jarFile.getPath();
+        event.bytes = jarFile.length();
+        event.rewrap = true;
+        try (BuildReport.Phase ignored = report.start("rewrapJar", out.getPath(), event)) {
+            return JarRewrapper.rewrap(out, jarFile, expectedDigest, fsyncPolicy);
+        }
+    }
+
+    private void buildWithLaunch4j(File workDir, Config config, File configDir, File out, Long timestamp)
+            throws MojoExecutionException {
+        final ExecutableBuilder builder = new ExecutableBuilder(new MavenLog(getLog()), workDir, workDir, resourceObjects);
+        builder.setResourceCompiler(resourceCompilerMode);
+        builder.setFsyncPolicy(fsyncPolicy);
+        builder.setTimestamp(timestamp == null ? null : (int) (long) timestamp);
+        builder.setReport(report);
+        try {
+            builder.build(config, configDir);
         } catch (BuilderException e) {
             getLog().error(e);
             throw new MojoExecutionException("Failed to build the executable; please verify your configuration.", e);
         }
+    }
+
+    private ResourceCompiler getResourceCompiler() throws MojoExecutionException {
+        if (resourceCompiler == null || resourceCompiler.trim().isEmpty()) {
+            return ResourceCompiler.WINDRES;
+        }
+        try {
+            return ResourceCompiler.valueOf(resourceCompiler.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Unsupported resourceCompiler " + resourceCompiler + ", use windres or java");
+        }
+    }
+
+    private FsyncPolicy getFsyncPolicy() throws MojoExecutionException {
+        if (outputFsync == null || outputFsync.trim().isEmpty()) {
+            return FsyncPolicy.NONE;
+        }
+        try {
+            return FsyncPolicy.valueOf(outputFsync.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Unsupported outputFsync " + outputFsync + ", use none, file or full");
+        }
+    }
 
-        if (saveConfig) {
+    /**
+     * @return seconds since the epoch used by the reproducible build, or null if it is disabled
+     */
+    private Long getReproducibleTimestamp() throws MojoExecutionException {
+        if (!reproducible) {
+            return null;
+        }
+        Long timestamp;
+        try {
+            timestamp = OutputTimestamp.parse(outputTimestamp);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+        if (timestamp == null) {
+            getLog().debug("No project.build.outputTimestamp defined, using " + OutputTimestamp.DEFAULT_EPOCH_SECONDS);
+            return OutputTimestamp.DEFAULT_EPOCH_SECONDS;
+        }
+        return timestamp;
+    }
+
+    /**
+     * Copies the jar into the build directory with all the entry times set to the given timestamp.
+     */
+    private File normalizeJar(Config config, File configDir, File out, long timestamp) throws MojoExecutionException {
+        File source = config.getJar();
+        if (!source.isAbsolute()) {
+            source = new File(configDir, source.getPath());
+        }
+        File target = new File(project.getBuild().getDirectory(), "launch4j/" + out.getName() + ".jar");
+        try {
+            // variants of the same launcher wrap the same jar, it is normalized once
+            return normalizedJars.computeIfAbsent(source.getAbsoluteFile(), jarFile -> {
+                try (BuildReport.Phase ignored = report.start("normalizeJar", out.getPath())) {
+                    JarNormalizer.normalize(jarFile, target, timestamp);
+                    return target;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw new MojoExecutionException("Cannot normalize jar " + source, e.getCause());
+        }
+    }
+
+    /**
+     * The executable produced from the configuration, relative paths are resolved against the configuration directory.
+     */
+    private static File outputFile(Config config, File configDir) {
+        File outfile = config.getOutfile();
+        return outfile.isAbsolute() ? outfile : new File(configDir, outfile.getPath());
+    }
+
+    private void storeInLocalCache(LocalExecutableCache localCache, BuildFingerprint fingerprint, File out) {
+        if (localCache != null) {
+            try (BuildReport.Phase ignored = report.start("storeCache", out.getPath())) {
+                localCache.store(fingerprint.getDigest(), out, buildCache.hardLink);
+            } catch (IOException e) {
+                getLog().warn("Cannot store executable in the local build cache", e);
+            }
+        }
+    }
+
+    private RemoteExecutableCache createRemoteCache() {
+        if (buildCache == null || buildCache.remoteUrl == null || buildCache.remoteUrl.trim().isEmpty()) {
+            return null;
+        }
+        getLog().debug("Using remote build cache " + buildCache.remoteUrl);
+        return new RemoteExecutableCache(buildCache.remoteUrl.trim(), Duration.ofSeconds(buildCache.remoteTimeout), fsyncPolicy);
+    }
+
+    private LocalExecutableCache createLocalCache() {
+        if (buildCache == null || !buildCache.local) {
+            return null;
+        }
+        File directory = buildCache.localDirectory;
+        if (directory == null) {
+            File localRepository = repositorySystemSession.getLocalRepository().getBasedir();
+            directory = new File(localRepository.getParentFile(), "launch4j-cache");
+        }
+        getLog().debug("Using local build cache " + directory);
+        return new LocalExecutableCache(directory, buildCache.localMaxSize * 1024 * 1024, fsyncPolicy);
+    }
+
+    private void storeFingerprint(BuildFingerprint fingerprint, File fingerprintFile) {
+        if (!upToDateCheck) {
+            return;
+        }
+        try {
+            fingerprint.write(fingerprintFile);
+        } catch (IOException e) {
+            getLog().warn("Cannot store fingerprint of the build inputs in " + fingerprintFile, e);
+        }
+    }
+
+    /**
+     * Coordinates of this plugin, e.g. <code>com.akathist.maven.plugins.launch4j:launch4j-maven-plugin:2.6.0</code>.
+     */
+    private String getPluginId() {
+        if (mojoExecution == null || mojoExecution.getMojoDescriptor() == null) {
+            return "unknown";
+        }
+        return mojoExecution.getMojoDescriptor().getPluginDescriptor().getId();
+    }
+
+    private String getExecutionId() {
+        return mojoExecution != null ? mojoExecution.getExecutionId() : "default";
+    }
+
+    /**
+     * Logs the summary of the build report and writes the report if requested.
+     */
+    private void finishReport() {
+        report.finish();
+        if (traceFile != null) {
             try {
-                ConfigPersister.getInstance().save(configOutfile);
-            } catch (ConfigPersisterException e) {
-                throw new MojoExecutionException("Cannot save config into a XML file", e);
+                ChromeTrace.of(repositorySystemSession, traceFile).add(report);
+                getLog().debug("Trace written to " + traceFile);
+            } catch (IOException e) {
+                getLog().warn("Cannot write trace " + traceFile, e);
             }
         }
+        if (!buildReport) {
+            getLog().debug(report.summary());
+            return;
+        }
+        getLog().info(report.summary());
+        File file = new File(project.getBuild().getDirectory(), "launch4j/build-report-" + getExecutionId() + ".json");
+        try {
+            report.write(file);
+            getLog().debug("Build report written to " + file);
+        } catch (IOException e) {
+            getLog().warn("Cannot write build report " + file, e);
+        }
     }
 
     private void fillSensibleJreDefaults() throws MojoExecutionException {
@@ -538,11 +1311,10 @@ public class Launch4jMojo extends AbstractMojo {
                 File manFile = new File(basedir, DEF_REQADMMAN_FILE);
                 byte[] manBytes = ResourceIO.readResourceAsBytes(DEF_REQADMMAN_RES);
 
-                ResourceIO.writeBytesIfDiff(manFile, manBytes);
-
-                byte[] savedBytes = ResourceIO.readBytes(manFile);
-                if (Arrays.equals(manBytes, savedBytes)) {
+                if (ResourceIO.writeBytesIfDiff(manFile, manBytes)) {
                     getLog().info("Manifest file written to " + manFile);
+                } else {
+                    getLog().debug("Manifest file " + manFile + " is up-to-date");
                 }
 
                 manifest = manFile;
@@ -573,15 +1345,47 @@ public class Launch4jMojo extends AbstractMojo {
      * the l4j code so it permits passing in a work directory and doesn't always base it on
      * the location of its own jarfile.
      *
+     * @param event records the platform and whether the work directory was already prepared by this Maven session
      * @return the work directory.
      */
-    private File setupBuildEnvironment() throws MojoExecutionException {
+    private File setupBuildEnvironment(BuildEvents.Toolchain event) throws MojoExecutionException {
         createParentFolder();
-        Artifact binaryBits = chooseBinaryBits();
-        if (retrieveBinaryBits(binaryBits)) {
-            return unpackWorkDir(binaryBits);
-        } else {
-            throw new MojoExecutionException("Artifact: " + binaryBits + " is not available!");
+        String plat = choosePlatform();
+        event.platform = plat;
+        event.cacheResult = "hit";
+        String key = toolchainKey(plat);
+        return ToolchainCache.of(repositorySystemSession).getWorkDir(key, () -> {
+            event.cacheResult = "miss";
+            Artifact binaryBits;
+            try (BuildReport.Phase ignored = report.start("resolveArtifact")) {
+                binaryBits = retrieveBinaryBits(plat);
+            }
+            File workdir;
+            BuildEvents.Extraction extraction = new BuildEvents.Extraction();
+            extraction.artifact = binaryBits.toString();
+            try (BuildReport.Phase ignored = report.start("unpackWorkDir", null, extraction)) {
+                workdir = unpackWorkDir(binaryBits, extraction);
+            }
+            setPermissions(workdir);
+            if (binutils != null) {
+                workdir = useHostBinutils(workdir);
+            }
+            return workdir;
+        }, report);
+    }
+
+    /**
+     * Custom header objects and libraries are copied into the work directory and intermediate files are
+     * written into it, so each execution gets its own overlay of the shared one, see {@link OverlayWorkDir}.
+     */
+    private File createOverlayWorkDir(File toolchain) throws MojoExecutionException {
+        File scratch = new File(project.getBuild().getDirectory(), "launch4j/work/" + getExecutionId());
+        try {
+            File overlay = OverlayWorkDir.create(toolchain, scratch);
+            getLog().debug("Using work directory " + overlay + " overlaying " + toolchain);
+            return overlay;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot create work directory in " + scratch, e);
         }
     }
 
@@ -602,31 +1406,34 @@ public class Launch4jMojo extends AbstractMojo {
 
     /**
      * Unzips the given artifact in-place and returns the newly-unzipped top-level directory.
-     * Writes a marker file to prevent unzipping more than once.
+     * Writes a manifest of the extracted files to prevent unzipping more than once,
+     * see {@link WorkDirInstaller}.
      */
-    private File unpackWorkDir(Artifact artifact) throws MojoExecutionException {
+    private File unpackWorkDir(Artifact artifact, BuildEvents.Extraction event) throws MojoExecutionException {
 
-        getLog().debug("Trying normal search first, all-repo search if normal fails");
-        LocalArtifactRequest request = new LocalArtifactRequest(artifact, null, null);
-        LocalArtifactResult localArtifact = repositorySystemSession.getLocalRepositoryManager().find(repositorySystemSession, request);
-        if (localArtifact == null || localArtifact.getFile() == null) {
-            getLog().warn("Cannot obtain file path to " + artifact + ", trying all-repo search");
-
-            request = new LocalArtifactRequest(artifact, repositories, null);
-            localArtifact = repositorySystemSession.getLocalRepositoryManager().find(repositorySystemSession, request);
+        File platJar = artifact.getFile();
+        if (platJar == null) {
+            getLog().debug("Trying normal search first, all-repo search if normal fails");
+            LocalArtifactRequest request = new LocalArtifactRequest(artifact, null, null);
+            LocalArtifactResult localArtifact = repositorySystemSession.getLocalRepositoryManager().find(repositorySystemSession, request);
             if (localArtifact == null || localArtifact.getFile() == null) {
-                String err = "Cannot obtain file path to " + artifact + " with both normal and all-repo search";
-                getLog().error(err);
-                throw new MojoExecutionException(err);
+                getLog().warn("Cannot obtain file path to " + artifact + ", trying all-repo search");
+
+                request = new LocalArtifactRequest(artifact, repositories, null);
+                localArtifact = repositorySystemSession.getLocalRepositoryManager().find(repositorySystemSession, request);
+                if (localArtifact == null || localArtifact.getFile() == null) {
+                    String err = "Cannot obtain file path to " + artifact + " with both normal and all-repo search";
+                    getLog().error(err);
+                    throw new MojoExecutionException(err);
+                }
             }
+            platJar = localArtifact.getFile();
         }
 
         boolean artifactIsSnapshot = !artifact.getVersion().equals(artifact.getBaseVersion());
 
-        getLog().debug("Unpacking " + localArtifact + " into " + localArtifact.getFile());
-        File platJar = localArtifact.getFile();
+        getLog().debug("Unpacking " + artifact + " from " + platJar);
         File dest = platJar.getParentFile();
-        File marker = new File(dest, platJar.getName() + ".unpacked");
         String n = platJar.getName();
         File workdir = new File(dest, n.substring(0, n.length() - 4));
 
@@ -646,64 +1453,33 @@ public class Launch4jMojo extends AbstractMojo {
             workdir = new File(newWorkdirStr);
         }
 
-        // Therefore we need to expand the jar every time, if the marker file is stale.
-        if (marker.exists() && marker.lastModified() > platJar.lastModified()) {
-            // if (marker.exists() && marker.platJar.getName().indexOf("SNAPSHOT") == -1) {
-            getLog().info("Platform-specific work directory already exists: " + workdir.getAbsolutePath());
-        } else {
-            // trying to use plexus-archiver here is a miserable waste of time:
-            try (JarFile jf = new JarFile(platJar)) {
-                Enumeration<JarEntry> en = jf.entries();
-                while (en.hasMoreElements()) {
-                    JarEntry je = en.nextElement();
-                    File outFile = new File(dest, je.getName());
-                    if (!outFile.toPath().normalize().startsWith(dest.toPath().normalize())) {
-                        throw new RuntimeException("Bad zip entry");
-                    }
-                    File parent = outFile.getParentFile();
-                    if (parent != null) parent.mkdirs();
-                    if (je.isDirectory()) {
-                        outFile.mkdirs();
-                    } else {
-                        try (InputStream in = jf.getInputStream(je)) {
-                            try (FileOutputStream fout = new FileOutputStream(outFile)) {
-                                byte[] buf = new byte[1024];
-                                int len;
-                                while ((len = in.read(buf)) >= 0) {
-                                    fout.write(buf, 0, len);
-                                }
-                            }
-                        }
-                        outFile.setLastModified(je.getTime());
-                    }
-                }
-            } catch (IOException e) {
-                throw new MojoExecutionException("Error unarchiving " + platJar, e);
-            }
-
-            try {
-                marker.createNewFile();
-                marker.setLastModified(new Date().getTime());
-            } catch (IOException e) {
-                getLog().warn("Trouble creating marker file " + marker, e);
-            }
+        try {
+            event.bytes = platJar.length();
+            event.files = new WorkDirInstaller(getLog()).install(platJar, dest);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error unarchiving " + platJar, e);
         }
+        getLog().debug("Platform-specific work directory: " + workdir.getAbsolutePath());
 
-        setPermissions(workdir);
         getLog().info("Using workdir " + workdir);
         return workdir;
     }
 
     /**
-     * Chmods the helper executables ld and windres on systems where that is necessary.
+     * Makes the helper executables ld and windres executable on systems where that is necessary.
      */
     private void setPermissions(File workdir) {
-        if (!System.getProperty("os.name").startsWith("Windows")) {
+        Path bin = workdir.toPath().resolve("bin");
+        if (!bin.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+        for (String tool : Arrays.asList("ld", "windres")) {
+            Path path = bin.resolve(tool);
             try {
-                new ProcessBuilder("chmod", "755", workdir + "/bin/ld").start().waitFor();
-                new ProcessBuilder("chmod", "755", workdir + "/bin/windres").start().waitFor();
-            } catch (InterruptedException e) {
-                getLog().warn("Interrupted while chmodding platform-specific binaries", e);
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path);
+                if (!permissions.equals(EXECUTABLE_PERMISSIONS)) {
+                    Files.setPosixFilePermissions(path, EXECUTABLE_PERMISSIONS);
+                }
             } catch (IOException e) {
                 getLog().warn("Unable to set platform-specific binaries to 755", e);
             }
@@ -711,46 +1487,100 @@ public class Launch4jMojo extends AbstractMojo {
     }
 
     /**
-     * If custom header objects or libraries shall be linked, they need to sit inside the launch4j working dir.
+     * Checks the host binutils and creates a work directory using them.
      */
-    private List<String> relativizeAndCopy(File workdir, List<String> paths) throws MojoExecutionException {
-        if (paths == null) return null;
+    private File useHostBinutils(File workdir) throws MojoExecutionException {
+        if (binutils.ld == null || binutils.windres == null) {
+            throw new MojoExecutionException("Both <ld> and <windres> must be set in <binutils>");
+        }
+        if (!workdir.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            throw new MojoExecutionException("Host <binutils> are only supported on POSIX systems, remove them to use the bundled binaries");
+        }
+        try {
+            String ldVersion = HostToolchain.probe(binutils.ld);
+            String windresVersion = HostToolchain.probe(binutils.windres);
+            getLog().info("Using host ld " + binutils.ld + ": " + ldVersion);
+            getLog().info("Using host windres " + binutils.windres + ": " + windresVersion);
+            return HostToolchain.createWorkDir(workdir, binutils.ld, binutils.windres, ldVersion + "\n" + windresVersion);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot use host binutils " + binutils, e);
+        }
+    }
+
+    /**
+     * Coordinates of the toolchain, they identify the work directory prepared by {@link #setupBuildEnvironment}.
+     */
+    private String toolchainKey(String plat) throws MojoExecutionException {
+        String key = launch4jGroupId + ":" + launch4jArtifactId + ":" + getLaunch4jVersion() + ":" + plat;
+        if (binutils != null) {
+            key += ":" + binutils.ld + ":" + binutils.windres;
+        }
+        return key;
+    }
+
+    /**
+     * Finds the custom header objects or libraries in the project, see {@link WorkDirFiles#resolve(File, List)}.
+     */
+    private Map<String, Path> projectFiles(List<String> paths) throws MojoExecutionException {
+        try {
+            return WorkDirFiles.resolve(basedir, paths);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Can't find files in the project directory", e);
+        }
+    }
 
-        List<String> result = new ArrayList<>();
+    private static Map<String, Path> toolchainFiles(List<String> paths) {
+        if (paths == null) {
+            return null;
+        }
+        Map<String, Path> files = new LinkedHashMap<>();
         for (String path : paths) {
-            Path source = basedir.toPath().resolve(path);
-            Path dest = workdir.toPath().resolve(basedir.toPath().relativize(source));
+            files.put(path, null);
+        }
+        return files;
+    }
 
-            if (!source.startsWith(basedir.toPath())) {
-                throw new MojoExecutionException("File must reside in the project directory: " + path);
-            }
+    private static List<String> paths(Map<String, Path> files) {
+        return files == null ? null : new ArrayList<>(files.keySet());
+    }
 
-            if (Files.exists(source)) {
-                try {
-                    Files.createDirectories(dest.getParent());
-                    Path target = Files.copy(source, dest, StandardCopyOption.REPLACE_EXISTING);
-                    result.add(workdir.toPath().relativize(target).toString());
-                } catch (IOException e) {
-                    throw new MojoExecutionException("Can't copy file to workdir", e);
+    /**
+     * If custom header objects or libraries shall be linked, they need to sit inside the launch4j working dir.
+     * The work directory is the private overlay of this execution, copies replace the links to the shared files.
+     */
+    private void copyToWorkDir(File workdir) throws MojoExecutionException {
+        BuildEvents.FileCopy event = new BuildEvents.FileCopy();
+        try (BuildReport.Phase ignored = report.start("relativizeAndCopy", null, event)) {
+            for (Map<String, Path> files : Arrays.asList(headerObjectFiles, libFiles)) {
+                WorkDirFiles.copy(workdir, files);
+                for (Path source : files != null ? files.values() : Collections.<Path>emptyList()) {
+                    if (source != null) {
+                        event.files++;
+                        event.bytes += Files.size(source);
+                    }
                 }
-            } else {
-                result.add(path);
             }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Can't copy file to workdir", e);
         }
-
-        return result;
     }
 
     /**
      * Downloads the platform-specific parts, if necessary.
      */
-    private boolean retrieveBinaryBits(Artifact a) throws MojoExecutionException {
-
-        getLog().debug("Retrieving artifact: " + a + " stored in " + a.getFile());
+    private Artifact retrieveBinaryBits(String plat) throws MojoExecutionException {
+        Artifact artifact = new DefaultArtifact(launch4jGroupId, launch4jArtifactId, "workdir-" + plat, "jar", getLaunch4jVersion());
+        getLog().debug("Retrieving artifact: " + artifact);
 
         try {
-            ArtifactRequest request = new ArtifactRequest(a, repositories, null);
-            return repositorySystem.resolveArtifact(repositorySystemSession, request).isResolved();
+            ArtifactRequest request = new ArtifactRequest(artifact, repositories, null);
+            ArtifactResult result = repositorySystem.resolveArtifact(repositorySystemSession, request);
+            if (!result.isResolved()) {
+                throw new MojoExecutionException("Artifact: " + artifact + " is not available!");
+            }
+            return result.getArtifact();
         } catch (IllegalArgumentException e) {
             throw new MojoExecutionException("Illegal Argument Exception", e);
         } catch (ArtifactResolutionException e) {
@@ -761,7 +1591,7 @@ public class Launch4jMojo extends AbstractMojo {
     /**
      * Decides which platform-specific bundle we need, based on the current operating system.
      */
-    private Artifact chooseBinaryBits() throws MojoExecutionException {
+    private String choosePlatform() throws MojoExecutionException {
         String plat;
         String os = System.getProperty("os.name");
         String arch = System.getProperty("os.arch");
@@ -777,6 +1607,10 @@ public class Launch4jMojo extends AbstractMojo {
                 plat = "linux64";
             } else {
                 plat = "linux";
+                if (binutils == null && !arch.matches("i[3-6]86|x86")) {
+                    getLog().warn("Launch4j provides no native binaries for " + arch + ", the 32-bit x86 ones will run emulated."
+                            + " Consider using host-installed MinGW binutils, see <binutils>.");
+                }
             }
         } else if ("Solaris".equals(os) || "SunOS".equals(os)) {
             plat = "solaris";
@@ -785,15 +1619,7 @@ public class Launch4jMojo extends AbstractMojo {
         } else {
             throw new MojoExecutionException("Sorry, Launch4j doesn't support the '" + os + "' OS.");
         }
-
-        Artifact artifact = new DefaultArtifact(launch4jGroupId, launch4jArtifactId, "workdir-" + plat, "jar", getLaunch4jVersion());
-        try {
-            ArtifactRequest request = new ArtifactRequest(artifact, repositories, null);
-
-            return repositorySystem.resolveArtifact(repositorySystemSession, request).getArtifact();
-        } catch (ArtifactResolutionException e) {
-            throw new MojoExecutionException(e);
-        }
+        return plat;
     }
 
     private File getBaseDir() {
@@ -803,9 +1629,8 @@ public class Launch4jMojo extends AbstractMojo {
     /**
      * Just prints out how we were configured.
      */
-    private void printState() {
+    private void printState(Config c) {
         Log log = getLog();
-        Config c = ConfigPersister.getInstance().getConfig();
 
         log.debug("headerType = " + c.getHeaderType());
         log.debug("outfile = " + c.getOutfile());
@@ -899,13 +1724,12 @@ public class Launch4jMojo extends AbstractMojo {
      * @throws MojoExecutionException when version is null
      */
     private String getLaunch4jVersion() throws MojoExecutionException {
+        if (launch4jVersion != null) {
+            return launch4jVersion;
+        }
         String version = null;
 
-        Set<Artifact> pluginArtifacts = oldPluginArtifacts.stream().map(old ->
-                new DefaultArtifact(old.getGroupId(), old.getArtifactId(), old.getClassifier(), null, old.getVersion())
-        ).collect(Collectors.toSet());
-
-        for (Artifact artifact : pluginArtifacts) {
+        for (org.apache.maven.artifact.Artifact artifact : oldPluginArtifacts) {
             if (launch4jGroupId.equals(artifact.getGroupId()) &&
                     launch4jArtifactId.equals(artifact.getArtifactId())
                     && "core".equals(artifact.getClassifier())) {
@@ -920,6 +1744,7 @@ public class Launch4jMojo extends AbstractMojo {
             throw new MojoExecutionException("Impossible to find which Launch4j version to use, no compatible version found in classpath");
         }
 
+        launch4jVersion = version;
         return version;
     }
 
@@ -967,6 +1792,18 @@ public class Launch4jMojo extends AbstractMojo {
                 ", configOutfile=" + configOutfile +
                 ", parallelExecution=" + parallelExecution +
                 ", skip=" + skip +
+                ", upToDateCheck=" + upToDateCheck +
+                ", incrementalPatch=" + incrementalPatch +
+                ", buildCache=" + buildCache +
+                ", reproducible=" + reproducible +
+                ", outputTimestamp=" + outputTimestamp +
+                ", binutils=" + binutils +
+                ", resourceCompiler=" + resourceCompiler +
+                ", outputFsync=" + outputFsync +
+                ", buildReport=" + buildReport +
+                ", traceFile=" + traceFile +
+                ", launchers=" + launchers +
+                ", matrix=" + matrix +
                 '}';
     }
 }
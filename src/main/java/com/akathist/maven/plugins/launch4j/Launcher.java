@@ -0,0 +1,204 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j;
+
+import com.akathist.maven.plugins.launch4j.build.ConfigXml;
+import net.sf.launch4j.config.Config;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * One of several executables built by a single execution of the plugin. Parameters which aren't set
+ * are taken from the plugin configuration.
+ */
+public class Launcher {
+
+    /**
+     * The executable to create.
+     */
+    @Parameter(required = true)
+    File outfile;
+
+    /**
+     * Whether it is a gui or console app, see the plugin's <code>headerType</code>.
+     */
+    @Parameter
+    String headerType;
+
+    /**
+     * The jar to bundle inside the executable, or the runtime path of the jar if it isn't wrapped.
+     */
+    @Parameter
+    String jar;
+
+    /**
+     * If set to true, the executable doesn't contain the jar.
+     */
+    @Parameter
+    Boolean dontWrapJar;
+
+    @Parameter
+    String errTitle;
+
+    @Parameter
+    String cmdLine;
+
+    @Parameter
+    String chdir;
+
+    @Parameter
+    Boolean stayAlive;
+
+    @Parameter
+    Boolean restartOnCrash;
+
+    @Parameter
+    File icon;
+
+    @Parameter
+    File manifest;
+
+    @Parameter
+    Jre jre;
+
+    @Parameter
+    ClassPath classPath;
+
+    @Parameter
+    SingleInstance singleInstance;
+
+    @Parameter
+    Splash splash;
+
+    /**
+     * Version information of this executable, the defaults are filled out the same way as for the plugin,
+     * unless <code>disableVersionInfoDefaults</code> is set.
+     */
+    @Parameter
+    VersionInfo versionInfo;
+
+    @Parameter
+    Messages messages;
+
+    /**
+     * A copy of the shared configuration with the parameters of this launcher applied.
+     *
+     * @param defaults     configuration of the plugin, it isn't modified
+     * @param dependencies dependencies of the project, used to build the class path
+     */
+    Config toL4j(Config defaults, Set<Artifact> dependencies) {
+        Config ret = ConfigXml.copy(defaults);
+
+        setOutfile(ret, defaults.getOutfile(), outfile);
+        if (headerType != null) {
+            ret.setHeaderType(headerType);
+        }
+        if (jar != null) {
+            ret.setJar(new File(jar));
+        }
+        if (dontWrapJar != null) {
+            ret.setDontWrapJar(dontWrapJar);
+        }
+        if (errTitle != null) {
+            ret.setErrTitle(errTitle);
+        }
+        if (cmdLine != null) {
+            ret.setCmdLine(cmdLine);
+        }
+        if (chdir != null) {
+            ret.setChdir(chdir);
+        }
+        if (stayAlive != null) {
+            ret.setStayAlive(stayAlive);
+        }
+        if (restartOnCrash != null) {
+            ret.setRestartOnCrash(restartOnCrash);
+        }
+        if (icon != null) {
+            ret.setIcon(icon);
+        }
+        if (manifest != null) {
+            ret.setManifest(manifest);
+        }
+        if (jre != null) {
+            net.sf.launch4j.config.Jre l4jJre = jre.toL4j();
+            if (l4jJre.getPath() == null && defaults.getJre() != null) {
+                l4jJre.setPath(defaults.getJre().getPath());
+            }
+            ret.setJre(l4jJre);
+        }
+        if (classPath != null) {
+            ret.setClassPath(classPath.toL4j(dependencies));
+        }
+        if (singleInstance != null) {
+            ret.setSingleInstance(singleInstance.toL4j());
+        }
+        if (splash != null) {
+            ret.setSplash(splash.toL4j());
+        }
+        if (versionInfo != null) {
+            ret.setVersionInfo(versionInfo.toL4j());
+        }
+        if (messages != null) {
+            ret.setMessages(messages.toL4j());
+        }
+
+        return ret;
+    }
+
+    /**
+     * Sets the executable of a configuration derived from another one, the original filename
+     * of the version information follows it unless it was set explicitly.
+     */
+    static void setOutfile(Config config, File previous, File outfile) {
+        config.setOutfile(outfile);
+        net.sf.launch4j.config.VersionInfo info = config.getVersionInfo();
+        if (info != null && previous != null && previous.getName().equals(info.getOriginalFilename())) {
+            // the default original filename is the name of the executable
+            info.setOriginalFilename(outfile.getName());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Launcher{" +
+                "outfile=" + outfile +
+                ", headerType='" + headerType + '\'' +
+                ", jar='" + jar + '\'' +
+                ", dontWrapJar=" + dontWrapJar +
+                ", errTitle='" + errTitle + '\'' +
+                ", cmdLine='" + cmdLine + '\'' +
+                ", chdir='" + chdir + '\'' +
+                ", stayAlive=" + stayAlive +
+                ", restartOnCrash=" + restartOnCrash +
+                ", icon=" + icon +
+                ", manifest=" + manifest +
+                ", jre=" + jre +
+                ", classPath=" + classPath +
+                ", singleInstance=" + singleInstance +
+                ", splash=" + splash +
+                ", versionInfo=" + versionInfo +
+                ", messages=" + messages +
+                '}';
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j;
+
+import com.akathist.maven.plugins.launch4j.build.ConfigXml;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.LanguageID;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Variants of each executable differing in the header type and the locale. Every combination
+ * of the dimensions is built, the name of a variant is the name of the executable followed by
+ * the header type and the suffix of the locale, e.g. <code>app-console-de.exe</code>.
+ */
+public class Matrix {
+
+    /**
+     * Header types of the variants, <code>gui</code> and/or <code>console</code>.
+     */
+    @Parameter
+    List<String> headerTypes;
+
+    /**
+     * Locales of the variants.
+     */
+    @Parameter
+    List<MatrixLocale> locales;
+
+    /**
+     * Expands each configuration into all its variants.
+     */
+    List<Config> expand(List<Config> configs) throws MojoExecutionException {
+        List<String> types = headerTypes == null || headerTypes.isEmpty() ? Collections.singletonList(null) : headerTypes;
+        List<MatrixLocale> locs = locales == null || locales.isEmpty() ? Collections.singletonList(null) : locales;
+
+        List<Config> variants = new ArrayList<>();
+        for (Config config : configs) {
+            for (String type : types) {
+                for (MatrixLocale locale : locs) {
+                    variants.add(variant(config, type, locale));
+                }
+            }
+        }
+        return variants;
+    }
+
+    private static Config variant(Config config, String headerType, MatrixLocale locale) throws MojoExecutionException {
+        Config ret = ConfigXml.copy(config);
+
+        String name = config.getOutfile().getName().replaceFirst("\\.exe$", "");
+        if (headerType != null) {
+            ret.setHeaderType(headerType);
+            name += "-" + headerType;
+        }
+        if (locale != null) {
+            if (locale.language == null) {
+                throw new MojoExecutionException("<language> is required for each of the <locales> of <matrix>");
+            }
+            if (ret.getVersionInfo() == null) {
+                throw new MojoExecutionException("<matrix> with <locales> requires <versionInfo>");
+            }
+            try {
+                ret.getVersionInfo().setLanguage(LanguageID.valueOf(locale.language));
+            } catch (IllegalArgumentException e) {
+                throw new MojoExecutionException("Unknown language " + locale.language + " in <matrix>", e);
+            }
+            if (locale.messages != null) {
+                ret.setMessages(locale.messages.toL4j());
+            }
+            name += "-" + locale.getSuffix();
+        }
+        Launcher.setOutfile(ret, config.getOutfile(), new File(config.getOutfile().getParentFile(), name + ".exe"));
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return "Matrix{" +
+                "headerTypes=" + headerTypes +
+                ", locales=" + locales +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j;
+
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.util.Locale;
+
+/**
+ * One locale of the {@link Matrix}.
+ */
+public class MatrixLocale {
+
+    /**
+     * Language of the version information, one of the <code>net.sf.launch4j.config.LanguageID</code> names,
+     * e.g. <code>ENGLISH_US</code> or <code>GERMAN</code>.
+     */
+    @Parameter(required = true)
+    String language;
+
+    /**
+     * Appended to the names of the executables of this locale, defaults to the language in lower case.
+     */
+    @Parameter
+    String suffix;
+
+    /**
+     * Messages of this locale, the shared messages are used if not set.
+     */
+    @Parameter
+    Messages messages;
+
+    String getSuffix() {
+        return suffix != null ? suffix : language.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "MatrixLocale{" +
+                "language='" + language + '\'' +
+                ", suffix='" + suffix + '\'' +
+                ", messages=" + messages +
+                '}';
+    }
+}
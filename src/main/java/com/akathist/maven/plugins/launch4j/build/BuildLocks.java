@@ -0,0 +1,49 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks guarding the few files still shared by executions running in parallel in the same JVM.
+ * Locks are keyed by the normalized absolute path, so executions of different modules don't wait for each other.
+ */
+public final class BuildLocks {
+
+    private static final ConcurrentMap<String, Lock> OUTPUTS = new ConcurrentHashMap<>();
+
+    private BuildLocks() {
+    }
+
+    /**
+     * Lock of the given executable, the executable and its fingerprint must not be written concurrently.
+     */
+    public static Lock forOutput(File outfile) {
+        return OUTPUTS.computeIfAbsent(keyOf(outfile), key -> new ReentrantLock());
+    }
+
+    private static String keyOf(File file) {
+        return file.getAbsoluteFile().toPath().normalize().toString();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.tools.ResourceIO;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.security.NoTypePermission;
+import com.thoughtworks.xstream.security.NullPermission;
+import com.thoughtworks.xstream.security.PrimitiveTypePermission;
+import net.sf.launch4j.config.ClassPath;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.ConfigPersister;
+import net.sf.launch4j.config.ConfigPersisterException;
+import net.sf.launch4j.config.Jre;
+import net.sf.launch4j.config.Splash;
+import net.sf.launch4j.config.VersionInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+
+/**
+ * Reads and writes Launch4j XML configuration files without sharing the state of
+ * the {@link ConfigPersister} singleton between executions.
+ */
+public final class ConfigXml {
+
+    private static final XStream XSTREAM = createXStream();
+
+    private ConfigXml() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Loads a configuration file, converting it from older formats if needed.
+     */
+    public static Config load(File file) throws ConfigPersisterException {
+        // the conversion of old formats is only available through the singleton,
+        // which is never used outside of this block
+        synchronized (ConfigPersister.class) {
+            ConfigPersister persister = ConfigPersister.getInstance();
+            persister.load(file);
+            return persister.getConfig();
+        }
+    }
+
+    /**
+     * Saves the configuration in the same format as {@link ConfigPersister#save(File)}.
+     * An existing file with the same content is left untouched.
+     */
+    public static void save(Config config, File file) throws IOException {
+        StringWriter writer = new StringWriter();
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        XSTREAM.toXML(config, writer);
+        ResourceIO.writeBytesIfDiff(file, writer.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a deep copy of the configuration.
+     */
+    public static Config copy(Config config) {
+        return (Config) XSTREAM.fromXML(XSTREAM.toXML(config));
+    }
+
+    private static XStream createXStream() {
+        // same setup as the one of ConfigPersister
+        XStream xstream = new XStream(new DomDriver());
+        xstream.addPermission(NoTypePermission.NONE);
+        xstream.addPermission(NullPermission.NULL);
+        xstream.addPermission(PrimitiveTypePermission.PRIMITIVES);
+        xstream.allowTypeHierarchy(Collection.class);
+        xstream.allowTypes(new Class[]{String.class});
+        xstream.allowTypesByWildcard(new String[]{"net.sf.launch4j.config.*"});
+        xstream.alias("launch4jConfig", Config.class);
+        xstream.alias("classPath", ClassPath.class);
+        xstream.alias("jre", Jre.class);
+        xstream.alias("splash", Splash.class);
+        xstream.alias("versionInfo", VersionInfo.class);
+        xstream.addImplicitCollection(Config.class, "headerObjects", "obj", String.class);
+        xstream.addImplicitCollection(Config.class, "libs", "lib", String.class);
+        xstream.addImplicitCollection(Config.class, "variables", "var", String.class);
+        xstream.addImplicitCollection(ClassPath.class, "paths", "cp", String.class);
+        xstream.addImplicitCollection(Jre.class, "options", "opt", String.class);
+        return xstream;
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.pe.PeFile;
+import com.akathist.maven.plugins.launch4j.report.BuildEvents;
+import com.akathist.maven.plugins.launch4j.report.BuildReport;
+import com.akathist.maven.plugins.launch4j.tools.AtomicFiles;
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+import com.akathist.maven.plugins.launch4j.tools.FsyncPolicy;
+import net.sf.launch4j.BuilderException;
+import net.sf.launch4j.ExecException;
+import net.sf.launch4j.Log;
+import net.sf.launch4j.Messages;
+import net.sf.launch4j.RcBuilder;
+import net.sf.launch4j.Util;
+import net.sf.launch4j.binding.InvariantViolationException;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.Splash;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds an executable the same way as {@link net.sf.launch4j.Builder}, but from the given configuration
+ * instead of the one held by the {@link net.sf.launch4j.config.ConfigPersister} singleton,
+ * so many executables can be built in parallel.
+ */
+public class ExecutableBuilder {
+
+    /**
+     * Exit code in the message of an {@link ExecException} thrown by {@link Util#exec(String[], Log)}.
+     */
+    private static final Pattern EXIT_CODE = Pattern.compile("\\((-?\\d+)\\)");
+
+    private final Log log;
+
+    private final File workDir;
+
+    private final File tmpDir;
+
+    private final ResourceObjects resources;
+
+    private ResourceCompiler resourceCompiler = ResourceCompiler.WINDRES;
+
+    private FsyncPolicy fsync = FsyncPolicy.NONE;
+
+    private Integer timestamp;
+
+    private BuildReport report;
+
+    /**
+     * @param log     Launch4j log
+     * @param workDir Launch4j work directory holding the binutils, header objects and libraries
+     */
+    public ExecutableBuilder(Log log, File workDir) {
+        this(log, workDir, null);
+    }
+
+    /**
+     * @param log     Launch4j log
+     * @param workDir Launch4j work directory holding the binutils, header objects and libraries
+     * @param tmpDir  directory of the intermediate files, the default temporary directory is used if null
+     */
+    public ExecutableBuilder(Log log, File workDir, File tmpDir) {
+        this(log, workDir, tmpDir, null);
+    }
+
+    /**
+     * @param log       Launch4j log
+     * @param workDir   Launch4j work directory holding the binutils, header objects and libraries
+     * @param tmpDir    directory of the intermediate files, the default temporary directory is used if null
+     * @param resources resource objects shared with other builds, each build compiles its own if null
+     */
+    public ExecutableBuilder(Log log, File workDir, File tmpDir, ResourceObjects resources) {
+        this.log = log;
+        this.workDir = workDir;
+        this.tmpDir = tmpDir;
+        this.resources = resources;
+    }
+
+    /**
+     * Selects how the resource script is compiled, windres is used by default.
+     */
+    public void setResourceCompiler(ResourceCompiler resourceCompiler) {
+        this.resourceCompiler = resourceCompiler;
+    }
+
+    /**
+     * Selects what is flushed to the disk when the executable is published, nothing by default.
+     */
+    public void setFsyncPolicy(FsyncPolicy fsync) {
+        this.fsync = fsync;
+    }
+
+    /**
+     * Sets the timestamps of the PE headers and resources, in seconds since the epoch,
+     * before the executable is published. The time of the build is kept if null.
+     */
+    public void setTimestamp(Integer timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Records the timings of the build steps and the number of started processes in the given report,
+     * each started process is also recorded as a {@link BuildEvents.Process} event.
+     */
+    public void setReport(BuildReport report) {
+        this.report = report;
+    }
+
+    /**
+     * Builds the executable. It is assembled in a temporary file next to the output file and moved into place
+     * once complete, so a failed or interrupted build leaves the previous executable untouched.
+     *
+     * @param config    configuration of this build, it isn't modified
+     * @param configDir directory relative paths of the configuration are resolved against
+     * @return the executable
+     */
+    public File build(Config config, File configDir) throws BuilderException {
+        Config resolved = resolve(config, configDir);
+        try {
+            resolved.validate();
+        } catch (InvariantViolationException e) {
+            throw new BuilderException(e.getMessage());
+        }
+
+        File out = resolved.getOutfile();
+        RcBuilder rcb = new RcBuilder();
+        File rc = null;
+        File ro = null;
+        File assembled = null;
+        try {
+            if (resolved.isJniApplication()) {
+                log.append("WARNING: Some features are not implemented in JNI headers, see documentation.");
+            }
+            rc = rcb.build(resolved);
+            File script = rc;
+            if (resources != null) {
+                ro = resources.get(resourceKey(resolved, rcb.getContent()), object -> compileResources(script, object, out));
+            } else {
+                ro = tmpDir != null ? File.createTempFile("launch4j", "o", tmpDir) : Util.createTempFile("o");
+                compileResources(script, ro, out);
+            }
+
+            assembled = AtomicFiles.tempFileFor(out.toPath()).toFile();
+            log.append(Messages.getString("Builder.linking"));
+            try (BuildReport.Phase ignored = phase("link", out)) {
+                exec(ld(resolved, ro, assembled), out);
+            }
+
+            if (!resolved.isDontWrapJar()) {
+                log.append(Messages.getString("Builder.wrapping"));
+                BuildEvents.JarWrap event = new BuildEvents.JarWrap();
+                event.jar = resolved.getJar().getPath();
+                event.bytes = resolved.getJar().length();
+                try (BuildReport.Phase ignored = phase("wrap", out, event)) {
+                    FileTransfer.append(resolved.getJar(), assembled);
+                }
+                count(BuildReport.BYTES_READ, resolved.getJar().length());
+            }
+            if (timestamp != null) {
+                PeFile.normalizeTimestamps(assembled, timestamp);
+            }
+            AtomicFiles.publish(assembled.toPath(), out.toPath(), fsync);
+            log.append(Messages.getString("Builder.success") + out.getPath());
+            return out;
+        } catch (IOException e) {
+            log.append(e.getMessage());
+            throw new BuilderException(e);
+        } catch (ExecException e) {
+            String msg = e.getMessage();
+            if (msg != null && msg.contains("windres")) {
+                if (e.getErrLine() != -1) {
+                    log.append(Messages.getString("Builder.line.has.errors", String.valueOf(e.getErrLine())));
+                    log.append(rcb.getLine(e.getErrLine()));
+                } else {
+                    log.append(Messages.getString("Builder.generated.resource.file"));
+                    log.append(rcb.getContent());
+                }
+            }
+            throw new BuilderException(e);
+        } finally {
+            delete(rc);
+            delete(assembled);
+            if (resources == null) {
+                delete(ro);
+            }
+        }
+    }
+
+    private void compileResources(File script, File object, File out) throws IOException, ExecException {
+        log.append(Messages.getString("Builder.compiling.resources"));
+        try (BuildReport.Phase ignored = phase("compileResources", out)) {
+            if (resourceCompiler == ResourceCompiler.JAVA) {
+                try {
+                    ResourceScriptCompiler.compile(script, object);
+                    return;
+                } catch (ResourceScriptException e) {
+                    log.append("Cannot compile resources in process, using windres: " + e.getMessage());
+                }
+            }
+            exec(windres(script, object), out);
+        }
+    }
+
+    private void exec(String[] cmd, File out) throws ExecException {
+        if (report == null) {
+            Util.exec(cmd, log);
+            return;
+        }
+        report.count(BuildReport.PROCESSES, 1);
+        BuildEvents.Process event = new BuildEvents.Process();
+        event.tool = new File(cmd[0]).getName();
+        event.commandLine = String.join(" ", cmd);
+        event.exitCode = -1;
+        event.begin();
+        try {
+            Util.exec(cmd, log);
+            event.exitCode = 0;
+        } catch (ExecException e) {
+            event.exitCode = exitCode(e);
+            throw e;
+        } finally {
+            report.record(event, event.tool, out.getPath());
+        }
+    }
+
+    static int exitCode(ExecException e) {
+        Matcher matcher = e.getMessage() != null ? EXIT_CODE.matcher(e.getMessage()) : null;
+        return matcher != null && matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Starts measuring a step of the build, null if there is no report.
+     */
+    private BuildReport.Phase phase(String name, File out) {
+        return phase(name, out, new BuildEvents.Phase());
+    }
+
+    private BuildReport.Phase phase(String name, File out, BuildEvents.Launch4jEvent event) {
+        return report != null ? report.start(name, out.getPath(), event) : null;
+    }
+
+    private void count(String counter, long delta) {
+        if (report != null) {
+            report.count(counter, delta);
+        }
+    }
+
+    /**
+     * A copy of the configuration with all the files read while building resolved against the configuration directory.
+     */
+    static Config resolve(Config config, File configDir) {
+        Config resolved = ConfigXml.copy(config);
+        resolved.setOutfile(absolute(configDir, resolved.getOutfile()));
+        if (!resolved.isDontWrapJar()) {
+            // otherwise it is the runtime path of the jar, relative to the executable
+            resolved.setJar(absolute(configDir, resolved.getJar()));
+        }
+        resolved.setIcon(absolute(configDir, resolved.getIcon()));
+        resolved.setManifest(absolute(configDir, resolved.getManifest()));
+        Splash splash = resolved.getSplash();
+        if (splash != null) {
+            splash.setFile(absolute(configDir, splash.getFile()));
+        }
+        return resolved;
+    }
+
+    /**
+     * Digest of everything <code>windres</code> reads: the resource script, the files it refers to
+     * and the toolchain itself.
+     */
+    String resourceKey(Config config, String script) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("toolchain=").append(workDir.getName()).append('\n');
+        sb.append("windres=").append(System.getProperty("launch4j.bindir", "bin")).append('\n');
+        sb.append("compiler=").append(resourceCompiler).append('\n');
+        sb.append("rc=").append(Digests.sha256(script)).append('\n');
+        sb.append("icon=").append(digest(config.getIcon())).append('\n');
+        sb.append("manifest=").append(digest(config.getManifest())).append('\n');
+        Splash splash = config.getSplash();
+        sb.append("splash=").append(digest(splash != null ? splash.getFile() : null)).append('\n');
+        return Digests.sha256(sb.toString());
+    }
+
+    private static String digest(File file) throws IOException {
+        return file != null && file.isFile() ? Digests.sha256(file) : "none";
+    }
+
+    private String[] windres(File rc, File ro) {
+        return new String[]{
+                tool("windres"),
+                Util.WINDOWS_OS ? "--preprocessor=type" : "--preprocessor=cat",
+                "-J", "rc", "-O", "coff", "-F", "pe-i386",
+                rc.getAbsolutePath(),
+                ro.getAbsolutePath()
+        };
+    }
+
+    private String[] ld(Config config, File ro, File out) {
+        List<String> cmd = new ArrayList<>(Arrays.asList(
+                tool("ld"),
+                "-mi386pe",
+                "--oformat", "pei-i386",
+                "--dynamicbase",
+                "--nxcompat",
+                "--no-seh",
+                "--subsystem", config.isGuiApplication() ? "windows" : "console",
+                "-s"));
+        for (String obj : config.getHeaderObjects()) {
+            cmd.add(new File(workDir, obj).getPath());
+        }
+        cmd.add(ro.getAbsolutePath());
+        for (String lib : config.getLibs()) {
+            cmd.add(new File(workDir, lib).getPath());
+        }
+        cmd.add("-o");
+        cmd.add(out.getAbsolutePath());
+        return cmd.toArray(new String[0]);
+    }
+
+    private String tool(String name) {
+        String bindir = System.getProperty("launch4j.bindir");
+        File dir;
+        if (bindir == null) {
+            dir = new File(workDir, "bin");
+        } else {
+            dir = new File(bindir).isAbsolute() ? new File(bindir) : new File(workDir, bindir);
+        }
+        return new File(dir, Util.WINDOWS_OS ? name + ".exe" : name).getPath();
+    }
+
+    private static File absolute(File base, File file) {
+        if (file == null || file.getPath().isEmpty() || file.isAbsolute() || base == null) {
+            return file;
+        }
+        return new File(base, file.getPath());
+    }
+
+    private static void delete(File file) {
+        if (file != null) {
+            Util.delete(file);
+        }
+    }
+}
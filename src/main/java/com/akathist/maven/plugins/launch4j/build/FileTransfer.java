@@ -0,0 +1,62 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Copies between files with {@link FileChannel#transferTo}, which lets the operating system move the bytes
+ * without passing them through the heap, so wrapping a jar of any size needs the same small amount of memory.
+ */
+final class FileTransfer {
+
+    private FileTransfer() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Appends the whole source file to the end of the target file.
+     */
+    static void append(File source, File target) throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.WRITE)) {
+            out.position(out.size());
+            transfer(in, 0, in.size(), out);
+        }
+    }
+
+    /**
+     * Transfers the given range of the source channel to the current position of the target channel.
+     */
+    static void transfer(FileChannel from, long position, long count, FileChannel to) throws IOException {
+        long done = 0;
+        while (done < count) {
+            // a single call may transfer less than requested, e.g. at most 2 GB on Linux
+            long transferred = from.transferTo(position + done, count - done, to);
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of file while copying " + count + " bytes");
+            }
+            done += transferred;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.pe.PeFile;
+import com.akathist.maven.plugins.launch4j.pe.PeFormatException;
+import com.akathist.maven.plugins.launch4j.tools.AtomicFiles;
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+import com.akathist.maven.plugins.launch4j.tools.FsyncPolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+/**
+ * Replaces the jar wrapped in an existing executable without building the executable again.
+ * A wrapped executable is the launcher header, ending with its last section, followed by the jar,
+ * so when nothing but the jar has changed the header is reused as it is and the new jar is appended to it.
+ */
+public final class JarRewrapper {
+
+    private static final int ZIP_LOCAL_HEADER = 0x04034b50;
+
+    private JarRewrapper() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Wraps the jar into a copy of the executable's header and replaces the executable with it.
+     *
+     * @param exe               executable built before, wrapping the previous jar
+     * @param jar               the new jar
+     * @param previousJarDigest SHA-256 of the jar wrapped in the executable, not checked if null
+     * @return false if the executable doesn't end with the expected jar, it is left untouched then
+     */
+    public static boolean rewrap(File exe, File jar, String previousJarDigest) throws IOException {
+        return rewrap(exe, jar, previousJarDigest, FsyncPolicy.NONE);
+    }
+
+    /**
+     * Wraps the jar into a copy of the executable's header and replaces the executable with it.
+     *
+     * @param exe               executable built before, wrapping the previous jar
+     * @param jar               the new jar
+     * @param previousJarDigest SHA-256 of the jar wrapped in the executable, not checked if null
+     * @param fsync             what is flushed to the disk when the executable is replaced
+     * @return false if the executable doesn't end with the expected jar, it is left untouched then
+     */
+    public static boolean rewrap(File exe, File jar, String previousJarDigest, FsyncPolicy fsync) throws IOException {
+        PeFile pe;
+        try {
+            pe = PeFile.read(exe);
+        } catch (PeFormatException e) {
+            return false;
+        }
+        long headerLength = pe.getOverlayOffset();
+        if (pe.getOverlayLength() < 4 || pe.getDataDirectorySize(PeFile.DIRECTORY_SECURITY) != 0) {
+            // nothing wrapped or signed afterwards, the signature would refer to the old jar
+            return false;
+        }
+
+        Path target = exe.toPath();
+        Path tmp = AtomicFiles.tempFileFor(target);
+        try {
+            try (FileChannel in = FileChannel.open(target, StandardOpenOption.READ)) {
+                if (!isWrappedJar(in, headerLength, previousJarDigest)) {
+                    return false;
+                }
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                     FileChannel src = FileChannel.open(jar.toPath(), StandardOpenOption.READ)) {
+                    FileTransfer.transfer(in, 0, headerLength, out);
+                    FileTransfer.transfer(src, 0, src.size(), out);
+                }
+            }
+            PeFile rewrapped = PeFile.read(tmp.toFile());
+            if (rewrapped.getCheckSum() != 0) {
+                // the checksum covers the wrapped jar as well
+                rewrapped.save();
+            }
+            AtomicFiles.publish(tmp, target, fsync);
+            return true;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean isWrappedJar(FileChannel in, long offset, String expectedDigest) throws IOException {
+        ByteBuffer signature = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        while (signature.hasRemaining() && in.read(signature, offset + signature.position()) > 0) {
+            // read the whole signature
+        }
+        if (signature.hasRemaining() || signature.getInt(0) != ZIP_LOCAL_HEADER) {
+            return false;
+        }
+        if (expectedDigest == null) {
+            return true;
+        }
+        MessageDigest digest = Digests.newSha256();
+        ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+        long position = offset;
+        int read;
+        while ((read = in.read(buf, position)) > 0) {
+            position += read;
+            buf.flip();
+            digest.update(buf);
+            buf.clear();
+        }
+        return expectedDigest.equals(Digests.toHex(digest.digest()));
+    }
+}
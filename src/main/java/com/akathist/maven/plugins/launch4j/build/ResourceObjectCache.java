@@ -0,0 +1,142 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Resource objects compiled by <code>windres</code> in previous builds, keyed by a digest of the resource
+ * script, of the contents of the files it refers to and of the toolchain, see {@link ExecutableBuilder}.
+ * A cached object is linked directly from the cache, so a hit skips <code>windres</code> entirely.
+ * <p/>
+ * Objects are published with an atomic rename, the last modification time of an object is used as its
+ * last access time and only the most recently used objects are kept.
+ */
+public class ResourceObjectCache {
+
+    private static final String SUFFIX = ".o";
+
+    private final Path directory;
+
+    private final int maxEntries;
+
+    /**
+     * @param directory  root of the cache
+     * @param maxEntries maximum number of objects kept
+     */
+    public ResourceObjectCache(File directory, int maxEntries) {
+        this.directory = directory.toPath();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cached object or null if there is none
+     */
+    public File find(String key) {
+        Path entry = entryFor(key);
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return entry.toFile();
+        } catch (IOException e) {
+            // no such object or evicted in the meantime
+            return null;
+        }
+    }
+
+    /**
+     * Moves the freshly compiled object into the cache.
+     *
+     * @return the cached object
+     */
+    public File store(String key, File object) throws IOException {
+        Path entry = entryFor(key);
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, "." + key, ".tmp");
+        try {
+            Files.copy(object.toPath(), tmp, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException | FileAlreadyExistsException e) {
+                // an object with the same key always has the same content, so it doesn't matter who wins
+                Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        evict();
+        return entry.toFile();
+    }
+
+    /**
+     * Removes the least recently used objects until at most the maximum number of them is left.
+     */
+    void evict() throws IOException {
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(directory)) {
+            entries = files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        List<CachedObject> cached = new ArrayList<>();
+        for (Path entry : entries) {
+            try {
+                cached.add(new CachedObject(entry, Files.getLastModifiedTime(entry).toMillis()));
+            } catch (NoSuchFileException e) {
+                // evicted by another build
+            }
+        }
+        cached.sort(Comparator.comparingLong(object -> object.lastAccess));
+        for (int i = 0; i < cached.size() - maxEntries; i++) {
+            Files.deleteIfExists(cached.get(i).path);
+        }
+    }
+
+    Path entryFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static class CachedObject {
+        final Path path;
+        final long lastAccess;
+
+        CachedObject(Path path, long lastAccess) {
+            this.path = path;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import net.sf.launch4j.ExecException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Resource objects compiled by <code>windres</code>, shared by the builds of a single execution.
+ * Executables whose generated resources are the same, e.g. the GUI and console variants
+ * of a launcher, are linked with the same object compiled only once. With a {@link ResourceObjectCache}
+ * objects compiled by previous builds are reused as well.
+ * <p/>
+ * The objects are owned by this class and stay in its directory, or in the cache, until they are discarded.
+ */
+public class ResourceObjects {
+
+    private final File directory;
+
+    private final ResourceObjectCache cache;
+
+    private final ConcurrentMap<String, CompletableFuture<File>> objects = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory where the compiled objects are stored, e.g. the private work directory of the execution
+     */
+    public ResourceObjects(File directory) {
+        this(directory, null);
+    }
+
+    /**
+     * @param directory where the compiled objects are stored, e.g. the private work directory of the execution
+     * @param cache     objects compiled by previous builds, may be null
+     */
+    public ResourceObjects(File directory, ResourceObjectCache cache) {
+        this.directory = directory;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the object compiled from the given resources, compiling it if this is the first request
+     * and it isn't cached. Concurrent requests for the same resources wait for the first one,
+     * a failed compilation isn't kept.
+     *
+     * @param key      digest of all the inputs of the compilation
+     * @param compiler compiles the resource script into the given object
+     */
+    File get(String key, Compiler compiler) throws IOException, ExecException {
+        CompletableFuture<File> future = new CompletableFuture<>();
+        CompletableFuture<File> existing = objects.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            File object = cache != null ? cache.find(key) : null;
+            if (object == null) {
+                object = new File(directory, "resources-" + key + ".o");
+                compiler.compile(object);
+                object = store(key, object);
+            }
+            future.complete(object);
+            return object;
+        } catch (IOException | ExecException | RuntimeException e) {
+            objects.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private File store(String key, File object) {
+        if (cache == null) {
+            return object;
+        }
+        try {
+            File cached = cache.store(key, object);
+            Files.deleteIfExists(object.toPath());
+            return cached;
+        } catch (IOException e) {
+            // the object is still usable by this execution, it will be compiled again by the next one
+            return object;
+        }
+    }
+
+    int size() {
+        return objects.size();
+    }
+
+    private static File await(CompletableFuture<File> future) throws IOException, ExecException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compiled resources");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ExecException) {
+                throw (ExecException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Compiles a resource script.
+     */
+    @FunctionalInterface
+    interface Compiler {
+        void compile(File object) throws IOException, ExecException;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.pe.IconResources;
+import com.akathist.maven.plugins.launch4j.pe.PeFile;
+import com.akathist.maven.plugins.launch4j.pe.PeFormatException;
+import com.akathist.maven.plugins.launch4j.pe.PeResources;
+import com.akathist.maven.plugins.launch4j.pe.VersionResource;
+import com.akathist.maven.plugins.launch4j.tools.AtomicFiles;
+import com.akathist.maven.plugins.launch4j.tools.FsyncPolicy;
+import net.sf.launch4j.config.CharsetID;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.LanguageID;
+import net.sf.launch4j.config.VersionInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the version information, the icon and the manifest of an existing executable
+ * without building the executable again, all the other resources, the code and the wrapped jar are kept.
+ * The resources are compiled the same way Launch4j compiles them with windres.
+ */
+public final class ResourcePatcher {
+
+    /**
+     * Names of the {@link com.akathist.maven.plugins.launch4j.cache.BuildFingerprint} components
+     * which can be patched.
+     */
+    public static final List<String> COMPONENTS = Collections.unmodifiableList(Arrays.asList("icon", "manifest", "versionInfo"));
+
+    /**
+     * Resource id used by Launch4j for the icon group, the manifest and the version information.
+     */
+    private static final Integer ID = 1;
+
+    private ResourcePatcher() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Patches the resources corresponding to the changed components and replaces the executable with the result.
+     *
+     * @param exe       executable built before
+     * @param config    configuration of the new executable
+     * @param configDir directory used to resolve relative paths in the configuration
+     * @param changed   names of the changed components, see {@link #COMPONENTS}
+     * @return false if the resources of the executable cannot be patched, it is left untouched then
+     */
+    public static boolean patch(File exe, Config config, File configDir, Collection<String> changed) throws IOException {
+        return patch(exe, config, configDir, changed, FsyncPolicy.NONE);
+    }
+
+    /**
+     * Patches the resources corresponding to the changed components and replaces the executable with the result.
+     *
+     * @param exe       executable built before
+     * @param config    configuration of the new executable
+     * @param configDir directory used to resolve relative paths in the configuration
+     * @param changed   names of the changed components, see {@link #COMPONENTS}
+     * @param fsync     what is flushed to the disk when the executable is replaced
+     * @return false if the resources of the executable cannot be patched, it is left untouched then
+     */
+    public static boolean patch(File exe, Config config, File configDir, Collection<String> changed, FsyncPolicy fsync)
+            throws IOException {
+        PeFile pe;
+        PeResources resources;
+        try {
+            pe = PeFile.read(exe);
+            resources = PeResources.read(pe);
+        } catch (PeFormatException e) {
+            return false;
+        }
+        if (pe.getDataDirectorySize(PeFile.DIRECTORY_SECURITY) != 0) {
+            // signed afterwards, the signature would refer to the old resources
+            return false;
+        }
+
+        try {
+            if (changed.contains("versionInfo")) {
+                patchVersionInfo(resources, config.getVersionInfo());
+            }
+            if (changed.contains("icon")) {
+                patchIcon(resources, resolve(configDir, config.getIcon()));
+            }
+            if (changed.contains("manifest")) {
+                File manifest = resolve(configDir, config.getManifest());
+                resources.remove(PeResources.RT_MANIFEST, ID);
+                if (manifest != null) {
+                    resources.put(PeResources.RT_MANIFEST, ID, Files.readAllBytes(manifest.toPath()));
+                }
+            }
+        } catch (PeFormatException | IllegalArgumentException e) {
+            return false;
+        }
+
+        Path target = exe.toPath();
+        Path tmp = AtomicFiles.tempFileFor(target);
+        try {
+            try {
+                pe.writeWithResources(resources, tmp.toFile());
+            } catch (PeFormatException e) {
+                return false;
+            }
+            AtomicFiles.publish(tmp, target, fsync);
+            return true;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void patchVersionInfo(PeResources resources, VersionInfo versionInfo) {
+        resources.remove(PeResources.RT_VERSION, ID);
+        if (versionInfo == null) {
+            return;
+        }
+        Map<String, String> strings = new LinkedHashMap<>();
+        strings.put("CompanyName", versionInfo.getCompanyName());
+        strings.put("FileDescription", versionInfo.getFileDescription());
+        strings.put("FileVersion", versionInfo.getTxtFileVersion());
+        strings.put("InternalName", versionInfo.getInternalName());
+        strings.put("LegalCopyright", versionInfo.getCopyright());
+        strings.put("LegalTrademarks", versionInfo.getTrademarks());
+        strings.put("OriginalFilename", versionInfo.getOriginalFilename());
+        strings.put("ProductName", versionInfo.getProductName());
+        strings.put("ProductVersion", versionInfo.getTxtProductVersion());
+        LanguageID language = versionInfo.getLanguage() != null ? versionInfo.getLanguage() : LanguageID.ENGLISH_US;
+        VersionResource resource = new VersionResource(versionInfo.getFileVersion(), versionInfo.getProductVersion(),
+                language.getId(), CharsetID.MULTILINGUAL.getId(), strings);
+        resources.put(PeResources.RT_VERSION, ID, resource.toBytes());
+    }
+
+    private static void patchIcon(PeResources resources, File icon) throws IOException {
+        // Launch4j compiles a single icon, so all the images belong to it
+        resources.remove(PeResources.RT_GROUP_ICON, ID);
+        resources.remove(PeResources.RT_ICON, null);
+        if (icon == null) {
+            return;
+        }
+        IconResources ico = IconResources.read(Files.readAllBytes(icon.toPath()));
+        for (int i = 0; i < ico.getImages().size(); i++) {
+            resources.put(PeResources.RT_ICON, i + 1, ico.getImages().get(i));
+        }
+        resources.put(PeResources.RT_GROUP_ICON, ID, ico.toGroup(1));
+    }
+
+    private static File resolve(File configDir, File file) {
+        if (file == null || file.getPath().isEmpty()) {
+            return null;
+        }
+        return file.isAbsolute() || configDir == null ? file : new File(configDir, file.getPath());
+    }
+}
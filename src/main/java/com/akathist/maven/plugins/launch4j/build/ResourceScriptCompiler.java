@@ -0,0 +1,579 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.pe.CoffResourceObject;
+import com.akathist.maven.plugins.launch4j.pe.IconResources;
+import com.akathist.maven.plugins.launch4j.pe.PeResources;
+import com.akathist.maven.plugins.launch4j.pe.VersionResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compiles a resource script into a COFF resource object in process, producing the same object
+ * as <code>windres -J rc -O coff -F pe-i386</code> would.
+ * <p/>
+ * Only the statements generated by {@link net.sf.launch4j.RcBuilder} are supported: <code>LANGUAGE</code>,
+ * <code>VERSIONINFO</code>, <code>ICON</code>, <code>BITMAP</code>, <code>RCDATA</code>, <code>STRINGTABLE</code>
+ * and resources of a custom type read from a file, like the manifest. Anything else is reported
+ * with a {@link ResourceScriptException}. The script isn't preprocessed. Narrow strings are copied into
+ * <code>RCDATA</code> byte by byte and converted to Unicode using the Windows-1252 code page elsewhere.
+ */
+public final class ResourceScriptCompiler {
+
+    private static final int RT_BITMAP = 2;
+    private static final int RT_STRING = 6;
+    private static final int RT_RCDATA = 10;
+
+    private static final int BITMAP_FILE_HEADER_SIZE = 14;
+
+    /**
+     * <code>LANGUAGE LANG_ENGLISH, SUBLANG_ENGLISH_US</code>, used by windres until the script sets another one.
+     */
+    private static final int DEFAULT_LANGUAGE = 0x409;
+
+    private static final Charset NARROW = Charset.forName("windows-1252");
+
+    private static final Set<String> MEMORY_OPTIONS = new HashSet<>(Arrays.asList(
+            "DISCARDABLE", "MOVEABLE", "FIXED", "PURE", "IMPURE", "PRELOAD", "LOADONCALL"));
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "ACCELERATORS", "ANICURSOR", "ANIICON", "CURSOR", "DIALOG", "DIALOGEX", "DLGINCLUDE", "FONT", "FONTDIR",
+            "HTML", "LANGUAGE", "MENU", "MENUEX", "MESSAGETABLE", "PLUGPLAY", "STRINGTABLE", "TOOLBAR", "VXD"));
+
+    private final List<Token> tokens;
+    private int position;
+
+    private final PeResources resources = new PeResources();
+    private final Map<Integer, Map<Integer, String[]>> stringTables = new TreeMap<>();
+    private int language = DEFAULT_LANGUAGE;
+    private int nextIconId = 1;
+
+    private ResourceScriptCompiler(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Compiles the script into the object file.
+     *
+     * @throws ResourceScriptException if the script uses an unsupported statement
+     */
+    public static void compile(File script, File object) throws IOException {
+        // read byte by byte, narrow strings keep the bytes written by RcBuilder
+        String content = new String(Files.readAllBytes(script.toPath()), StandardCharsets.ISO_8859_1);
+        CoffResourceObject.write(parse(content), object);
+    }
+
+    static PeResources parse(String script) throws IOException {
+        return new ResourceScriptCompiler(tokenize(script)).parse();
+    }
+
+    private PeResources parse() throws IOException {
+        while (position < tokens.size()) {
+            Token token = next();
+            if (token.isWord("LANGUAGE")) {
+                language = language();
+            } else if (token.isWord("STRINGTABLE")) {
+                stringTable();
+            } else {
+                resource(id(token));
+            }
+        }
+        for (Map.Entry<Integer, Map<Integer, String[]>> languages : stringTables.entrySet()) {
+            for (Map.Entry<Integer, String[]> block : languages.getValue().entrySet()) {
+                resources.add(RT_STRING, block.getKey(), languages.getKey(), stringBlock(block.getValue()));
+            }
+        }
+        return resources;
+    }
+
+    private void resource(Object name) throws IOException {
+        Token type = next();
+        if (type.isWord("VERSIONINFO")) {
+            versionInfo(name);
+            return;
+        }
+        skipMemoryOptions();
+        int resourceLanguage = language;
+        if (peek() != null && peek().isWord("LANGUAGE")) {
+            next();
+            resourceLanguage = language();
+        }
+        if (type.isWord("ICON")) {
+            icon(name, file(next()), resourceLanguage);
+        } else if (type.isWord("BITMAP")) {
+            File file = file(next());
+            byte[] bitmap = Files.readAllBytes(file.toPath());
+            if (bitmap.length < BITMAP_FILE_HEADER_SIZE || bitmap[0] != 'B' || bitmap[1] != 'M') {
+                throw new IOException("Not a bitmap file: " + file);
+            }
+            resources.add(RT_BITMAP, name, resourceLanguage, Arrays.copyOfRange(bitmap, BITMAP_FILE_HEADER_SIZE, bitmap.length));
+        } else if (type.isWord("RCDATA") || type.kind == Kind.NUMBER || type.kind == Kind.WORD && !isKeyword(type)) {
+            Object resourceType = type.isWord("RCDATA") ? Integer.valueOf(RT_RCDATA) : id(type);
+            Token content = next();
+            byte[] data = content.isOpen() ? rawData() : Files.readAllBytes(file(content).toPath());
+            resources.add(resourceType, name, resourceLanguage, data);
+        } else {
+            throw new ResourceScriptException(type.line, "Unsupported resource type " + type.text);
+        }
+    }
+
+    private void icon(Object name, File file, int resourceLanguage) throws IOException {
+        IconResources icon = IconResources.read(Files.readAllBytes(file.toPath()));
+        int firstId = nextIconId;
+        for (byte[] image : icon.getImages()) {
+            resources.add(PeResources.RT_ICON, nextIconId++, resourceLanguage, image);
+        }
+        resources.add(PeResources.RT_GROUP_ICON, name, resourceLanguage, icon.toGroup(firstId));
+    }
+
+    private byte[] rawData() throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        Token token = next();
+        while (!token.isClose()) {
+            if (token.kind == Kind.STRING) {
+                byte[] bytes = token.text.getBytes(StandardCharsets.ISO_8859_1);
+                data.write(bytes, 0, bytes.length);
+            } else if (token.kind == Kind.WIDE_STRING) {
+                byte[] bytes = token.text.getBytes(StandardCharsets.UTF_16LE);
+                data.write(bytes, 0, bytes.length);
+            } else if (token.kind == Kind.NUMBER) {
+                int size = token.longSuffix ? 4 : 2;
+                for (int i = 0; i < size; i++) {
+                    data.write((int) (token.value >>> (8 * i)));
+                }
+            } else {
+                throw new ResourceScriptException(token.line, "Unsupported data " + token.text);
+            }
+            token = next();
+            if (token.isComma()) {
+                token = next();
+            }
+        }
+        return data.toByteArray();
+    }
+
+    private void versionInfo(Object name) throws IOException {
+        long[] fileVersion = new long[4];
+        long[] productVersion = new long[4];
+        Map<String, Long> fixed = new LinkedHashMap<>();
+        fixed.put("FILEFLAGSMASK", 0L);
+        fixed.put("FILEFLAGS", 0L);
+        fixed.put("FILEOS", 0L);
+        fixed.put("FILETYPE", 0L);
+        fixed.put("FILESUBTYPE", 0L);
+
+        Token token = next();
+        while (!token.isOpen()) {
+            String keyword = token.text.toUpperCase(Locale.ROOT);
+            if (token.isWord("FILEVERSION") || token.isWord("PRODUCTVERSION")) {
+                long[] version = token.isWord("FILEVERSION") ? fileVersion : productVersion;
+                for (int i = 0; i < 4; i++) {
+                    version[i] = number(next());
+                    if (i == 3 || peek() == null || !peek().isComma()) {
+                        break;
+                    }
+                    next();
+                }
+            } else if (token.kind == Kind.WORD && fixed.containsKey(keyword)) {
+                fixed.put(keyword, number(next()));
+            } else {
+                throw new ResourceScriptException(token.line, "Unsupported VERSIONINFO statement " + token.text);
+            }
+            token = next();
+        }
+        if (!new ArrayList<>(fixed.values()).equals(Arrays.asList(0L, 0L, 0x40000L, 1L, 0L))) {
+            throw new ResourceScriptException(token.line, "Only the fixed file information generated by Launch4j is supported");
+        }
+
+        String table = null;
+        Map<String, String> strings = new LinkedHashMap<>();
+        int translationLanguage = -1;
+        int translationCodePage = -1;
+        for (token = next(); !token.isClose(); token = next()) {
+            expectWord(token, "BLOCK");
+            String block = string(next());
+            expectOpen(next());
+            if ("StringFileInfo".equals(block)) {
+                expectWord(token = next(), "BLOCK");
+                table = string(next());
+                expectOpen(next());
+                for (token = next(); !token.isClose(); token = next()) {
+                    expectWord(token, "VALUE");
+                    String key = string(next());
+                    expectComma(next());
+                    strings.put(key, string(next()));
+                }
+                expectClose(next());
+            } else if ("VarFileInfo".equals(block)) {
+                expectWord(token = next(), "VALUE");
+                if (!"Translation".equals(string(next()))) {
+                    throw new ResourceScriptException(token.line, "Unsupported VarFileInfo value");
+                }
+                expectComma(next());
+                translationLanguage = (int) number(next());
+                expectComma(next());
+                translationCodePage = (int) number(next());
+                expectClose(next());
+            } else {
+                throw new ResourceScriptException(token.line, "Unsupported VERSIONINFO block " + block);
+            }
+        }
+        String translation = String.format("%04X%04X", translationLanguage, translationCodePage);
+        if (table == null || !translation.equalsIgnoreCase(table)) {
+            throw new ResourceScriptException(token.line, "Only a single string table matching the translation is supported");
+        }
+        VersionResource version = new VersionResource(version(fileVersion), version(productVersion),
+                translationLanguage, translationCodePage, strings);
+        resources.add(PeResources.RT_VERSION, name, language, version.toBytes());
+    }
+
+    private void stringTable() throws IOException {
+        skipMemoryOptions();
+        int tableLanguage = language;
+        if (peek() != null && peek().isWord("LANGUAGE")) {
+            next();
+            tableLanguage = language();
+        }
+        expectOpen(next());
+        for (Token token = next(); !token.isClose(); token = next()) {
+            int id = (int) number(token) & 0xffff;
+            Token text = next();
+            if (text.isComma()) {
+                text = next();
+            }
+            stringTables.computeIfAbsent(tableLanguage, l -> new TreeMap<>())
+                    .computeIfAbsent((id >> 4) + 1, b -> new String[16])[id & 0xf] = string(text);
+        }
+    }
+
+    private static byte[] stringBlock(String[] strings) {
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        for (String string : strings) {
+            String text = string != null ? string : "";
+            block.write(text.length() & 0xff);
+            block.write(text.length() >>> 8);
+            byte[] chars = text.getBytes(StandardCharsets.UTF_16LE);
+            block.write(chars, 0, chars.length);
+        }
+        return block.toByteArray();
+    }
+
+    private int language() throws IOException {
+        int primary = (int) number(next());
+        expectComma(next());
+        int sub = (int) number(next());
+        return sub << 10 | primary;
+    }
+
+    private void skipMemoryOptions() {
+        while (peek() != null && peek().kind == Kind.WORD && MEMORY_OPTIONS.contains(peek().text.toUpperCase(Locale.ROOT))) {
+            position++;
+        }
+    }
+
+    private static String version(long[] parts) {
+        return parts[0] + "." + parts[1] + "." + parts[2] + "." + parts[3];
+    }
+
+    private Object id(Token token) throws ResourceScriptException {
+        if (token.kind == Kind.NUMBER) {
+            return (int) (token.value & 0xffff);
+        }
+        if (token.kind == Kind.WORD || token.kind == Kind.STRING) {
+            return token.text.toUpperCase(Locale.ROOT);
+        }
+        throw new ResourceScriptException(token.line, "Unexpected " + token.text);
+    }
+
+    private static boolean isKeyword(Token token) {
+        return KEYWORDS.contains(token.text.toUpperCase(Locale.ROOT));
+    }
+
+    private static File file(Token token) throws ResourceScriptException {
+        if (token.kind != Kind.STRING) {
+            throw new ResourceScriptException(token.line, "Expected a file name instead of " + token.text);
+        }
+        return new File(token.text);
+    }
+
+    private static String string(Token token) throws ResourceScriptException {
+        if (token.kind == Kind.STRING) {
+            return new String(token.text.getBytes(StandardCharsets.ISO_8859_1), NARROW);
+        }
+        if (token.kind == Kind.WIDE_STRING) {
+            return token.text;
+        }
+        throw new ResourceScriptException(token.line, "Expected a string instead of " + token.text);
+    }
+
+    private static long number(Token token) throws ResourceScriptException {
+        if (token.kind != Kind.NUMBER) {
+            throw new ResourceScriptException(token.line, "Expected a number instead of " + token.text);
+        }
+        return token.value;
+    }
+
+    private static void expectWord(Token token, String word) throws ResourceScriptException {
+        if (!token.isWord(word)) {
+            throw new ResourceScriptException(token.line, "Expected " + word + " instead of " + token.text);
+        }
+    }
+
+    private static void expectOpen(Token token) throws ResourceScriptException {
+        if (!token.isOpen()) {
+            throw new ResourceScriptException(token.line, "Expected BEGIN instead of " + token.text);
+        }
+    }
+
+    private static void expectClose(Token token) throws ResourceScriptException {
+        if (!token.isClose()) {
+            throw new ResourceScriptException(token.line, "Expected END instead of " + token.text);
+        }
+    }
+
+    private static void expectComma(Token token) throws ResourceScriptException {
+        if (!token.isComma()) {
+            throw new ResourceScriptException(token.line, "Expected a comma instead of " + token.text);
+        }
+    }
+
+    private Token peek() {
+        return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private Token next() throws ResourceScriptException {
+        if (position >= tokens.size()) {
+            int line = tokens.isEmpty() ? 1 : tokens.get(tokens.size() - 1).line;
+            throw new ResourceScriptException(line, "Unexpected end of the script");
+        }
+        return tokens.get(position++);
+    }
+
+    static List<Token> tokenize(String script) throws ResourceScriptException {
+        List<Token> tokens = new ArrayList<>();
+        int line = 1;
+        int i = 0;
+        while (i < script.length()) {
+            char c = script.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (script.startsWith("//", i) || c == '#' && isLineStart(script, i)) {
+                while (i < script.length() && script.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (script.startsWith("/*", i)) {
+                int end = script.indexOf("*/", i + 2);
+                if (end < 0) {
+                    throw new ResourceScriptException(line, "Unterminated comment");
+                }
+                for (int j = i; j < end; j++) {
+                    if (script.charAt(j) == '\n') {
+                        line++;
+                    }
+                }
+                i = end + 2;
+            } else if (c == '"' || (c == 'L' || c == 'l') && i + 1 < script.length() && script.charAt(i + 1) == '"') {
+                boolean wide = c != '"';
+                int start = wide ? i + 2 : i + 1;
+                StringBuilder sb = new StringBuilder();
+                i = readString(script, start, sb, wide, line);
+                tokens.add(new Token(wide ? Kind.WIDE_STRING : Kind.STRING, sb.toString(), 0, false, line));
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < script.length() && Character.isLetterOrDigit(script.charAt(i))) {
+                    i++;
+                }
+                String text = script.substring(start, i);
+                tokens.add(number(text, line));
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < script.length() && (Character.isLetterOrDigit(script.charAt(i)) || script.charAt(i) == '_')) {
+                    i++;
+                }
+                String word = script.substring(start, i);
+                if (word.equalsIgnoreCase("BEGIN")) {
+                    tokens.add(new Token(Kind.PUNCTUATION, "{", 0, false, line));
+                } else if (word.equalsIgnoreCase("END")) {
+                    tokens.add(new Token(Kind.PUNCTUATION, "}", 0, false, line));
+                } else {
+                    tokens.add(new Token(Kind.WORD, word, 0, false, line));
+                }
+            } else if (c == ',' || c == '{' || c == '}') {
+                tokens.add(new Token(Kind.PUNCTUATION, String.valueOf(c), 0, false, line));
+                i++;
+            } else {
+                throw new ResourceScriptException(line, "Unsupported character '" + c + "'");
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isLineStart(String script, int index) {
+        for (int j = index - 1; j >= 0 && script.charAt(j) != '\n'; j--) {
+            if (!Character.isWhitespace(script.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Token number(String text, int line) throws ResourceScriptException {
+        String digits = text;
+        boolean longSuffix = false;
+        while (digits.endsWith("L") || digits.endsWith("l") || digits.endsWith("U") || digits.endsWith("u")) {
+            longSuffix |= Character.toUpperCase(digits.charAt(digits.length() - 1)) == 'L';
+            digits = digits.substring(0, digits.length() - 1);
+        }
+        try {
+            long value;
+            if (digits.startsWith("0x") || digits.startsWith("0X")) {
+                value = Long.parseLong(digits.substring(2), 16);
+            } else if (digits.length() > 1 && digits.startsWith("0")) {
+                value = Long.parseLong(digits.substring(1), 8);
+            } else {
+                value = Long.parseLong(digits);
+            }
+            return new Token(Kind.NUMBER, text, value & 0xffffffffL, longSuffix, line);
+        } catch (NumberFormatException e) {
+            throw new ResourceScriptException(line, "Invalid number " + text);
+        }
+    }
+
+    /**
+     * Reads a string literal, a doubled quote stands for a quote and the C escape sequences are supported.
+     *
+     * @return index after the closing quote
+     */
+    private static int readString(String script, int start, StringBuilder sb, boolean wide, int line)
+            throws ResourceScriptException {
+        int i = start;
+        while (true) {
+            if (i >= script.length() || script.charAt(i) == '\n') {
+                throw new ResourceScriptException(line, "Unterminated string");
+            }
+            char c = script.charAt(i++);
+            if (c == '"') {
+                if (i < script.length() && script.charAt(i) == '"') {
+                    sb.append('"');
+                    i++;
+                    continue;
+                }
+                return i;
+            }
+            if (c != '\\' || i >= script.length()) {
+                sb.append(c);
+                continue;
+            }
+            char e = script.charAt(i++);
+            switch (e) {
+                case 'a': sb.append('\u0007'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'v': sb.append('\u000b'); break;
+                case 'x': {
+                    int end = i;
+                    while (end < script.length() && end < i + (wide ? 4 : 2) && Character.digit(script.charAt(end), 16) >= 0) {
+                        end++;
+                    }
+                    if (end == i) {
+                        throw new ResourceScriptException(line, "Invalid escape sequence \\x");
+                    }
+                    sb.append((char) Integer.parseInt(script.substring(i, end), 16));
+                    i = end;
+                    break;
+                }
+                default:
+                    if (e >= '0' && e <= '7') {
+                        int end = i;
+                        while (end < script.length() && end < i + 2 && script.charAt(end) >= '0' && script.charAt(end) <= '7') {
+                            end++;
+                        }
+                        sb.append((char) Integer.parseInt(script.substring(i - 1, end), 8));
+                        i = end;
+                    } else {
+                        // \\, \" and \' stand for the character itself
+                        sb.append(e);
+                    }
+            }
+        }
+    }
+
+    private enum Kind {
+        WORD, NUMBER, STRING, WIDE_STRING, PUNCTUATION
+    }
+
+    static final class Token {
+        final Kind kind;
+        final String text;
+        final long value;
+        final boolean longSuffix;
+        final int line;
+
+        Token(Kind kind, String text, long value, boolean longSuffix, int line) {
+            this.kind = kind;
+            this.text = text;
+            this.value = value;
+            this.longSuffix = longSuffix;
+            this.line = line;
+        }
+
+        boolean isWord(String word) {
+            return kind == Kind.WORD && text.equalsIgnoreCase(word);
+        }
+
+        boolean isOpen() {
+            return kind == Kind.PUNCTUATION && "{".equals(text);
+        }
+
+        boolean isClose() {
+            return kind == Kind.PUNCTUATION && "}".equals(text);
+        }
+
+        boolean isComma() {
+            return kind == Kind.PUNCTUATION && ",".equals(text);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
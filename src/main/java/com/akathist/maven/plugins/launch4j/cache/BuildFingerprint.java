@@ -0,0 +1,252 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.cache;
+
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.Splash;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Digest of every input that influences the executable produced by Launch4j: the effective {@link Config},
+ * the content of the jar, icon, manifest and splash files, the header objects and libraries
+ * and the Launch4j toolchain.
+ * <p/>
+ * Each input is kept as a named component, so it is possible to tell which part has changed between two builds.
+ * File inputs are represented by their content, not by their location, so the same inputs produce
+ * the same fingerprint in any directory.
+ */
+public class BuildFingerprint {
+
+    private static final String HEADER = "# Launch4j build fingerprint, do not edit";
+
+    private static final String FORMAT = "3";
+
+    private static final XStream XSTREAM = createXStream();
+
+    private final Map<String, String> components;
+
+    private BuildFingerprint(Map<String, String> components) {
+        this.components = Collections.unmodifiableMap(new TreeMap<>(components));
+    }
+
+    /**
+     * Computes the fingerprint of the given configuration. It only needs the coordinates of the toolchain
+     * and the files of the project, so it can be computed before the work directory is prepared.
+     * <p/>
+     * Components which don't come from the configuration, like the version of the plugin, are added with
+     * {@link #with(String, String)}.
+     *
+     * @param config    effective configuration passed to Launch4j
+     * @param configDir directory used to resolve relative paths in the configuration
+     * @param toolchain coordinates of the Launch4j toolchain, e.g. groupId:artifactId:version:platform
+     * @param objs      header objects relative to the work directory mapped to the files of the project
+     *                  they are copied from, or to null for files of the toolchain; null for the default ones
+     * @param libs      libraries, the same way as the header objects
+     */
+    public static BuildFingerprint of(Config config, File configDir, String toolchain,
+                                      Map<String, Path> objs, Map<String, Path> libs) throws IOException {
+        Map<String, String> components = new TreeMap<>();
+        components.put("format", FORMAT);
+        components.put("launch4j", toolchain);
+        components.put("headerType", String.valueOf(config.getHeaderType()));
+        components.put("config", Digests.sha256(XSTREAM.toXML(config)));
+        components.put("versionInfo", config.getVersionInfo() == null ? "none" : Digests.sha256(XSTREAM.toXML(config.getVersionInfo())));
+
+        if (config.isDontWrapJar()) {
+            components.put("jar", "path:" + config.getJar());
+        } else {
+            components.put("jar", describe(configDir, config.getJar()));
+        }
+        components.put("icon", describe(configDir, config.getIcon()));
+        components.put("manifest", describe(configDir, config.getManifest()));
+        Splash splash = config.getSplash();
+        components.put("splash", describe(configDir, splash != null ? splash.getFile() : null));
+        components.put("objs", describe(objs));
+        components.put("libs", describe(libs));
+
+        return new BuildFingerprint(components);
+    }
+
+    /**
+     * A copy of this fingerprint with an additional component, e.g. an option of the plugin
+     * which changes the executable produced by Launch4j.
+     */
+    public BuildFingerprint with(String name, String value) {
+        Map<String, String> copy = new TreeMap<>(components);
+        copy.put(name, value);
+        return new BuildFingerprint(copy);
+    }
+
+    /**
+     * A copy of this fingerprint without the given component.
+     */
+    public BuildFingerprint without(String name) {
+        Map<String, String> copy = new TreeMap<>(components);
+        copy.remove(name);
+        return new BuildFingerprint(copy);
+    }
+
+    /**
+     * The place where the fingerprint of the given executable is stored.
+     */
+    public static File fileFor(File outfile) {
+        return new File(outfile.getParentFile(), outfile.getName() + ".fingerprint");
+    }
+
+    /**
+     * Reads a previously stored fingerprint.
+     *
+     * @return the fingerprint or null if there is none or it cannot be read
+     */
+    public static BuildFingerprint read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        Map<String, String> components = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int idx = line.indexOf('=');
+                if (line.startsWith("#") || idx < 0) {
+                    continue;
+                }
+                components.put(line.substring(0, idx), line.substring(idx + 1));
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return new BuildFingerprint(components);
+    }
+
+    public void write(File file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (Map.Entry<String, String> entry : components.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    public Map<String, String> getComponents() {
+        return components;
+    }
+
+    /**
+     * A single digest of all the components.
+     */
+    public String getDigest() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : components.entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        return Digests.sha256(sb.toString());
+    }
+
+    /**
+     * Names of the components which differ between this and the other fingerprint.
+     */
+    public List<String> diff(BuildFingerprint other) {
+        Map<String, String> all = new TreeMap<>(components);
+        if (other != null) {
+            all.putAll(other.components);
+        }
+        List<String> changed = new ArrayList<>();
+        for (String name : all.keySet()) {
+            if (other == null || !Objects.equals(components.get(name), other.components.get(name))) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    private static String describe(Map<String, Path> files) throws IOException {
+        if (files == null) {
+            return "none";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+            // files of the toolchain never change, they are identified by the toolchain
+            String content = file.getValue() == null ? "toolchain" : describe(null, file.getValue().toFile());
+            sb.append(file.getKey()).append('=').append(content).append('\n');
+        }
+        return Digests.sha256(sb.toString());
+    }
+
+    private static String describe(File baseDir, File file) throws IOException {
+        if (file == null || file.getPath().isEmpty()) {
+            return "none";
+        }
+        File absolute = file.isAbsolute() || baseDir == null ? file : new File(baseDir, file.getPath());
+        if (absolute.isFile()) {
+            return "sha256:" + Digests.sha256(absolute);
+        }
+        return "missing:" + file.getPath();
+    }
+
+    private static XStream createXStream() {
+        XStream xstream = new XStream(new DomDriver());
+        // locations don't influence the produced executable, contents are tracked as separate components
+        xstream.omitField(Config.class, "outfile");
+        xstream.omitField(Config.class, "jar");
+        xstream.omitField(Config.class, "icon");
+        xstream.omitField(Config.class, "manifest");
+        xstream.omitField(Splash.class, "file");
+        // tracked as separate components, by their contents
+        xstream.omitField(Config.class, "headerObjects");
+        xstream.omitField(Config.class, "libs");
+        // tracked as a separate component, so a changed version can be patched into the previous executable
+        xstream.omitField(Config.class, "versionInfo");
+        return xstream;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return components.equals(((BuildFingerprint) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return components.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "BuildFingerprint{" + getDigest() + "}";
+    }
+}
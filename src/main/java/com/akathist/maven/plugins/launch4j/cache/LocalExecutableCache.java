@@ -0,0 +1,172 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.cache;
+
+import com.akathist.maven.plugins.launch4j.tools.AtomicFiles;
+import com.akathist.maven.plugins.launch4j.tools.FsyncPolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of built executables, shared by all the projects and processes using
+ * the same directory. Entries are keyed by the digest of a {@link BuildFingerprint}.
+ * <p/>
+ * Entries and restored executables are published with an atomic rename, so readers never see partially written
+ * files, and the last modification time of an entry is used as its last access time for LRU eviction.
+ */
+public class LocalExecutableCache {
+
+    private static final String SUFFIX = ".exe";
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    private final FsyncPolicy fsync;
+
+    /**
+     * @param directory root of the cache
+     * @param maxSize   maximum size of all entries, in bytes
+     */
+    public LocalExecutableCache(File directory, long maxSize) {
+        this(directory, maxSize, FsyncPolicy.NONE);
+    }
+
+    /**
+     * @param directory root of the cache
+     * @param maxSize   maximum size of all entries, in bytes
+     * @param fsync     what is flushed to the disk when entries and restored executables are published
+     */
+    public LocalExecutableCache(File directory, long maxSize, FsyncPolicy fsync) {
+        this.directory = directory.toPath();
+        this.maxSize = maxSize;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Restores the cached executable into the target file.
+     *
+     * @return false if there is no such entry in the cache
+     */
+    public boolean restore(String key, File target, boolean hardLink) throws IOException {
+        Path entry = entryFor(key);
+        if (!Files.isRegularFile(entry)) {
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+
+            Path targetPath = target.toPath().toAbsolutePath();
+            Files.createDirectories(targetPath.getParent());
+            AtomicFiles.publishCopy(entry, targetPath, hardLink, fsync);
+            return true;
+        } catch (NoSuchFileException e) {
+            // evicted in the meantime by another process
+            return false;
+        }
+    }
+
+    /**
+     * Stores the executable in the cache and evicts the least recently used entries if the cache is too big.
+     */
+    public void store(String key, File source) throws IOException {
+        store(key, source, false);
+    }
+
+    /**
+     * Stores the executable in the cache and evicts the least recently used entries if the cache is too big.
+     *
+     * @param hardLink whether to store a hard link to the executable instead of a copy,
+     *                 the executable must not be modified in place afterwards then
+     */
+    public void store(String key, File source, boolean hardLink) throws IOException {
+        Path entry = entryFor(key);
+        Files.createDirectories(entry.getParent());
+        // an entry with the same key always has the same content, so it doesn't matter who wins
+        AtomicFiles.publishCopy(source.toPath(), entry, hardLink, fsync);
+
+        evict();
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits into its maximum size.
+     */
+    void evict() throws IOException {
+        List<Path> entries;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            entries = files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long total = 0;
+        List<CachedFile> cached = new ArrayList<>();
+        for (Path entry : entries) {
+            try {
+                CachedFile file = new CachedFile(entry, Files.size(entry), Files.getLastModifiedTime(entry).toMillis());
+                cached.add(file);
+                total += file.size;
+            } catch (NoSuchFileException e) {
+                // evicted by another process
+            }
+        }
+        if (total <= maxSize) {
+            return;
+        }
+
+        cached.sort(Comparator.comparingLong(file -> file.lastAccess));
+        for (CachedFile file : cached) {
+            if (total <= maxSize) {
+                break;
+            }
+            Files.deleteIfExists(file.path);
+            total -= file.size;
+        }
+    }
+
+    Path entryFor(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    private static class CachedFile {
+        final Path path;
+        final long size;
+        final long lastAccess;
+
+        CachedFile(Path path, long size, long lastAccess) {
+            this.path = path;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
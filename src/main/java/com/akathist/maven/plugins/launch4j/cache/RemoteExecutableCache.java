@@ -0,0 +1,175 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.cache;
+
+import com.akathist.maven.plugins.launch4j.tools.AtomicFiles;
+import com.akathist.maven.plugins.launch4j.tools.FsyncPolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Build cache of executables shared over HTTP, e.g. by all the CI agents.
+ * Executables are downloaded with <code>GET {url}/{key}.exe</code> and uploaded with <code>PUT {url}/{key}.exe</code>,
+ * where the key is the digest of a {@link BuildFingerprint}. Any plain HTTP server supporting
+ * these two methods can be used.
+ */
+public class RemoteExecutableCache {
+
+    private final String url;
+
+    private final Duration timeout;
+
+    private final HttpClient client;
+
+    private final FsyncPolicy fsync;
+
+    /**
+     * @param url     base url of the cache
+     * @param timeout timeout of connecting to the server and of each whole transfer, including the body
+     */
+    public RemoteExecutableCache(String url, Duration timeout) {
+        this(url, timeout, FsyncPolicy.NONE);
+    }
+
+    /**
+     * @param url     base url of the cache
+     * @param timeout timeout of connecting to the server and of each whole transfer, including the body
+     * @param fsync   what is flushed to the disk when a downloaded executable is published
+     */
+    public RemoteExecutableCache(String url, Duration timeout, FsyncPolicy fsync) {
+        this.url = url.endsWith("/") ? url : url + "/";
+        this.timeout = timeout;
+        this.fsync = fsync;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Downloads the executable into the target file. It is downloaded into a temporary file next to the target
+     * and published with an atomic rename, see {@link AtomicFiles}, only if it looks like a complete executable:
+     * its size matches the <code>Content-Length</code> sent by the server and it starts with the <code>MZ</code>
+     * signature.
+     *
+     * @return false if there is no such executable in the cache
+     * @throws IOException if the cache cannot be reached, responds with an error or with a broken executable
+     */
+    public boolean fetch(String key, File target) throws IOException {
+        Path targetPath = target.toPath();
+        Files.createDirectories(targetPath.getParent());
+        Path tmp = AtomicFiles.tempFileFor(targetPath);
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uriFor(key)).timeout(timeout).GET().build();
+            HttpResponse<Path> response = send(request, HttpResponse.BodyHandlers.ofFile(tmp));
+            if (response.statusCode() == 404) {
+                return false;
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected response " + response.statusCode() + " from " + request.uri());
+            }
+            verify(response, tmp);
+            AtomicFiles.publish(tmp, targetPath, fsync);
+            return true;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Uploads the executable into the cache.
+     *
+     * @throws IOException if the cache cannot be reached or rejects the executable
+     */
+    public void upload(String key, File source) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(uriFor(key))
+                .timeout(timeout)
+                .header("Content-Type", "application/octet-stream")
+                .PUT(HttpRequest.BodyPublishers.ofFile(source.toPath()))
+                .build();
+        HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Unexpected response " + response.statusCode() + " from " + request.uri());
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    URI uriFor(String key) {
+        return URI.create(url + key + ".exe");
+    }
+
+    /**
+     * {@link HttpRequest#timeout(Duration)} only covers receiving the headers, so the whole exchange is bounded
+     * here and cancelled once the timeout expires.
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        CompletableFuture<HttpResponse<T>> future = client.sendAsync(request, handler);
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HttpTimeoutException("Transfer from " + request.uri() + " not finished within " + timeout);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + request.uri());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to call " + request.uri(), cause);
+        }
+    }
+
+    private static void verify(HttpResponse<?> response, Path file) throws IOException {
+        long size = Files.size(file);
+        OptionalLong length = response.headers().firstValueAsLong("Content-Length");
+        if (length.isPresent() && length.getAsLong() != size) {
+            throw new IOException("Truncated executable from " + response.uri()
+                    + ", received " + size + " of " + length.getAsLong() + " bytes");
+        }
+        byte[] signature = new byte[2];
+        try (InputStream in = Files.newInputStream(file)) {
+            if (in.readNBytes(signature, 0, 2) != 2 || signature[0] != 'M' || signature[1] != 'Z') {
+                throw new IOException("Not an executable from " + response.uri());
+            }
+        }
+    }
+}
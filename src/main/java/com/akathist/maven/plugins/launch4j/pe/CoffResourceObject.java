@@ -0,0 +1,149 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.pe;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A COFF object file holding resources in its <code>.rsrc</code> section, as produced by
+ * <code>windres -O coff -F pe-i386</code> and linked into the header by ld.
+ * <p/>
+ * The data entries refer to the resource data by offsets in the section, each of them is relocated
+ * with an image relative relocation, so the linker turns them into relative virtual addresses.
+ */
+public final class CoffResourceObject {
+
+    private static final int MACHINE_I386 = 0x14c;
+    private static final int FILE_HEADER_SIZE = 20;
+    private static final int SECTION_HEADER_SIZE = 40;
+    private static final int RELOCATION_SIZE = 10;
+    private static final int SYMBOL_SIZE = 18;
+    private static final int IMAGE_REL_I386_DIR32NB = 7;
+    private static final int IMAGE_SYM_CLASS_STATIC = 3;
+    private static final int SECTION_CHARACTERISTICS = 0xc0300040; // initialized data, 4 bytes aligned, read, write
+
+    private CoffResourceObject() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Writes an object file with the given resources.
+     */
+    public static void write(PeResources resources, File object) throws IOException {
+        List<Integer> dataEntries = new ArrayList<>();
+        byte[] section = resources.toBytes(0, dataEntries);
+
+        int sectionData = FILE_HEADER_SIZE + SECTION_HEADER_SIZE;
+        int relocations = sectionData + section.length;
+        int symbols = relocations + dataEntries.size() * RELOCATION_SIZE;
+        int size = symbols + 2 * SYMBOL_SIZE + 4;
+
+        ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putShort((short) MACHINE_I386);
+        buf.putShort((short) 1);
+        buf.putInt(0); // time stamp, kept empty for reproducible objects
+        buf.putInt(symbols);
+        buf.putInt(2);
+        buf.putShort((short) 0);
+        buf.putShort((short) 0);
+
+        buf.put(name(".rsrc"));
+        buf.putInt(0);
+        buf.putInt(0);
+        buf.putInt(section.length);
+        buf.putInt(sectionData);
+        buf.putInt(dataEntries.isEmpty() ? 0 : relocations);
+        buf.putInt(0);
+        buf.putShort((short) dataEntries.size());
+        buf.putShort((short) 0);
+        buf.putInt(SECTION_CHARACTERISTICS);
+
+        buf.put(section);
+
+        for (int dataEntry : dataEntries) {
+            buf.putInt(dataEntry);
+            buf.putInt(0);
+            buf.putShort((short) IMAGE_REL_I386_DIR32NB);
+        }
+
+        // the section symbol the relocations refer to, followed by its auxiliary record
+        buf.put(name(".rsrc"));
+        buf.putInt(0);
+        buf.putShort((short) 1);
+        buf.putShort((short) 0);
+        buf.put((byte) IMAGE_SYM_CLASS_STATIC);
+        buf.put((byte) 1);
+        buf.putInt(section.length);
+        buf.putShort((short) dataEntries.size());
+        buf.position(buf.position() + SYMBOL_SIZE - 6);
+
+        buf.putInt(4); // empty string table
+
+        Files.write(object.toPath(), buf.array());
+    }
+
+    /**
+     * Reads the resources of an object file.
+     *
+     * @throws PeFormatException if it isn't an i386 object file with a resource section
+     */
+    public static PeResources read(File object) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(object.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.limit() < FILE_HEADER_SIZE || (buf.getShort(0) & 0xffff) != MACHINE_I386) {
+            throw new PeFormatException("Not an i386 object file: " + object);
+        }
+        int sections = buf.getShort(2) & 0xffff;
+        int sectionTable = FILE_HEADER_SIZE + (buf.getShort(16) & 0xffff);
+        for (int i = 0; i < sections; i++) {
+            int header = sectionTable + i * SECTION_HEADER_SIZE;
+            byte[] name = new byte[8];
+            ByteBuffer src = buf.duplicate();
+            src.position(header);
+            src.get(name);
+            if (!new String(name, StandardCharsets.US_ASCII).startsWith(".rsrc")) {
+                continue;
+            }
+            int size = buf.getInt(header + 16);
+            int pointer = buf.getInt(header + 20);
+            if (pointer < 0 || size < 0 || pointer + (long) size > buf.limit()) {
+                throw new PeFormatException("Truncated object file: " + object);
+            }
+            src.position(pointer).limit(pointer + size);
+            ByteBuffer section = src.slice().order(ByteOrder.LITTLE_ENDIAN);
+            // the relocations add the address of the section, in the object it is zero
+            return PeResources.read(section, 0, offset -> offset, object.toString());
+        }
+        throw new PeFormatException("No resource section in " + object);
+    }
+
+    private static byte[] name(String name) {
+        byte[] bytes = new byte[8];
+        byte[] ascii = name.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(ascii, 0, bytes, 0, ascii.length);
+        return bytes;
+    }
+}
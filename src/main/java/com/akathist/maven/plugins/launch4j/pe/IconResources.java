@@ -0,0 +1,115 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.pe;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An <code>.ico</code> file split into the resources it is compiled to: one <code>RT_ICON</code> per image
+ * and an <code>RT_GROUP_ICON</code> listing them.
+ */
+public class IconResources {
+
+    private static final int ICON_DIR_SIZE = 6;
+    private static final int ICO_ENTRY_SIZE = 16;
+    private static final int GROUP_ENTRY_SIZE = 14;
+
+    private final byte[] directory;
+    private final List<byte[]> images;
+
+    private IconResources(byte[] directory, List<byte[]> images) {
+        this.directory = directory;
+        this.images = Collections.unmodifiableList(images);
+    }
+
+    /**
+     * Parses the content of an <code>.ico</code> file.
+     *
+     * @throws PeFormatException if it isn't a valid icon file
+     */
+    public static IconResources read(byte[] ico) throws PeFormatException {
+        ByteBuffer buf = ByteBuffer.wrap(ico).order(ByteOrder.LITTLE_ENDIAN);
+        if (ico.length < ICON_DIR_SIZE || buf.getShort(0) != 0 || buf.getShort(2) != 1) {
+            throw new PeFormatException("Not an icon file");
+        }
+        int count = buf.getShort(4) & 0xffff;
+        if (count == 0 || ICON_DIR_SIZE + count * ICO_ENTRY_SIZE > ico.length) {
+            throw new PeFormatException("Truncated icon file");
+        }
+        List<byte[]> images = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int entry = ICON_DIR_SIZE + i * ICO_ENTRY_SIZE;
+            long size = buf.getInt(entry + 8) & 0xffffffffL;
+            long offset = buf.getInt(entry + 12) & 0xffffffffL;
+            if (offset + size > ico.length) {
+                throw new PeFormatException("Truncated icon file");
+            }
+            byte[] image = new byte[(int) size];
+            System.arraycopy(ico, (int) offset, image, 0, image.length);
+            images.add(image);
+        }
+        byte[] directory = new byte[ICON_DIR_SIZE + count * ICO_ENTRY_SIZE];
+        System.arraycopy(ico, 0, directory, 0, directory.length);
+        return new IconResources(directory, images);
+    }
+
+    /**
+     * The images, stored as <code>RT_ICON</code> resources.
+     */
+    public List<byte[]> getImages() {
+        return images;
+    }
+
+    /**
+     * The <code>RT_GROUP_ICON</code> resource, referring to the images by consecutive ids.
+     *
+     * @param firstId id of the <code>RT_ICON</code> resource holding the first image
+     */
+    public byte[] toGroup(int firstId) {
+        ByteBuffer ico = ByteBuffer.wrap(directory).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer group = ByteBuffer.allocate(ICON_DIR_SIZE + images.size() * GROUP_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        group.putShort((short) 0).putShort((short) 1).putShort((short) images.size());
+        for (int i = 0; i < images.size(); i++) {
+            int entry = ICON_DIR_SIZE + i * ICO_ENTRY_SIZE;
+            // width, height, colors and reserved are the same as in the icon file
+            for (int b = 0; b < 4; b++) {
+                group.put(ico.get(entry + b));
+            }
+            int planes = ico.getShort(entry + 4);
+            int bits = ico.getShort(entry + 6);
+            if (planes == 0 && bits == 0) {
+                // some icon files leave them empty, windres derives them from the number of colors
+                int colors = ico.get(entry + 2) & 0xff;
+                planes = 1;
+                while ((1 << bits) < colors) {
+                    bits++;
+                }
+            }
+            group.putShort((short) planes).putShort((short) bits);
+            group.putInt(images.get(i).length);
+            group.putShort((short) (firstId + i));
+        }
+        return group.array();
+    }
+}
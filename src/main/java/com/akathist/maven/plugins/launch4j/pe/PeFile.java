@@ -0,0 +1,473 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.pe;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal reader and writer of the PE executables produced by Launch4j.
+ * <p/>
+ * Only the image (headers and sections) is kept in memory, anything after the last section,
+ * usually the wrapped jar, is left in the file and treated as an overlay.
+ */
+public class PeFile {
+
+    public static final int DIRECTORY_EXPORT = 0;
+    public static final int DIRECTORY_RESOURCE = 2;
+    public static final int DIRECTORY_SECURITY = 4;
+    public static final int DIRECTORY_BASERELOC = 5;
+    public static final int DIRECTORY_DEBUG = 6;
+
+    private static final int PE32_MAGIC = 0x10b;
+    private static final int PE32_PLUS_MAGIC = 0x20b;
+
+    private static final int SECTION_HEADER_SIZE = 40;
+    private static final int DEBUG_DIRECTORY_SIZE = 28;
+    private static final int RESOURCE_DIRECTORY_SIZE = 16;
+
+    private final File file;
+    private final ByteBuffer image;
+    private final long fileLength;
+
+    private final int coffOffset;
+    private final int optionalHeaderOffset;
+    private final int dataDirectoriesOffset;
+    private final int numberOfDataDirectories;
+    private final List<Section> sections;
+
+    private PeFile(File file, ByteBuffer image, long fileLength) throws PeFormatException {
+        this.file = file;
+        this.image = image;
+        this.fileLength = fileLength;
+
+        if (image.limit() < 0x40 || image.getShort(0) != 0x5a4d) {
+            throw new PeFormatException("Missing MZ signature in " + file);
+        }
+        int peOffset = image.getInt(0x3c);
+        if (peOffset < 0 || peOffset + 24 > image.limit() || image.getInt(peOffset) != 0x4550) {
+            throw new PeFormatException("Missing PE signature in " + file);
+        }
+        coffOffset = peOffset + 4;
+        optionalHeaderOffset = coffOffset + 20;
+
+        int magic = u16(optionalHeaderOffset);
+        if (magic == PE32_MAGIC) {
+            dataDirectoriesOffset = optionalHeaderOffset + 96;
+        } else if (magic == PE32_PLUS_MAGIC) {
+            dataDirectoriesOffset = optionalHeaderOffset + 112;
+        } else {
+            throw new PeFormatException("Unknown optional header magic 0x" + Integer.toHexString(magic) + " in " + file);
+        }
+        numberOfDataDirectories = image.getInt(dataDirectoriesOffset - 4);
+
+        int numberOfSections = u16(coffOffset + 2);
+        int sectionTable = optionalHeaderOffset + u16(coffOffset + 16);
+        List<Section> list = new ArrayList<>();
+        for (int i = 0; i < numberOfSections; i++) {
+            list.add(new Section(sectionTable + i * SECTION_HEADER_SIZE));
+        }
+        sections = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Reads headers and sections of the given executable.
+     */
+    public static PeFile read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            ByteBuffer headers = readFully(channel, 0, (int) Math.min(length, 4096));
+            int peOffset = headers.limit() >= 0x40 ? headers.getInt(0x3c) : -1;
+            if (peOffset < 0 || peOffset + 24 > headers.limit()) {
+                throw new PeFormatException("Not a PE file: " + file);
+            }
+            int sizeOfHeaders = headers.getInt(peOffset + 24 + 60);
+            int numberOfSections = headers.getShort(peOffset + 6) & 0xffff;
+            int sectionTable = peOffset + 24 + (headers.getShort(peOffset + 20) & 0xffff);
+            long end = Math.max(sizeOfHeaders, sectionTable + (long) numberOfSections * SECTION_HEADER_SIZE);
+            if (sectionTable + (long) numberOfSections * SECTION_HEADER_SIZE > headers.limit()) {
+                headers = readFully(channel, 0, (int) Math.min(length, end));
+            }
+            for (int i = 0; i < numberOfSections; i++) {
+                int header = sectionTable + i * SECTION_HEADER_SIZE;
+                long rawSize = headers.getInt(header + 16) & 0xffffffffL;
+                long rawPointer = headers.getInt(header + 20) & 0xffffffffL;
+                if (rawSize > 0) {
+                    end = Math.max(end, rawPointer + rawSize);
+                }
+            }
+            if (end > length || end > Integer.MAX_VALUE) {
+                throw new PeFormatException("Truncated PE file: " + file);
+            }
+            return new PeFile(file, readFully(channel, 0, (int) end), length);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Offset of the data appended after the last section, e.g. a wrapped jar.
+     */
+    public long getOverlayOffset() {
+        return image.limit();
+    }
+
+    public long getOverlayLength() {
+        return fileLength - image.limit();
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    public int getTimeDateStamp() {
+        return image.getInt(coffOffset + 4);
+    }
+
+    public int getCheckSum() {
+        return image.getInt(optionalHeaderOffset + 64);
+    }
+
+    public int getSectionAlignment() {
+        return image.getInt(optionalHeaderOffset + 32);
+    }
+
+    public int getFileAlignment() {
+        return image.getInt(optionalHeaderOffset + 36);
+    }
+
+    public int getDataDirectoryRva(int index) {
+        return index < numberOfDataDirectories ? image.getInt(dataDirectoriesOffset + index * 8) : 0;
+    }
+
+    public int getDataDirectorySize(int index) {
+        return index < numberOfDataDirectories ? image.getInt(dataDirectoriesOffset + index * 8 + 4) : 0;
+    }
+
+    /**
+     * Sets all the timestamps stored by the linker and resource compiler: the COFF header,
+     * the export directory, the debug directories and every resource directory table.
+     */
+    public void normalizeTimestamps(int timestamp) {
+        image.putInt(coffOffset + 4, timestamp);
+
+        int export = rvaToOffset(getDataDirectoryRva(DIRECTORY_EXPORT));
+        if (export >= 0) {
+            image.putInt(export + 4, timestamp);
+        }
+
+        int debug = rvaToOffset(getDataDirectoryRva(DIRECTORY_DEBUG));
+        if (debug >= 0) {
+            int count = getDataDirectorySize(DIRECTORY_DEBUG) / DEBUG_DIRECTORY_SIZE;
+            for (int i = 0; i < count; i++) {
+                image.putInt(debug + i * DEBUG_DIRECTORY_SIZE + 4, timestamp);
+            }
+        }
+
+        int resources = rvaToOffset(getDataDirectoryRva(DIRECTORY_RESOURCE));
+        if (resources >= 0) {
+            normalizeResourceDirectory(resources, 0, timestamp, 0);
+        }
+    }
+
+    private void normalizeResourceDirectory(int root, int offset, int timestamp, int depth) {
+        int dir = root + offset;
+        if (depth > 3 || dir + RESOURCE_DIRECTORY_SIZE > image.limit()) {
+            return;
+        }
+        image.putInt(dir + 4, timestamp);
+        int entries = u16(dir + 12) + u16(dir + 14);
+        for (int i = 0; i < entries; i++) {
+            int entry = dir + RESOURCE_DIRECTORY_SIZE + i * 8;
+            int target = image.getInt(entry + 4);
+            if (target < 0) {
+                normalizeResourceDirectory(root, target & 0x7fffffff, timestamp, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Writes the modified headers back into the file, recomputing the checksum if the file had one.
+     */
+    public void save() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean checkSummed = getCheckSum() != 0;
+            if (checkSummed) {
+                image.putInt(optionalHeaderOffset + 64, 0);
+            }
+            ByteBuffer src = image.duplicate();
+            src.position(0);
+            while (src.hasRemaining()) {
+                channel.write(src, src.position());
+            }
+            if (checkSummed) {
+                int checkSum = computeCheckSum(channel);
+                image.putInt(optionalHeaderOffset + 64, checkSum);
+                ByteBuffer field = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, checkSum);
+                channel.write(field, optionalHeaderOffset + 64);
+            }
+        }
+    }
+
+    /**
+     * Writes a copy of this executable into the target file with the resource section replaced by the given resources.
+     * <p/>
+     * The resource section may grow or shrink, the sections following it are moved accordingly, which is only
+     * supported for the base relocations as nothing else refers to their location. The overlay is copied as it is
+     * and the checksum is recomputed if the executable had one.
+     *
+     * @throws PeFormatException if the layout of the executable doesn't allow to replace the resources
+     */
+    public void writeWithResources(PeResources resources, File target) throws IOException {
+        int resourceRva = getDataDirectoryRva(DIRECTORY_RESOURCE);
+        Section rsrc = null;
+        for (Section section : sections) {
+            if (section.getVirtualAddress() == resourceRva && resourceRva != 0) {
+                rsrc = section;
+            }
+        }
+        if (rsrc == null) {
+            throw new PeFormatException("The resource directory doesn't start a section in " + file);
+        }
+
+        int sectionAlignment = getSectionAlignment();
+        int fileAlignment = getFileAlignment();
+        int rawStart = rsrc.getPointerToRawData();
+        int rawEnd = rawStart + rsrc.getSizeOfRawData();
+        int virtualEnd = rsrc.getVirtualAddress() + align(Math.max(rsrc.getVirtualSize(), rsrc.getSizeOfRawData()), sectionAlignment);
+        List<Section> following = new ArrayList<>();
+        for (Section section : sections) {
+            if (section == rsrc) {
+                continue;
+            }
+            boolean after = Integer.compareUnsigned(section.getVirtualAddress(), rsrc.getVirtualAddress()) > 0;
+            if (after) {
+                if (!".reloc".equals(section.getName()) || (section.getSizeOfRawData() != 0 && section.getPointerToRawData() < rawEnd)) {
+                    throw new PeFormatException("Section " + section.getName() + " follows the resources in " + file);
+                }
+                following.add(section);
+            } else if (section.getSizeOfRawData() != 0 && section.getPointerToRawData() + section.getSizeOfRawData() > rawStart) {
+                throw new PeFormatException("Section " + section.getName() + " is stored after the resources in " + file);
+            }
+        }
+        for (int index = 0; index < numberOfDataDirectories; index++) {
+            if (index == DIRECTORY_BASERELOC || index == DIRECTORY_RESOURCE || getDataDirectoryRva(index) == 0) {
+                continue;
+            }
+            if (Integer.compareUnsigned(getDataDirectoryRva(index), virtualEnd) >= 0 || index == DIRECTORY_SECURITY) {
+                throw new PeFormatException("Data directory " + index + " would be moved in " + file);
+            }
+        }
+
+        byte[] data = resources.toBytes(rsrc.getVirtualAddress());
+        int rawSize = align(data.length, fileAlignment);
+        int rawDelta = rawSize - rsrc.getSizeOfRawData();
+        int virtualDelta = rsrc.getVirtualAddress() + align(data.length, sectionAlignment) - virtualEnd;
+
+        ByteBuffer headers = ByteBuffer.allocate(rawStart).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer src = image.duplicate();
+        src.position(0).limit(rawStart);
+        headers.put(src);
+        headers.putInt(rsrc.header + 8, data.length);
+        headers.putInt(rsrc.header + 16, rawSize);
+        for (Section section : following) {
+            headers.putInt(section.header + 12, section.getVirtualAddress() + virtualDelta);
+            if (section.getSizeOfRawData() != 0) {
+                headers.putInt(section.header + 20, section.getPointerToRawData() + rawDelta);
+            }
+        }
+        int relocs = getDataDirectoryRva(DIRECTORY_BASERELOC);
+        if (relocs != 0 && Integer.compareUnsigned(relocs, virtualEnd) >= 0) {
+            headers.putInt(dataDirectoriesOffset + DIRECTORY_BASERELOC * 8, relocs + virtualDelta);
+        }
+        headers.putInt(dataDirectoriesOffset + DIRECTORY_RESOURCE * 8 + 4, data.length);
+        headers.putInt(optionalHeaderOffset + 8, image.getInt(optionalHeaderOffset + 8) + rawDelta);
+        headers.putInt(optionalHeaderOffset + 56, image.getInt(optionalHeaderOffset + 56) + virtualDelta);
+        headers.position(0);
+
+        ByteBuffer section = ByteBuffer.allocate(rawSize);
+        section.put(data).position(0);
+        ByteBuffer tail = image.duplicate();
+        tail.position(Math.min(rawEnd, image.limit()));
+
+        try (FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (headers.hasRemaining() || section.hasRemaining() || tail.hasRemaining()) {
+                out.write(new ByteBuffer[]{headers, section, tail});
+            }
+            long position = image.limit();
+            while (position < fileLength) {
+                long transferred = in.transferTo(position, fileLength - position, out);
+                if (transferred <= 0) {
+                    throw new IOException("Unexpected end of file " + file);
+                }
+                position += transferred;
+            }
+        }
+        if (getCheckSum() != 0) {
+            read(target).save();
+        }
+    }
+
+    private static int align(int value, int alignment) {
+        return alignment <= 0 ? value : (value + alignment - 1) / alignment * alignment;
+    }
+
+    /**
+     * Standard PE checksum of the whole file, expects the checksum field to be zero.
+     */
+    static int computeCheckSum(FileChannel channel) throws IOException {
+        long length = channel.size();
+        long sum = 0;
+        ByteBuffer buf = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+        while (position < length) {
+            buf.clear();
+            int read = channel.read(buf, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+            if (read % 2 != 0 && position < length) {
+                // keep words aligned, the last byte is read again with the next chunk
+                position--;
+                buf.position(buf.position() - 1);
+            }
+            buf.flip();
+            sum = addWords(sum, buf);
+        }
+        return (int) (sum + length);
+    }
+
+    private static long addWords(long sum, ByteBuffer buf) {
+        while (buf.remaining() >= 2) {
+            sum += buf.getShort() & 0xffff;
+            sum = (sum & 0xffff) + (sum >>> 16);
+        }
+        if (buf.hasRemaining()) {
+            sum += buf.get() & 0xff;
+            sum = (sum & 0xffff) + (sum >>> 16);
+        }
+        return sum & 0xffff;
+    }
+
+    /**
+     * Translates a relative virtual address into an offset in the file.
+     *
+     * @return the offset or -1 if the address doesn't belong to any section
+     */
+    public int rvaToOffset(int rva) {
+        if (rva == 0) {
+            return -1;
+        }
+        for (Section section : sections) {
+            long start = section.getVirtualAddress() & 0xffffffffL;
+            long size = Math.max(section.getVirtualSize(), section.getSizeOfRawData()) & 0xffffffffL;
+            if (rva >= start && rva < start + size) {
+                long offset = section.getPointerToRawData() + (rva - start);
+                return offset < image.limit() ? (int) offset : -1;
+            }
+        }
+        return -1;
+    }
+
+    ByteBuffer image() {
+        return image.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int u16(int offset) {
+        return image.getShort(offset) & 0xffff;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new PeFormatException("Unexpected end of file");
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Normalizes all the timestamps of the given executable, see {@link #normalizeTimestamps(int)}.
+     */
+    public static void normalizeTimestamps(File file, int timestamp) throws IOException {
+        PeFile pe = read(file);
+        pe.normalizeTimestamps(timestamp);
+        pe.save();
+    }
+
+    /**
+     * A section header.
+     */
+    public class Section {
+        private final int header;
+
+        Section(int header) {
+            this.header = header;
+        }
+
+        public String getName() {
+            byte[] name = new byte[8];
+            for (int i = 0; i < 8; i++) {
+                name[i] = image.get(header + i);
+            }
+            int len = 0;
+            while (len < 8 && name[len] != 0) {
+                len++;
+            }
+            return new String(name, 0, len, StandardCharsets.US_ASCII);
+        }
+
+        public int getVirtualSize() {
+            return image.getInt(header + 8);
+        }
+
+        public int getVirtualAddress() {
+            return image.getInt(header + 12);
+        }
+
+        public int getSizeOfRawData() {
+            return image.getInt(header + 16);
+        }
+
+        public int getPointerToRawData() {
+            return image.getInt(header + 20);
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+}
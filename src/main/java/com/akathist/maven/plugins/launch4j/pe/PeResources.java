@@ -0,0 +1,392 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.pe;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Resources of a PE executable, i.e. the three level tree of types, names and languages
+ * stored in the resource section, flattened into a list of leaves.
+ * <p/>
+ * Types and names are either numeric ids ({@link Integer}) or strings ({@link String}).
+ */
+public class PeResources {
+
+    public static final int RT_ICON = 3;
+    public static final int RT_GROUP_ICON = 14;
+    public static final int RT_VERSION = 16;
+    public static final int RT_MANIFEST = 24;
+
+    /**
+     * Language of the resources compiled by Launch4j, <code>LANGUAGE LANG_NEUTRAL, SUBLANG_DEFAULT</code>.
+     */
+    public static final int LANGUAGE_DEFAULT = 0x400;
+
+    private static final int DIRECTORY_SIZE = 16;
+    private static final int ENTRY_SIZE = 8;
+    private static final int DATA_ENTRY_SIZE = 16;
+
+    private static final Comparator<Object> ID_ORDER = (a, b) -> {
+        // named entries come first, sorted by name, followed by the numeric ones
+        if (a instanceof String) {
+            return b instanceof String ? ((String) a).compareTo((String) b) : -1;
+        }
+        return b instanceof String ? 1 : Integer.compare((Integer) a, (Integer) b);
+    };
+
+    private final List<Resource> resources = new ArrayList<>();
+
+    private int timeDateStamp;
+
+    /**
+     * Reads the resources of the given executable.
+     *
+     * @return the resources, empty if the executable has no resource directory
+     * @throws PeFormatException if the resource directory is malformed
+     */
+    public static PeResources read(PeFile pe) throws PeFormatException {
+        int root = pe.rvaToOffset(pe.getDataDirectoryRva(PeFile.DIRECTORY_RESOURCE));
+        if (root < 0) {
+            return new PeResources();
+        }
+        return read(pe.image(), root, pe::rvaToOffset, pe.getFile().toString());
+    }
+
+    /**
+     * Reads the resource tree starting at the given offset of the buffer.
+     *
+     * @param rvaToOffset translates the addresses of the data entries into offsets in the buffer, -1 if outside of it
+     */
+    static PeResources read(ByteBuffer image, int root, IntUnaryOperator rvaToOffset, String source) throws PeFormatException {
+        PeResources result = new PeResources();
+        checkDirectory(image, root);
+        result.timeDateStamp = image.getInt(root + 4);
+        for (Map.Entry<Object, Integer> type : entries(image, root, root).entrySet()) {
+            int typeDir = subdirectory(image, root, type.getValue());
+            for (Map.Entry<Object, Integer> name : entries(image, root, typeDir).entrySet()) {
+                int nameDir = subdirectory(image, root, name.getValue());
+                for (Map.Entry<Object, Integer> language : entries(image, root, nameDir).entrySet()) {
+                    if (!(language.getKey() instanceof Integer) || language.getValue() < 0) {
+                        throw new PeFormatException("Unexpected resource directory at the language level in " + source);
+                    }
+                    int dataEntry = root + language.getValue();
+                    if (dataEntry + DATA_ENTRY_SIZE > image.limit()) {
+                        throw new PeFormatException("Resource data entry outside of the image in " + source);
+                    }
+                    int data = rvaToOffset.applyAsInt(image.getInt(dataEntry));
+                    int size = image.getInt(dataEntry + 4);
+                    if (data < 0 || size < 0 || data + (long) size > image.limit()) {
+                        throw new PeFormatException("Resource data outside of the image in " + source);
+                    }
+                    byte[] bytes = new byte[size];
+                    ByteBuffer src = image.duplicate();
+                    src.position(data);
+                    src.get(bytes);
+                    result.resources.add(new Resource(type.getKey(), name.getKey(), (Integer) language.getKey(),
+                            image.getInt(dataEntry + 8), bytes));
+                }
+            }
+        }
+        return result;
+    }
+
+    public List<Resource> getResources() {
+        return resources;
+    }
+
+    /**
+     * @return the resource of the given type and name in any language, or null if there is none
+     */
+    public Resource find(Object type, Object name) {
+        for (Resource resource : resources) {
+            if (resource.type.equals(type) && resource.name.equals(name)) {
+                return resource;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the content of the resource of the given type and name in all its languages,
+     * or adds it in the language of the other resources if there is no such resource yet.
+     */
+    public void put(Object type, Object name, byte[] data) {
+        boolean replaced = false;
+        for (Resource resource : resources) {
+            if (resource.type.equals(type) && resource.name.equals(name)) {
+                resource.data = data;
+                replaced = true;
+            }
+        }
+        if (!replaced) {
+            int language = resources.isEmpty() ? LANGUAGE_DEFAULT : resources.get(0).language;
+            resources.add(new Resource(type, name, language, 0, data));
+        }
+    }
+
+    /**
+     * Adds a resource in the given language, replacing the one with the same type, name and language if there is any.
+     */
+    public void add(Object type, Object name, int language, byte[] data) {
+        resources.removeIf(r -> r.type.equals(type) && r.name.equals(name) && r.language == language);
+        resources.add(new Resource(type, name, language, 0, data));
+    }
+
+    /**
+     * Removes all the resources of the given type, or only the one with the given name if it isn't null.
+     */
+    public void remove(Object type, Object name) {
+        resources.removeIf(r -> r.type.equals(type) && (name == null || r.name.equals(name)));
+    }
+
+    /**
+     * Lays out the resources as a resource section starting at the given relative virtual address,
+     * in the same order as windres does: the directory tables, the names, the data entries and the data,
+     * each aligned to 8 bytes.
+     */
+    byte[] toBytes(int sectionRva) {
+        return toBytes(sectionRva, new ArrayList<>());
+    }
+
+    /**
+     * @param dataEntries receives the offsets of the data entries, i.e. of the addresses to relocate
+     */
+    byte[] toBytes(int sectionRva, List<Integer> dataEntries) {
+        Map<Object, Map<Object, List<Resource>>> tree = tree();
+
+        int directories = DIRECTORY_SIZE + tree.size() * ENTRY_SIZE;
+        for (Map<Object, List<Resource>> names : tree.values()) {
+            directories += DIRECTORY_SIZE + names.size() * ENTRY_SIZE;
+            for (List<Resource> languages : names.values()) {
+                directories += DIRECTORY_SIZE + languages.size() * ENTRY_SIZE;
+            }
+        }
+
+        ByteArrayOutputStream nameTable = new ByteArrayOutputStream();
+        Map<String, Integer> nameOffsets = new LinkedHashMap<>();
+        for (Object type : tree.keySet()) {
+            addName(type, directories, nameTable, nameOffsets);
+        }
+        for (Map<Object, List<Resource>> names : tree.values()) {
+            for (Object name : names.keySet()) {
+                addName(name, directories, nameTable, nameOffsets);
+            }
+        }
+        int firstDataEntry = align(directories + nameTable.size(), 8);
+        int data = firstDataEntry + resources.size() * DATA_ENTRY_SIZE;
+        int size = data;
+        for (Resource resource : resources) {
+            size = align(size + resource.data.length, 8);
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buf.position(directories);
+        buf.put(nameTable.toByteArray());
+
+        int nextDirectory = directory(buf, 0, tree.keySet(), nameOffsets);
+        int nextDataEntry = firstDataEntry;
+        int nextData = data;
+        int typeIndex = 0;
+        for (Map<Object, List<Resource>> names : tree.values()) {
+            int typeDir = nextDirectory;
+            link(buf, 0, typeIndex++, typeDir, true);
+            nextDirectory = directory(buf, typeDir, names.keySet(), nameOffsets);
+            int nameIndex = 0;
+            for (List<Resource> languages : names.values()) {
+                int nameDir = nextDirectory;
+                link(buf, typeDir, nameIndex++, nameDir, true);
+                List<Object> ids = new ArrayList<>();
+                for (Resource resource : languages) {
+                    ids.add(resource.language);
+                }
+                nextDirectory = directory(buf, nameDir, ids, nameOffsets);
+                int languageIndex = 0;
+                for (Resource resource : languages) {
+                    link(buf, nameDir, languageIndex++, nextDataEntry, false);
+                    dataEntries.add(nextDataEntry);
+                    buf.putInt(nextDataEntry, sectionRva + nextData);
+                    buf.putInt(nextDataEntry + 4, resource.data.length);
+                    buf.putInt(nextDataEntry + 8, resource.codePage);
+                    nextDataEntry += DATA_ENTRY_SIZE;
+
+                    buf.position(nextData);
+                    buf.put(resource.data);
+                    nextData = align(nextData + resource.data.length, 8);
+                }
+            }
+        }
+        return buf.array();
+    }
+
+    private Map<Object, Map<Object, List<Resource>>> tree() {
+        List<Resource> sorted = new ArrayList<>(resources);
+        sorted.sort(Comparator.comparing((Resource r) -> r.type, ID_ORDER)
+                .thenComparing(r -> r.name, ID_ORDER)
+                .thenComparingInt(r -> r.language));
+        resources.clear();
+        resources.addAll(sorted);
+
+        Map<Object, Map<Object, List<Resource>>> tree = new LinkedHashMap<>();
+        for (Resource resource : sorted) {
+            tree.computeIfAbsent(resource.type, t -> new LinkedHashMap<>())
+                    .computeIfAbsent(resource.name, n -> new ArrayList<>())
+                    .add(resource);
+        }
+        return tree;
+    }
+
+    private int directory(ByteBuffer buf, int offset, Iterable<Object> ids, Map<String, Integer> nameOffsets) {
+        buf.putInt(offset + 4, timeDateStamp);
+        int named = 0;
+        int numbered = 0;
+        int entry = offset + DIRECTORY_SIZE;
+        for (Object id : ids) {
+            if (id instanceof String) {
+                buf.putInt(entry, 0x80000000 | nameOffsets.get(id));
+                named++;
+            } else {
+                buf.putInt(entry, (Integer) id);
+                numbered++;
+            }
+            entry += ENTRY_SIZE;
+        }
+        buf.putShort(offset + 12, (short) named);
+        buf.putShort(offset + 14, (short) numbered);
+        return entry;
+    }
+
+    private static void link(ByteBuffer buf, int directory, int index, int target, boolean subdirectory) {
+        buf.putInt(directory + DIRECTORY_SIZE + index * ENTRY_SIZE + 4, subdirectory ? 0x80000000 | target : target);
+    }
+
+    private static void addName(Object id, int base, ByteArrayOutputStream table, Map<String, Integer> offsets) {
+        if (id instanceof String && !offsets.containsKey(id)) {
+            String name = (String) id;
+            offsets.put(name, base + table.size());
+            table.write(name.length() & 0xff);
+            table.write(name.length() >>> 8);
+            byte[] chars = name.getBytes(StandardCharsets.UTF_16LE);
+            table.write(chars, 0, chars.length);
+        }
+    }
+
+    private static Map<Object, Integer> entries(ByteBuffer image, int root, int directory) throws PeFormatException {
+        Map<Object, Integer> entries = new LinkedHashMap<>();
+        int count = (image.getShort(directory + 12) & 0xffff) + (image.getShort(directory + 14) & 0xffff);
+        if (directory + DIRECTORY_SIZE + (long) count * ENTRY_SIZE > image.limit()) {
+            throw new PeFormatException("Resource directory outside of the image");
+        }
+        for (int i = 0; i < count; i++) {
+            int entry = directory + DIRECTORY_SIZE + i * ENTRY_SIZE;
+            int id = image.getInt(entry);
+            Object key = id < 0 ? readName(image, root + (id & 0x7fffffff)) : Integer.valueOf(id);
+            entries.put(key, image.getInt(entry + 4));
+        }
+        return entries;
+    }
+
+    private static int subdirectory(ByteBuffer image, int root, int target) throws PeFormatException {
+        if (target >= 0) {
+            throw new PeFormatException("Resource data entry found where a directory was expected");
+        }
+        int directory = root + (target & 0x7fffffff);
+        checkDirectory(image, directory);
+        return directory;
+    }
+
+    private static void checkDirectory(ByteBuffer image, int directory) throws PeFormatException {
+        if (directory + DIRECTORY_SIZE > image.limit()) {
+            throw new PeFormatException("Resource directory outside of the image");
+        }
+    }
+
+    private static String readName(ByteBuffer image, int offset) throws PeFormatException {
+        if (offset + 2 > image.limit()) {
+            throw new PeFormatException("Resource name outside of the image");
+        }
+        int length = image.getShort(offset) & 0xffff;
+        if (offset + 2 + length * 2 > image.limit()) {
+            throw new PeFormatException("Resource name outside of the image");
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = image.getChar(offset + 2 + i * 2);
+        }
+        return new String(chars);
+    }
+
+    private static int align(int value, int alignment) {
+        return (value + alignment - 1) & -alignment;
+    }
+
+    /**
+     * A single resource in a single language.
+     */
+    public static class Resource {
+        private final Object type;
+        private final Object name;
+        private final int language;
+        private final int codePage;
+        private byte[] data;
+
+        Resource(Object type, Object name, int language, int codePage, byte[] data) {
+            this.type = Objects.requireNonNull(type);
+            this.name = Objects.requireNonNull(name);
+            this.language = language;
+            this.codePage = codePage;
+            this.data = data;
+        }
+
+        public Object getType() {
+            return type;
+        }
+
+        public Object getName() {
+            return name;
+        }
+
+        public int getLanguage() {
+            return language;
+        }
+
+        public int getCodePage() {
+            return codePage;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        @Override
+        public String toString() {
+            return type + "/" + name + "/" + language + " (" + data.length + " bytes)";
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.pe;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The <code>VS_VERSIONINFO</code> resource, laid out the same way as windres compiles
+ * the <code>VERSIONINFO</code> statement generated by Launch4j: fixed file and product versions,
+ * a single string table and a single translation.
+ */
+public class VersionResource {
+
+    private static final int FIXED_FILE_INFO_SIGNATURE = 0xfeef04bd;
+    private static final int FIXED_FILE_INFO_SIZE = 52;
+    private static final int VOS_NT_WINDOWS32 = 0x40000;
+    private static final int VFT_APP = 1;
+
+    private final long fileVersion;
+    private final long productVersion;
+    private final int language;
+    private final int codePage;
+    private final Map<String, String> strings;
+
+    /**
+     * @param fileVersion    file version in the <code>x.x.x.x</code> format
+     * @param productVersion product version in the <code>x.x.x.x</code> format
+     * @param language       language id of the string table and translation
+     * @param codePage       code page of the string table and translation
+     * @param strings        values of the string table in their order, null values are stored as empty strings
+     */
+    public VersionResource(String fileVersion, String productVersion, int language, int codePage, Map<String, String> strings) {
+        this(parseVersion(fileVersion), parseVersion(productVersion), language, codePage, strings);
+    }
+
+    private VersionResource(long fileVersion, long productVersion, int language, int codePage, Map<String, String> strings) {
+        this.fileVersion = fileVersion;
+        this.productVersion = productVersion;
+        this.language = language;
+        this.codePage = codePage;
+        this.strings = Collections.unmodifiableMap(new LinkedHashMap<>(strings));
+    }
+
+    /**
+     * Reads a compiled version resource.
+     *
+     * @throws PeFormatException if the resource doesn't have the expected structure
+     */
+    public static VersionResource read(byte[] data) throws PeFormatException {
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            int end = buf.getShort(0) & 0xffff;
+            int value = align(6 + keyLength("VS_VERSION_INFO"));
+            if (!"VS_VERSION_INFO".equals(readKey(buf, 0)) || buf.getInt(value) != FIXED_FILE_INFO_SIGNATURE) {
+                throw new PeFormatException("Not a version resource");
+            }
+            long fileVersion = (buf.getInt(value + 8) & 0xffffffffL) << 32 | buf.getInt(value + 12) & 0xffffffffL;
+            long productVersion = (buf.getInt(value + 16) & 0xffffffffL) << 32 | buf.getInt(value + 20) & 0xffffffffL;
+
+            int language = 0;
+            int codePage = 0;
+            Map<String, String> strings = new LinkedHashMap<>();
+            for (int child = align(value + FIXED_FILE_INFO_SIZE); child < end; child = align(child + (buf.getShort(child) & 0xffff))) {
+                String key = readKey(buf, child);
+                int childEnd = child + (buf.getShort(child) & 0xffff);
+                int first = align(child + 6 + keyLength(key));
+                if ("StringFileInfo".equals(key)) {
+                    String table = readKey(buf, first);
+                    int tableEnd = first + (buf.getShort(first) & 0xffff);
+                    language = Integer.parseInt(table.substring(0, 4), 16);
+                    codePage = Integer.parseInt(table.substring(4), 16);
+                    for (int s = align(first + 6 + keyLength(table)); s < tableEnd; s = align(s + (buf.getShort(s) & 0xffff))) {
+                        String name = readKey(buf, s);
+                        int valueLength = buf.getShort(s + 2) & 0xffff;
+                        String text = readString(buf, align(s + 6 + keyLength(name)), valueLength);
+                        strings.put(name, text);
+                    }
+                } else if ("VarFileInfo".equals(key) && first < childEnd) {
+                    int translation = align(first + 6 + keyLength(readKey(buf, first)));
+                    language = buf.getShort(translation) & 0xffff;
+                    codePage = buf.getShort(translation + 2) & 0xffff;
+                }
+            }
+            return new VersionResource(fileVersion, productVersion, language, codePage, strings);
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new PeFormatException("Malformed version resource: " + e);
+        }
+    }
+
+    public String getFileVersion() {
+        return formatVersion(fileVersion);
+    }
+
+    public String getProductVersion() {
+        return formatVersion(productVersion);
+    }
+
+    public int getLanguage() {
+        return language;
+    }
+
+    public int getCodePage() {
+        return codePage;
+    }
+
+    public Map<String, String> getStrings() {
+        return strings;
+    }
+
+    /**
+     * Compiles the resource.
+     */
+    public byte[] toBytes() {
+        ByteBuffer fixed = ByteBuffer.allocate(FIXED_FILE_INFO_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        fixed.putInt(FIXED_FILE_INFO_SIGNATURE);
+        fixed.putInt(0x10000);
+        fixed.putInt((int) (fileVersion >>> 32)).putInt((int) fileVersion);
+        fixed.putInt((int) (productVersion >>> 32)).putInt((int) productVersion);
+        fixed.putInt(0); // flags mask
+        fixed.putInt(0); // flags
+        fixed.putInt(VOS_NT_WINDOWS32);
+        fixed.putInt(VFT_APP);
+
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        for (Map.Entry<String, String> entry : strings.entrySet()) {
+            String text = entry.getValue() == null ? "" : entry.getValue();
+            byte[] value = (text + '\0').getBytes(StandardCharsets.UTF_16LE);
+            pad(table);
+            writeBytes(table, block(entry.getKey(), value.length / 2, true, value, new byte[0]));
+        }
+        byte[] stringTable = block(String.format("%04X%04X", language, codePage), 0, true, new byte[0], table.toByteArray());
+        byte[] stringFileInfo = block("StringFileInfo", 0, true, new byte[0], stringTable);
+
+        byte[] translation = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) language).putShort((short) codePage).array();
+        byte[] varFileInfo = block("VarFileInfo", 0, true, new byte[0], block("Translation", 4, false, translation, new byte[0]));
+
+        ByteArrayOutputStream children = new ByteArrayOutputStream();
+        writeBytes(children, stringFileInfo);
+        pad(children);
+        writeBytes(children, varFileInfo);
+
+        return block("VS_VERSION_INFO", FIXED_FILE_INFO_SIZE, false, fixed.array(), children.toByteArray());
+    }
+
+    /**
+     * A version block: its length, the length of its value, its type, the key, the value and the children,
+     * the value and the children are aligned to 4 bytes.
+     */
+    private static byte[] block(String key, int valueLength, boolean text, byte[] value, byte[] children) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBytes(out, new byte[6]);
+        writeBytes(out, (key + '\0').getBytes(StandardCharsets.UTF_16LE));
+        pad(out);
+        writeBytes(out, value);
+        if (children.length > 0) {
+            pad(out);
+            writeBytes(out, children);
+        }
+        byte[] bytes = out.toByteArray();
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) bytes.length)
+                .putShort((short) valueLength)
+                .putShort((short) (text ? 1 : 0));
+        return bytes;
+    }
+
+    private static void pad(ByteArrayOutputStream out) {
+        while (out.size() % 4 != 0) {
+            out.write(0);
+        }
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readKey(ByteBuffer buf, int block) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = block + 6; buf.getChar(i) != 0; i += 2) {
+            sb.append(buf.getChar(i));
+        }
+        return sb.toString();
+    }
+
+    private static String readString(ByteBuffer buf, int offset, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            char c = buf.getChar(offset + i * 2);
+            if (c == 0) {
+                break;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static int keyLength(String key) {
+        return (key.length() + 1) * 2;
+    }
+
+    private static int align(int offset) {
+        return (offset + 3) & ~3;
+    }
+
+    static long parseVersion(String version) {
+        String[] parts = version == null ? new String[0] : version.trim().split("\\.");
+        long result = 0;
+        for (int i = 0; i < 4; i++) {
+            int part = i < parts.length && !parts[i].isEmpty() ? Integer.parseInt(parts[i]) : 0;
+            if (part < 0 || part > 0xffff) {
+                throw new IllegalArgumentException("Invalid version " + version);
+            }
+            result = result << 16 | part;
+        }
+        return result;
+    }
+
+    private static String formatVersion(long version) {
+        return (version >>> 48) + "." + (version >>> 32 & 0xffff) + "." + (version >>> 16 & 0xffff) + "." + (version & 0xffff);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.report;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of the plugin, so a recording of a build shows where the time of each module went.
+ * Every phase of a {@link BuildReport} is recorded as an event, a {@link Phase} unless a more specific event
+ * with additional attributes is given when the phase is started.
+ */
+public final class BuildEvents {
+
+    private static final String CATEGORY = "Launch4j";
+
+    private BuildEvents() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Attributes shared by all the events, filled in by the {@link BuildReport}.
+     */
+    @Category(CATEGORY)
+    public abstract static class Launch4jEvent extends Event {
+
+        @Label("Module")
+        @Description("Maven project built by the execution")
+        String module;
+
+        @Label("Execution")
+        String execution;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Target")
+        @Description("Executable the event belongs to, empty if it belongs to the whole execution")
+        String target;
+
+        @Label("Depth")
+        @Description("Number of enclosing phases on the same thread")
+        int depth;
+    }
+
+    @Name("launch4j.Phase")
+    @Label("Launch4j Phase")
+    public static final class Phase extends Launch4jEvent {
+    }
+
+    @Name("launch4j.Toolchain")
+    @Label("Launch4j Toolchain Resolution")
+    public static final class Toolchain extends Launch4jEvent {
+
+        @Label("Platform")
+        public String platform;
+
+        @Label("Cache Result")
+        @Description("hit if the work directory was already prepared by this Maven session, miss otherwise")
+        public String cacheResult;
+    }
+
+    @Name("launch4j.Extraction")
+    @Label("Launch4j Work Directory Extraction")
+    public static final class Extraction extends Launch4jEvent {
+
+        @Label("Artifact")
+        public String artifact;
+
+        @Label("Artifact Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Extracted Files")
+        @Description("0 if the work directory was already complete")
+        public int files;
+    }
+
+    @Name("launch4j.FileCopy")
+    @Label("Launch4j File Copy")
+    public static final class FileCopy extends Launch4jEvent {
+
+        @Label("Files")
+        public int files;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("launch4j.ConfigAssembly")
+    @Label("Launch4j Config Assembly")
+    public static final class ConfigAssembly extends Launch4jEvent {
+
+        @Label("Source")
+        @Description("infile if the configuration was loaded from a Launch4j XML file, pom otherwise")
+        public String source;
+    }
+
+    @Name("launch4j.Process")
+    @Label("Launch4j Process")
+    public static final class Process extends Launch4jEvent {
+
+        @Label("Tool")
+        public String tool;
+
+        @Label("Command Line")
+        public String commandLine;
+
+        @Label("Exit Code")
+        @Description("-1 if the process failed with an unknown exit code")
+        public int exitCode;
+    }
+
+    @Name("launch4j.JarWrap")
+    @Label("Launch4j Jar Wrap")
+    public static final class JarWrap extends Launch4jEvent {
+
+        @Label("Jar")
+        public String jar;
+
+        @Label("Jar Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Rewrap")
+        @Description("true if the jar replaced the one wrapped in the previous executable")
+        public boolean rewrap;
+    }
+
+    @Name("launch4j.ConfigSave")
+    @Label("Launch4j Config Save")
+    public static final class ConfigSave extends Launch4jEvent {
+
+        @Label("File")
+        public String file;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("launch4j.LockWait")
+    @Label("Launch4j Lock Wait")
+    public static final class LockWait extends Launch4jEvent {
+
+        @Label("Lock")
+        public String lock;
+    }
+
+    @Name("launch4j.Executable")
+    @Label("Launch4j Executable")
+    public static final class Executable extends Launch4jEvent {
+
+        @Label("Outcome")
+        @Description("up-to-date, local-cache, remote-cache, patched or built")
+        public String outcome;
+
+        @Label("Local Cache")
+        public String localCache;
+
+        @Label("Remote Cache")
+        public String remoteCache;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.report;
+
+import com.akathist.maven.plugins.launch4j.tools.ResourceIO;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of the phases of a single execution of the plugin, measured with the monotonic {@link System#nanoTime()}
+ * clock, together with counters, e.g. of started processes and bytes read and written, and the results
+ * of each built executable, e.g. whether it was restored from a cache.
+ * <p/>
+ * Phases are measured on any thread and may be nested, a phase started while another one is running
+ * on the same thread is a part of it.
+ * <p/>
+ * Each phase is also recorded as a Java Flight Recorder event, see {@link BuildEvents}, so the phases show up
+ * in a recording of the whole Maven build.
+ */
+public class BuildReport {
+
+    public static final String PROCESSES = "processes";
+    public static final String BYTES_READ = "bytesRead";
+    public static final String BYTES_WRITTEN = "bytesWritten";
+
+    private final String module;
+
+    private final String execution;
+
+    private final String thread = Thread.currentThread().getName();
+
+    private final Instant startedAt = Instant.now();
+
+    private final long origin = System.nanoTime();
+
+    private final List<Phase> phases = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, String>> executables = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+    private volatile long finished = -1;
+
+    /**
+     * @param execution id of the execution of the plugin
+     */
+    public BuildReport(String execution) {
+        this(null, execution);
+    }
+
+    /**
+     * @param module    artifact id of the project built by the execution
+     * @param execution id of the execution of the plugin
+     */
+    public BuildReport(String module, String execution) {
+        this.module = module;
+        this.execution = execution;
+    }
+
+    /**
+     * Starts measuring a phase of the whole execution, it ends when closed.
+     */
+    public Phase start(String name) {
+        return start(name, null);
+    }
+
+    /**
+     * Starts measuring a phase, it ends when closed.
+     *
+     * @param target the executable the phase belongs to, or null if it belongs to the whole execution
+     */
+    public Phase start(String name, String target) {
+        return start(name, target, new BuildEvents.Phase());
+    }
+
+    /**
+     * Starts measuring a phase, it ends when closed.
+     *
+     * @param target the executable the phase belongs to, or null if it belongs to the whole execution
+     * @param event  the event recording the phase, its specific attributes can be set until the phase is closed
+     */
+    public Phase start(String name, String target, BuildEvents.Launch4jEvent event) {
+        return start(name, target, event, false);
+    }
+
+    /**
+     * Starts measuring the time spent blocked on a lock shared with other executions, it ends when closed.
+     *
+     * @param lock   name of the lock, used as the name of the phase
+     * @param target the executable the phase belongs to, or null if it belongs to the whole execution
+     */
+    public Phase waitFor(String lock, String target) {
+        BuildEvents.LockWait event = new BuildEvents.LockWait();
+        event.lock = lock;
+        return start(lock, target, event, true);
+    }
+
+    private Phase start(String name, String target, BuildEvents.Launch4jEvent event, boolean waiting) {
+        int level = depth.get();
+        depth.set(level + 1);
+        event.begin();
+        return new Phase(name, target, Thread.currentThread().getName(), level, System.nanoTime() - origin, event, waiting);
+    }
+
+    /**
+     * Ends and commits an event which doesn't have a phase of its own, e.g. a started process,
+     * as a part of the currently running phase.
+     *
+     * @param target the executable the event belongs to, or null if it belongs to the whole execution
+     */
+    public void record(BuildEvents.Launch4jEvent event, String name, String target) {
+        event.end();
+        commit(event, name, target, depth.get());
+    }
+
+    private void commit(BuildEvents.Launch4jEvent event, String name, String target, int level) {
+        if (event.shouldCommit()) {
+            event.module = module;
+            event.execution = execution;
+            event.phase = name;
+            event.target = target;
+            event.depth = level;
+            event.commit();
+        }
+    }
+
+    public void count(String counter, long delta) {
+        counters.computeIfAbsent(counter, key -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Records a result of building the executable, e.g. whether the local cache had it.
+     */
+    public void result(String target, String key, String value) {
+        executables.computeIfAbsent(target, name -> Collections.synchronizedMap(new LinkedHashMap<>())).put(key, value);
+    }
+
+    /**
+     * Ends the execution, the report covers the time until then.
+     */
+    public void finish() {
+        if (finished < 0) {
+            finished = System.nanoTime() - origin;
+        }
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public String getExecution() {
+        return execution;
+    }
+
+    /**
+     * The thread which started the execution.
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * The {@link System#nanoTime()} of the start of the execution, phases are measured relative to it.
+     */
+    long getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Time since the start of the execution, in nanoseconds.
+     */
+    public long getDuration() {
+        return finished >= 0 ? finished : System.nanoTime() - origin;
+    }
+
+    /**
+     * Finished phases ordered by their start.
+     */
+    public List<Phase> getPhases() {
+        List<Phase> copy;
+        synchronized (phases) {
+            copy = new ArrayList<>(phases);
+        }
+        copy.sort((a, b) -> Long.compare(a.start, b.start));
+        return copy;
+    }
+
+    public Map<String, Long> getCounters() {
+        Map<String, Long> copy = new TreeMap<>();
+        counters.forEach((name, value) -> copy.put(name, value.sum()));
+        return copy;
+    }
+
+    public Map<String, Map<String, String>> getExecutables() {
+        Map<String, Map<String, String>> copy = new TreeMap<>();
+        executables.forEach((target, results) -> {
+            synchronized (results) {
+                copy.put(target, new LinkedHashMap<>(results));
+            }
+        });
+        return copy;
+    }
+
+    /**
+     * One line with the total time, the time of each top-level phase and the counters.
+     */
+    public String summary() {
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (Phase phase : getPhases()) {
+            if (phase.depth == 0) {
+                long[] total = totals.computeIfAbsent(phase.name, name -> new long[2]);
+                total[0] += phase.duration;
+                total[1]++;
+            }
+        }
+        StringBuilder sb = new StringBuilder("Launch4j took ").append(millis(getDuration())).append(" ms");
+        String separator = ": ";
+        for (Map.Entry<String, long[]> total : totals.entrySet()) {
+            sb.append(separator).append(total.getKey()).append(' ').append(millis(total.getValue()[0])).append(" ms");
+            if (total.getValue()[1] > 1) {
+                sb.append(" (").append(total.getValue()[1]).append("x)");
+            }
+            separator = ", ";
+        }
+        Map<String, Long> values = getCounters();
+        sb.append("; ").append(values.getOrDefault(PROCESSES, 0L)).append(" processes, ")
+                .append(values.getOrDefault(BYTES_READ, 0L)).append(" bytes read, ")
+                .append(values.getOrDefault(BYTES_WRITTEN, 0L)).append(" bytes written");
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"module\": ").append(module == null ? "null" : quote(module)).append(",\n");
+        sb.append("  \"execution\": ").append(quote(execution)).append(",\n");
+        sb.append("  \"startedAt\": ").append(quote(startedAt.toString())).append(",\n");
+        sb.append("  \"durationMicros\": ").append(micros(getDuration())).append(",\n");
+        sb.append("  \"counters\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            sb.append(separator).append("    ").append(quote(counter.getKey())).append(": ").append(counter.getValue());
+            separator = ",\n";
+        }
+        sb.append(separator.equals("\n") ? "},\n" : "\n  },\n");
+        sb.append("  \"phases\": [");
+        separator = "\n";
+        for (Phase phase : getPhases()) {
+            sb.append(separator).append("    {\"name\": ").append(quote(phase.name))
+                    .append(", \"target\": ").append(phase.target == null ? "null" : quote(phase.target))
+                    .append(", \"thread\": ").append(quote(phase.thread))
+                    .append(", \"depth\": ").append(phase.depth)
+                    .append(", \"startMicros\": ").append(micros(phase.start))
+                    .append(", \"durationMicros\": ").append(micros(phase.duration))
+                    .append(", \"waiting\": ").append(phase.waiting)
+                    .append('}');
+            separator = ",\n";
+        }
+        sb.append(separator.equals("\n") ? "],\n" : "\n  ],\n");
+        sb.append("  \"executables\": {");
+        separator = "\n";
+        for (Map.Entry<String, Map<String, String>> executable : getExecutables().entrySet()) {
+            sb.append(separator).append("    ").append(quote(executable.getKey())).append(": {");
+            String inner = "";
+            for (Map.Entry<String, String> result : executable.getValue().entrySet()) {
+                sb.append(inner).append(quote(result.getKey())).append(": ").append(quote(result.getValue()));
+                inner = ", ";
+            }
+            sb.append('}');
+            separator = ",\n";
+        }
+        sb.append(separator.equals("\n") ? "}\n" : "\n  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    public void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        ResourceIO.writeBytes(file, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * A measured phase, ends when closed.
+     */
+    public final class Phase implements AutoCloseable {
+
+        private final String name;
+        private final String target;
+        private final String thread;
+        private final int depth;
+        private final long start;
+        private final BuildEvents.Launch4jEvent event;
+        private final boolean waiting;
+        private long duration = -1;
+
+        private Phase(String name, String target, String thread, int depth, long start, BuildEvents.Launch4jEvent event,
+                      boolean waiting) {
+            this.name = name;
+            this.target = target;
+            this.thread = thread;
+            this.depth = depth;
+            this.start = start;
+            this.event = event;
+            this.waiting = waiting;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Whether the phase is time spent blocked on a lock, see {@link #waitFor(String, String)}.
+         */
+        public boolean isWaiting() {
+            return waiting;
+        }
+
+        /**
+         * Start of the phase since the start of the execution, in nanoseconds.
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * Duration of the phase in nanoseconds.
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        @Override
+        public void close() {
+            if (duration >= 0) {
+                return;
+            }
+            event.end();
+            duration = System.nanoTime() - origin - start;
+            BuildReport.this.depth.set(depth);
+            phases.add(this);
+            commit(event, name, target, depth);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.report;
+
+import com.akathist.maven.plugins.launch4j.tools.ResourceIO;
+import org.eclipse.aether.RepositorySystemSession;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports of all the executions of the plugin in a single build written as one trace in the
+ * <a href="https://docs.google.com/document/d/1CvAClvFfyA5R-PhYUmn5OOQtYMH4h6I0nSsKchNAySU">Trace Event Format</a>,
+ * which can be opened in <code>chrome://tracing</code> or <a href="https://ui.perfetto.dev">Perfetto</a>.
+ * <p/>
+ * Each thread gets its own track with a span for each execution and its phases, time spent blocked on locks
+ * is in the <code>lock</code> category. The trace is written again after each execution, so it covers all the
+ * executions finished so far. It lives in the data of the {@link RepositorySystemSession}, so it is discarded
+ * with the session.
+ */
+public class ChromeTrace {
+
+    private static final int PID = 1;
+
+    private final File file;
+
+    private final List<BuildReport> reports = new ArrayList<>();
+
+    ChromeTrace(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the trace written into the given file by the executions of the given session, creating it if needed.
+     */
+    @SuppressWarnings("unchecked")
+    public static ChromeTrace of(RepositorySystemSession session, File file) {
+        // the class itself is used as the key, so different versions of the plugin don't share the traces
+        ConcurrentMap<String, ChromeTrace> traces = (ConcurrentMap<String, ChromeTrace>) session.getData()
+                .computeIfAbsent(ChromeTrace.class, ConcurrentHashMap::new);
+        File absolute = file.getAbsoluteFile().toPath().normalize().toFile();
+        return traces.computeIfAbsent(absolute.getPath(), path -> new ChromeTrace(absolute));
+    }
+
+    /**
+     * Adds the report of a finished execution and writes the trace.
+     */
+    public synchronized void add(BuildReport report) throws IOException {
+        reports.add(report);
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        ResourceIO.writeBytes(file, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    synchronized String toJson() {
+        long zero = Long.MAX_VALUE;
+        for (BuildReport report : reports) {
+            zero = Math.min(zero, report.getOrigin());
+        }
+        Map<String, Integer> threads = new LinkedHashMap<>();
+        StringBuilder spans = new StringBuilder();
+        for (BuildReport report : reports) {
+            String module = report.getModule() != null ? report.getModule() + ":" : "";
+            span(spans, module + report.getExecution(), "execution", tid(threads, report.getThread()),
+                    report.getOrigin() - zero, report.getDuration(), report, null);
+            for (BuildReport.Phase phase : report.getPhases()) {
+                span(spans, phase.getName(), phase.isWaiting() ? "lock" : "phase", tid(threads, phase.getThread()),
+                        report.getOrigin() + phase.getStart() - zero, phase.getDuration(), report, phase.getTarget());
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"displayTimeUnit\": \"ms\", \"traceEvents\": [\n");
+        sb.append("{\"name\": \"process_name\", \"ph\": \"M\", \"pid\": ").append(PID)
+                .append(", \"tid\": 0, \"args\": {\"name\": \"Maven\"}}");
+        for (Map.Entry<String, Integer> thread : threads.entrySet()) {
+            sb.append(",\n{\"name\": \"thread_name\", \"ph\": \"M\", \"pid\": ").append(PID)
+                    .append(", \"tid\": ").append(thread.getValue())
+                    .append(", \"args\": {\"name\": ").append(BuildReport.quote(thread.getKey())).append("}}");
+        }
+        sb.append(spans);
+        sb.append("\n]}\n");
+        return sb.toString();
+    }
+
+    private static int tid(Map<String, Integer> threads, String thread) {
+        return threads.computeIfAbsent(thread, name -> threads.size() + 1);
+    }
+
+    private static void span(StringBuilder sb, String name, String category, int tid, long start, long duration,
+                             BuildReport report, String target) {
+        sb.append(",\n{\"name\": ").append(BuildReport.quote(name))
+                .append(", \"cat\": ").append(BuildReport.quote(category))
+                .append(", \"ph\": \"X\", \"pid\": ").append(PID)
+                .append(", \"tid\": ").append(tid)
+                .append(", \"ts\": ").append(TimeUnit.NANOSECONDS.toMicros(start))
+                .append(", \"dur\": ").append(TimeUnit.NANOSECONDS.toMicros(duration))
+                .append(", \"args\": {\"module\": ").append(report.getModule() == null ? "null" : BuildReport.quote(report.getModule()))
+                .append(", \"execution\": ").append(BuildReport.quote(report.getExecution()));
+        if (target != null) {
+            sb.append(", \"target\": ").append(BuildReport.quote(target));
+        }
+        sb.append("}}");
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Work directory using host-installed binutils. It links everything from the bundled work directory
+ * except the <code>bin</code> directory, which holds links to the host <code>ld</code> and <code>windres</code>.
+ */
+public class HostToolchain {
+
+    private static final long PROBE_TIMEOUT_SECONDS = 30;
+
+    private HostToolchain() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Runs the tool with <code>--version</code>.
+     *
+     * @return the first line of the output, e.g. <code>GNU ld (GNU Binutils) 2.41</code>
+     * @throws IOException if the tool cannot be executed, fails or doesn't finish in 30 seconds
+     */
+    public static String probe(File tool) throws IOException {
+        return probe(tool, TimeUnit.SECONDS.toMillis(PROBE_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * The output goes to a temporary file rather than a pipe, so a tool which hangs, or whose children keep
+     * the output open, cannot block the build before the timeout is checked.
+     */
+    static String probe(File tool, long timeoutMillis) throws IOException {
+        if (!tool.isFile() || !tool.canExecute()) {
+            throw new IOException(tool + " is not an executable file");
+        }
+        Path log = Files.createTempFile("launch4j-probe", ".log");
+        try {
+            Process process = new ProcessBuilder(tool.getAbsolutePath(), "--version")
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+            try {
+                if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                    throw new IOException(tool + " --version didn't finish in " + timeoutMillis + " ms");
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while probing " + tool);
+            }
+            List<String> output = Files.readAllLines(log, StandardCharsets.UTF_8);
+            if (process.exitValue() != 0 || output.isEmpty()) {
+                throw new IOException(tool + " --version failed with exit code " + process.exitValue() + ": " + output);
+            }
+            return output.get(0).trim();
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    /**
+     * Creates, or reuses, a work directory next to the bundled one using the given tools.
+     * The name of the directory depends on the paths and versions of the tools, so it changes
+     * together with the tools and a new build fingerprint is computed.
+     *
+     * @param bundledWorkDir work directory extracted from the Launch4j platform jar
+     * @param ld             host linker
+     * @param windres        host resource compiler
+     * @param versions       versions reported by the tools
+     */
+    public static File createWorkDir(File bundledWorkDir, File ld, File windres, String versions) throws IOException {
+        String id = Digests.sha256(ld.getAbsolutePath() + "\n" + windres.getAbsolutePath() + "\n" + versions).substring(0, 12);
+        Path workDir = bundledWorkDir.toPath().resolveSibling(bundledWorkDir.getName() + "-host-" + id);
+        if (Files.isDirectory(workDir)) {
+            return workDir.toFile();
+        }
+
+        Path tmp = Files.createTempDirectory(workDir.getParent(), "." + workDir.getFileName() + ".tmp");
+        try {
+            try (Stream<Path> children = Files.list(bundledWorkDir.toPath())) {
+                for (Path child : children.collect(Collectors.toList())) {
+                    if (!child.getFileName().toString().equals("bin")) {
+                        Files.createSymbolicLink(tmp.resolve(child.getFileName().toString()), child.toAbsolutePath());
+                    }
+                }
+            }
+            Path bin = Files.createDirectory(tmp.resolve("bin"));
+            Files.createSymbolicLink(bin.resolve("ld"), ld.toPath().toAbsolutePath());
+            Files.createSymbolicLink(bin.resolve("windres"), windres.toPath().toAbsolutePath());
+            try {
+                Files.move(tmp, workDir, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // created in the meantime by another build, both have the same content
+            }
+        } finally {
+            deleteTree(tmp);
+        }
+        return workDir.toFile();
+    }
+
+    /**
+     * Deletes the directory of links without following them.
+     */
+    private static void deleteTree(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Path bin = dir.resolve("bin");
+        if (Files.isDirectory(bin, LinkOption.NOFOLLOW_LINKS)) {
+            try (Stream<Path> links = Files.list(bin)) {
+                for (Path link : links.collect(Collectors.toList())) {
+                    Files.delete(link);
+                }
+            }
+        }
+        try (Stream<Path> links = Files.list(dir)) {
+            for (Path link : links.collect(Collectors.toList())) {
+                Files.delete(link);
+            }
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Private work directory of a single execution. It mirrors the directories of the shared toolchain
+ * with real directories and links each of its files, so files copied or generated by the execution
+ * never end up in the shared toolchain and executions don't need to lock each other.
+ * <p/>
+ * Files are linked with symbolic links, or with hard links or copies where symbolic links
+ * aren't permitted, e.g. on Windows without the developer mode. Replacing a file in the overlay,
+ * e.g. with {@link Files#copy} and {@link java.nio.file.StandardCopyOption#REPLACE_EXISTING},
+ * replaces the link and leaves the toolchain untouched.
+ */
+public class OverlayWorkDir {
+
+    private OverlayWorkDir() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Creates a fresh overlay of the toolchain, removing whatever a previous execution left in it.
+     *
+     * @param toolchain shared work directory, it is only read
+     * @param scratch   directory of the execution, the overlay is created in it with the same name as the toolchain,
+     *                  so builds using the overlay have the same fingerprint as builds using the toolchain
+     * @return the overlay
+     */
+    public static File create(File toolchain, File scratch) throws IOException {
+        Path source = toolchain.toPath().toAbsolutePath();
+        Path overlay = scratch.toPath().toAbsolutePath().resolve(toolchain.getName());
+        deleteTree(overlay);
+        Files.createDirectories(overlay);
+
+        List<Path> paths;
+        // links to directories, e.g. in a host toolchain, are followed and mirrored as well
+        try (Stream<Path> walk = Files.walk(source, FileVisitOption.FOLLOW_LINKS)) {
+            paths = walk.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Path path : paths) {
+            Path target = overlay.resolve(source.relativize(path).toString());
+            if (Files.isDirectory(path)) {
+                Files.createDirectories(target);
+            } else {
+                link(target, path);
+            }
+        }
+        return overlay.toFile();
+    }
+
+    private static void link(Path link, Path file) throws IOException {
+        try {
+            Files.createSymbolicLink(link, file);
+            return;
+        } catch (IOException | UnsupportedOperationException e) {
+            // no permission to create symbolic links
+        }
+        try {
+            Files.createLink(link, file);
+            return;
+        } catch (IOException | UnsupportedOperationException e) {
+            // different file store or no support for hard links
+        }
+        Files.copy(file, link, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    /**
+     * Deletes the overlay without following its links.
+     */
+    static void deleteTree(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+}
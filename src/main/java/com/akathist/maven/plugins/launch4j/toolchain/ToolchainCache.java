@@ -0,0 +1,112 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import com.akathist.maven.plugins.launch4j.report.BuildReport;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.eclipse.aether.RepositorySystemSession;
+
+import java.io.File;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Prepared work directories shared by all the executions of the plugin in a single build.
+ * The first execution needing a work directory resolves and extracts it, concurrent executions
+ * wait for it and later executions get the ready directory.
+ * <p/>
+ * The cache lives in the data of the {@link RepositorySystemSession}, so it is discarded with the session.
+ */
+public class ToolchainCache {
+
+    private final ConcurrentMap<String, CompletableFuture<File>> workDirs = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cache of the given session, creating it if needed.
+     */
+    public static ToolchainCache of(RepositorySystemSession session) {
+        // the class itself is used as the key, so different versions of the plugin don't share the cache
+        return (ToolchainCache) session.getData().computeIfAbsent(ToolchainCache.class, ToolchainCache::new);
+    }
+
+    /**
+     * Returns the work directory prepared for the given key, preparing it if this is the first request.
+     * A failed preparation isn't cached, the next request tries again.
+     *
+     * @param key   identifies the work directory, e.g. groupId:artifactId:version:platform
+     * @param setup resolves and prepares the work directory
+     */
+    public File getWorkDir(String key, WorkDirSetup setup) throws MojoExecutionException {
+        return getWorkDir(key, setup, null);
+    }
+
+    /**
+     * Returns the work directory prepared for the given key, preparing it if this is the first request.
+     * A failed preparation isn't cached, the next request tries again.
+     *
+     * @param key    identifies the work directory, e.g. groupId:artifactId:version:platform
+     * @param setup  resolves and prepares the work directory
+     * @param report records the time spent waiting for another execution preparing the work directory, may be null
+     */
+    public File getWorkDir(String key, WorkDirSetup setup, BuildReport report) throws MojoExecutionException {
+        CompletableFuture<File> future = new CompletableFuture<>();
+        CompletableFuture<File> existing = workDirs.putIfAbsent(key, future);
+        if (existing != null) {
+            if (report == null || existing.isDone()) {
+                return await(key, existing);
+            }
+            try (BuildReport.Phase ignored = report.waitFor("toolchainLock", null)) {
+                return await(key, existing);
+            }
+        }
+        try {
+            File workDir = setup.setup();
+            future.complete(workDir);
+            return workDir;
+        } catch (MojoExecutionException | RuntimeException e) {
+            workDirs.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static File await(String key, CompletableFuture<File> future) throws MojoExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for the work directory " + key, e);
+        } catch (ExecutionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new MojoExecutionException("Cannot prepare the work directory " + key + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Resolves and prepares a work directory.
+     */
+    @FunctionalInterface
+    public interface WorkDirSetup {
+        File setup() throws MojoExecutionException;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Brings header objects and libraries of the project into the work directory, at the same path relative
+ * to the work directory as they have relative to the project directory.
+ * <p/>
+ * Files are hard linked where possible, otherwise copied with their attributes, and files which are already
+ * in the work directory with the same content are left untouched, so their modification times don't change.
+ */
+public final class WorkDirFiles {
+
+    /**
+     * Number of files from which they are copied in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 16;
+
+    private WorkDirFiles() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Copies the given files of the project into the work directory.
+     *
+     * @param basedir project directory, all the files must reside in it
+     * @param workDir work directory of the build
+     * @param paths   paths relative to the project directory or glob patterns matched against them,
+     *                e.g. <code>src/main/objs/**.o</code>; paths of files which don't exist are kept as they are,
+     *                they refer to files of the toolchain
+     * @return paths relative to the work directory, in the order of the given paths, or null if there are none
+     * @throws IllegalArgumentException if a file doesn't reside in the project directory or a pattern matches nothing
+     */
+    public static List<String> copy(File basedir, File workDir, List<String> paths) throws IOException {
+        return copy(basedir, workDir, paths, defaultParallelism());
+    }
+
+    static List<String> copy(File basedir, File workDir, List<String> paths, int parallelism) throws IOException {
+        Map<String, Path> files = resolve(basedir, paths);
+        copy(workDir, files, parallelism);
+        return files == null ? null : new ArrayList<>(files.keySet());
+    }
+
+    /**
+     * Finds the given files of the project without copying them, e.g. to tell whether they have changed
+     * before the work directory is prepared.
+     *
+     * @param basedir project directory, all the files must reside in it
+     * @param paths   paths relative to the project directory or glob patterns matched against them,
+     *                paths of files which don't exist are kept as they are, they refer to files of the toolchain
+     * @return paths relative to the work directory, in the order of the given paths, mapped to the files
+     * of the project or to null for files of the toolchain, null if there are no paths
+     * @throws IllegalArgumentException if a file doesn't reside in the project directory or a pattern matches nothing
+     */
+    public static Map<String, Path> resolve(File basedir, List<String> paths) throws IOException {
+        if (paths == null) {
+            return null;
+        }
+        Path base = basedir.toPath().toAbsolutePath().normalize();
+
+        Map<String, Path> result = new LinkedHashMap<>();
+        for (String path : paths) {
+            List<Path> sources = isGlob(path) ? expand(base, path) : Collections.singletonList(base.resolve(path).normalize());
+            for (Path source : sources) {
+                if (!source.startsWith(base)) {
+                    throw new IllegalArgumentException("File must reside in the project directory: " + path);
+                }
+                if (!Files.exists(source)) {
+                    result.put(path, null);
+                } else {
+                    result.put(base.relativize(source).toString(), source);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies the files found by {@link #resolve(File, List)} into the work directory.
+     */
+    public static void copy(File workDir, Map<String, Path> files) throws IOException {
+        copy(workDir, files, defaultParallelism());
+    }
+
+    private static int defaultParallelism() {
+        return Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    }
+
+    static void copy(File workDir, Map<String, Path> files, int parallelism) throws IOException {
+        if (files == null) {
+            return;
+        }
+        Path work = workDir.toPath().toAbsolutePath().normalize();
+        Map<Path, Path> copies = new LinkedHashMap<>();
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+            if (file.getValue() != null) {
+                copies.put(work.resolve(file.getKey()), file.getValue());
+            }
+        }
+        copyAll(copies, parallelism);
+    }
+
+    /**
+     * Links or copies the source to the target, unless the target already has the same content.
+     *
+     * @return false if the target has been left untouched
+     */
+    static boolean copyIfChanged(Path source, Path target) throws IOException {
+        if (hasSameContent(source, target)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        // it may be a link to a file of the shared toolchain, which must stay as it is
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            // different file store or no support for hard links, fall back to copying
+        }
+        Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        return true;
+    }
+
+    private static boolean hasSameContent(Path source, Path target) throws IOException {
+        if (!Files.isRegularFile(target)) {
+            return false;
+        }
+        if (Files.isSameFile(source, target)) {
+            return true;
+        }
+        return Files.size(source) == Files.size(target)
+                && Digests.sha256(source.toFile()).equals(Digests.sha256(target.toFile()));
+    }
+
+    private static void copyAll(Map<Path, Path> copies, int parallelism) throws IOException {
+        if (copies.size() < PARALLEL_THRESHOLD || parallelism < 2) {
+            for (Map.Entry<Path, Path> copy : copies.entrySet()) {
+                copyIfChanged(copy.getValue(), copy.getKey());
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, copies.size()));
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Map.Entry<Path, Path> copy : copies.entrySet()) {
+                futures.add(executor.submit(() -> copyIfChanged(copy.getValue(), copy.getKey())));
+            }
+            for (Future<Boolean> future : futures) {
+                await(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Files matching the pattern, sorted by their paths. Only the directory before the first wildcard is walked.
+     */
+    private static List<Path> expand(Path base, String pattern) throws IOException {
+        String[] segments = pattern.split("/");
+        Path root = base;
+        for (int i = 0; i < segments.length - 1 && !isGlob(segments[i]); i++) {
+            root = root.resolve(segments[i]);
+        }
+        root = root.normalize();
+        if (!root.startsWith(base)) {
+            throw new IllegalArgumentException("File must reside in the project directory: " + pattern);
+        }
+
+        List<Path> matches = Collections.emptyList();
+        if (Files.isDirectory(root)) {
+            PathMatcher matcher = base.getFileSystem().getPathMatcher("glob:" + pattern);
+            try (Stream<Path> walk = Files.walk(root)) {
+                matches = walk.filter(Files::isRegularFile)
+                        .filter(path -> matcher.matches(base.relativize(path)))
+                        .sorted()
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        if (matches.isEmpty()) {
+            throw new IllegalArgumentException("No files match " + pattern + " in the project directory");
+        }
+        return matches;
+    }
+
+    private static boolean isGlob(String path) {
+        return path.indexOf('*') >= 0 || path.indexOf('?') >= 0 || path.indexOf('[') >= 0 || path.indexOf('{') >= 0;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while copying files to the work directory");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
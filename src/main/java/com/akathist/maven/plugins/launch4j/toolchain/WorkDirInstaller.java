@@ -0,0 +1,401 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Extracts the platform-specific work directory jar and keeps it valid using a {@link WorkDirManifest}
+ * stored next to the jar.
+ */
+public class WorkDirInstaller {
+
+    private static final int MIN_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+
+    private static final Set<PosixFilePermission> EXECUTABLE = PosixFilePermissions.fromString("rwxr-xr-x");
+    private static final Set<PosixFilePermission> REGULAR = PosixFilePermissions.fromString("rw-r--r--");
+
+    private static final ConcurrentMap<String, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final Log log;
+
+    private final int parallelism;
+
+    public WorkDirInstaller(Log log) {
+        this(log, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    }
+
+    /**
+     * @param parallelism maximum number of threads extracting files at the same time
+     */
+    public WorkDirInstaller(Log log, int parallelism) {
+        this.log = log;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * The place where the manifest of the work directory extracted from the given jar is stored.
+     */
+    public static File manifestFor(File platJar) {
+        return new File(platJar.getParentFile(), platJar.getName() + ".manifest");
+    }
+
+    /**
+     * The file locked while the work directory extracted from the given jar is being changed.
+     */
+    public static File lockFor(File platJar) {
+        return new File(platJar.getParentFile(), platJar.getName() + ".lock");
+    }
+
+    /**
+     * Makes sure the content of the jar is extracted into the destination directory.
+     * Nothing is extracted if the manifest matches the jar and all the files, missing or modified files
+     * are extracted again and the whole jar is extracted if there is no manifest or the jar has changed.
+     * <p/>
+     * Changes are done holding a file lock, so other processes using the same local repository
+     * wait and then reuse the result. The whole jar is extracted into a temporary sibling directory
+     * which is then renamed into place, so a crash never leaves a partially extracted work directory behind.
+     *
+     * @return number of extracted files, 0 if the work directory was complete
+     */
+    public int install(File platJar, File dest) throws IOException {
+        WorkDirManifest manifest = WorkDirManifest.read(manifestFor(platJar));
+        if (manifest != null && manifest.matchesJar(platJar) && manifest.findInvalidFiles(dest).isEmpty()) {
+            log.debug("Platform-specific work directory verified against " + manifestFor(platJar));
+            if (manifest.isModified()) {
+                manifest.write(manifestFor(platJar));
+            }
+            return 0;
+        }
+
+        File lockFile = lockFor(platJar);
+        // file locks are held by the whole JVM, threads of a parallel build have to be serialized separately
+        synchronized (JVM_LOCKS.computeIfAbsent(lockFile.getAbsolutePath(), path -> new Object())) {
+            try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.tryLock();
+                if (lock == null) {
+                    log.info("Waiting for another process to prepare the platform-specific work directory");
+                    lock = channel.lock();
+                }
+                try {
+                    return installLocked(platJar, dest);
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    private int installLocked(File platJar, File dest) throws IOException {
+        deleteLeftovers(platJar, dest);
+
+        File manifestFile = manifestFor(platJar);
+        WorkDirManifest manifest = WorkDirManifest.read(manifestFile);
+
+        if (manifest != null && !manifest.matchesJar(platJar)) {
+            log.info("Platform-specific jar " + platJar + " has changed, extracting it again");
+            manifest = null;
+        }
+
+        int extracted = 0;
+        if (manifest == null) {
+            manifest = extractAndPublish(platJar, dest);
+            extracted = manifest.getFiles().size();
+        } else {
+            List<String> invalid = manifest.findInvalidFiles(dest);
+            if (invalid.isEmpty()) {
+                log.debug("Platform-specific work directory has been prepared by another process");
+            } else {
+                log.warn("Repairing " + invalid.size() + " missing or modified files of the platform-specific work directory: " + invalid);
+                repair(platJar, dest, manifest, invalid);
+                extracted = invalid.size();
+            }
+        }
+
+        if (manifest.isModified()) {
+            manifest.write(manifestFile);
+        }
+        // replaced by the manifest
+        Files.deleteIfExists(new File(platJar.getParentFile(), platJar.getName() + ".unpacked").toPath());
+        return extracted;
+    }
+
+    /**
+     * Extracts the jar into a temporary directory and renames each of its top level directories into place.
+     * A directory being replaced is first renamed aside, so the destination never holds a mix of old and new files.
+     */
+    private WorkDirManifest extractAndPublish(File platJar, File dest) throws IOException {
+        Path manifest = manifestFor(platJar).toPath();
+        Path tmp = Files.createTempDirectory(dest.toPath(), leftoverPrefix(platJar) + "tmp");
+        try {
+            WorkDirManifest result = extract(platJar, tmp.toFile());
+            // the old manifest doesn't describe the work directory anymore
+            Files.deleteIfExists(manifest);
+            List<Path> children;
+            try (Stream<Path> list = Files.list(tmp)) {
+                children = list.collect(Collectors.toList());
+            }
+            for (Path child : children) {
+                publish(platJar, child, dest.toPath().resolve(child.getFileName().toString()));
+            }
+            return result;
+        } finally {
+            deleteRecursively(tmp);
+        }
+    }
+
+    private void publish(File platJar, Path source, Path target) throws IOException {
+        Path old = null;
+        if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            old = target.resolveSibling(leftoverPrefix(platJar) + "old-" + UUID.randomUUID());
+            Files.move(target, old, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        if (old != null) {
+            try {
+                deleteRecursively(old);
+            } catch (IOException e) {
+                // e.g. files still used by another process on Windows, removed by the next installation
+                log.debug("Cannot delete the previous work directory " + old + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * Removes temporary and replaced directories left behind by crashed or still running builds.
+     */
+    private void deleteLeftovers(File platJar, File dest) {
+        String prefix = leftoverPrefix(platJar);
+        File[] leftovers = dest.listFiles((dir, name) -> name.startsWith(prefix));
+        if (leftovers == null) {
+            return;
+        }
+        for (File leftover : leftovers) {
+            try {
+                log.debug("Deleting leftover " + leftover);
+                deleteRecursively(leftover.toPath());
+            } catch (IOException e) {
+                log.debug("Cannot delete leftover " + leftover + ": " + e);
+            }
+        }
+    }
+
+    private static String leftoverPrefix(File platJar) {
+        return "." + platJar.getName() + ".";
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(path)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Path p : paths) {
+            Files.deleteIfExists(p);
+        }
+    }
+
+    /**
+     * Extracts all the entries of the jar and records them in a new manifest. Directories are created first,
+     * then the files are extracted in parallel, the biggest ones first.
+     */
+    WorkDirManifest extract(File platJar, File dest) throws IOException {
+        log.debug("Extracting " + platJar + " into " + dest + " using " + parallelism + " threads");
+        Map<String, WorkDirManifest.FileEntry> files = new ConcurrentHashMap<>();
+        String jarDigest;
+        // trying to use plexus-archiver here is a miserable waste of time:
+        try (JarFile jf = new JarFile(platJar)) {
+            List<JarEntry> entries = new ArrayList<>();
+            Enumeration<JarEntry> en = jf.entries();
+            while (en.hasMoreElements()) {
+                JarEntry je = en.nextElement();
+                File outFile = resolve(dest, je);
+                if (je.isDirectory()) {
+                    Files.createDirectories(outFile.toPath());
+                } else {
+                    entries.add(je);
+                }
+            }
+            entries.sort(Comparator.comparingLong(JarEntry::getSize).reversed());
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, entries.size() + 1)));
+            try {
+                // the jar is hashed while its entries are being extracted
+                Future<String> digest = executor.submit(() -> Digests.sha256(platJar));
+                List<Future<?>> futures = new ArrayList<>();
+                for (JarEntry je : entries) {
+                    futures.add(executor.submit(() -> {
+                        files.put(je.getName(), extractEntry(jf, je, resolve(dest, je)));
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    await(future);
+                }
+                jarDigest = await(digest);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        WorkDirManifest.FileEntry jar = new WorkDirManifest.FileEntry(jarDigest, platJar.length(), platJar.lastModified());
+        return new WorkDirManifest(jar, files);
+    }
+
+    /**
+     * Extracts again the given entries and checks they match the manifest.
+     */
+    void repair(File platJar, File dest, WorkDirManifest manifest, List<String> paths) throws IOException {
+        try (JarFile jf = new JarFile(platJar)) {
+            for (String path : paths) {
+                JarEntry je = jf.getJarEntry(path);
+                if (je == null) {
+                    throw new IOException("Entry " + path + " is missing in " + platJar);
+                }
+                WorkDirManifest.FileEntry entry = extractEntry(jf, je, resolve(dest, je));
+                if (!entry.digest.equals(manifest.getFiles().get(path).digest)) {
+                    throw new IOException("Digest of " + path + " extracted from " + platJar + " doesn't match the manifest");
+                }
+                manifest.update(path, entry);
+            }
+        }
+    }
+
+    private static File resolve(File dest, JarEntry je) throws IOException {
+        File outFile = new File(dest, je.getName());
+        if (!outFile.toPath().normalize().startsWith(dest.toPath().normalize())) {
+            throw new IOException("Bad zip entry " + je.getName());
+        }
+        return outFile;
+    }
+
+    /**
+     * Copies the entry through a buffer sized after the entry, so the big binaries are written in a few
+     * large chunks. Executables in the bin directory are created with the execute permission.
+     */
+    private static WorkDirManifest.FileEntry extractEntry(JarFile jf, JarEntry je, File outFile) throws IOException {
+        Path path = outFile.toPath();
+        Path parent = path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.deleteIfExists(path);
+        if (isPosix(path)) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(isExecutable(je) ? EXECUTABLE : REGULAR));
+        }
+
+        MessageDigest digest = Digests.newSha256();
+        long size = 0;
+        byte[] buf = new byte[(int) Math.max(MIN_BUFFER_SIZE, Math.min(je.getSize(), MAX_BUFFER_SIZE))];
+        ByteBuffer buffer = ByteBuffer.wrap(buf);
+        try (InputStream in = jf.getInputStream(je);
+             FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int len;
+            while ((len = readFully(in, buf)) > 0) {
+                digest.update(buf, 0, len);
+                buffer.clear().limit(len);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                size += len;
+            }
+        }
+        Files.setLastModifiedTime(path, FileTime.fromMillis(je.getTime()));
+        return new WorkDirManifest.FileEntry(Digests.toHex(digest.digest()), size, Files.getLastModifiedTime(path).toMillis());
+    }
+
+    /**
+     * Fills the buffer as much as possible, inflating streams return small chunks.
+     */
+    private static int readFully(InputStream in, byte[] buf) throws IOException {
+        int total = 0;
+        int len;
+        while (total < buf.length && (len = in.read(buf, total, buf.length - total)) > 0) {
+            total += len;
+        }
+        return total;
+    }
+
+    private static boolean isExecutable(JarEntry je) {
+        String name = je.getName();
+        int slash = name.lastIndexOf('/');
+        return slash >= 0 && (name.substring(0, slash).equals("bin") || name.substring(0, slash).endsWith("/bin"));
+    }
+
+    private static boolean isPosix(Path path) {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting the work directory");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
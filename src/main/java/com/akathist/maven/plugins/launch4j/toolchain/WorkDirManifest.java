@@ -0,0 +1,234 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Describes an extracted platform work directory: the digest of the jar it was extracted from
+ * and the size, modification time and digest of every extracted file.
+ * <p/>
+ * Files are validated by their size on each run and only hashed again when their modification time
+ * has changed, so a valid work directory is confirmed without reading it.
+ */
+public class WorkDirManifest {
+
+    private static final String HEADER = "# Launch4j work directory manifest, do not edit";
+
+    private static final String JAR = "jar";
+
+    private static final String FILE = "file";
+
+    private FileEntry jar;
+
+    private final Map<String, FileEntry> files;
+
+    private boolean modified;
+
+    /**
+     * Creates a manifest of a freshly extracted work directory, it has to be written.
+     */
+    WorkDirManifest(FileEntry jar, Map<String, FileEntry> files) {
+        this.jar = jar;
+        this.files = new TreeMap<>(files);
+        this.modified = true;
+    }
+
+    /**
+     * Reads a previously written manifest.
+     *
+     * @return the manifest or null if there is none or it cannot be parsed
+     */
+    public static WorkDirManifest read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        FileEntry jar = null;
+        Map<String, FileEntry> files = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#") || line.isEmpty()) {
+                    continue;
+                }
+                // <kind> <digest> <size> <last modified> [<path>]
+                String[] parts = line.split(" ", 5);
+                if (parts.length < 4) {
+                    return null;
+                }
+                FileEntry entry = new FileEntry(parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+                if (JAR.equals(parts[0])) {
+                    jar = entry;
+                } else if (FILE.equals(parts[0]) && parts.length == 5) {
+                    files.put(parts[4], entry);
+                } else {
+                    return null;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        if (jar == null) {
+            return null;
+        }
+        WorkDirManifest manifest = new WorkDirManifest(jar, files);
+        manifest.modified = false;
+        return manifest;
+    }
+
+    /**
+     * Writes the manifest atomically, readers never see a partially written file.
+     */
+    public void write(File file) throws IOException {
+        Path target = file.toPath();
+        Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), "." + file.getName(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER + "\n");
+                writer.write(JAR + " " + jar.digest + " " + jar.size + " " + jar.lastModified + "\n");
+                for (Map.Entry<String, FileEntry> entry : files.entrySet()) {
+                    FileEntry f = entry.getValue();
+                    writer.write(FILE + " " + f.digest + " " + f.size + " " + f.lastModified + " " + entry.getKey() + "\n");
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        modified = false;
+    }
+
+    /**
+     * Checks if the manifest describes the given jar. The jar is only hashed if its size or modification time
+     * differs from the recorded ones, e.g. after the local repository was synchronized.
+     */
+    public boolean matchesJar(File platJar) throws IOException {
+        long size = platJar.length();
+        long lastModified = platJar.lastModified();
+        if (jar.size == size && jar.lastModified == lastModified) {
+            return true;
+        }
+        if (jar.size != size || !jar.digest.equals(Digests.sha256(platJar))) {
+            return false;
+        }
+        jar = new FileEntry(jar.digest, size, lastModified);
+        modified = true;
+        return true;
+    }
+
+    /**
+     * Validates all the files of the work directory.
+     *
+     * @param baseDir directory the jar was extracted into
+     * @return paths of missing or modified files
+     */
+    public List<String> findInvalidFiles(File baseDir) throws IOException {
+        List<String> invalid = new ArrayList<>();
+        for (Map.Entry<String, FileEntry> entry : files.entrySet()) {
+            FileEntry expected = entry.getValue();
+            Path path = baseDir.toPath().resolve(entry.getKey());
+            long size;
+            long lastModified;
+            try {
+                size = Files.size(path);
+                lastModified = Files.getLastModifiedTime(path).toMillis();
+            } catch (NoSuchFileException e) {
+                invalid.add(entry.getKey());
+                continue;
+            }
+            if (size != expected.size) {
+                invalid.add(entry.getKey());
+            } else if (lastModified != expected.lastModified) {
+                if (expected.digest.equals(Digests.sha256(path.toFile()))) {
+                    entry.setValue(new FileEntry(expected.digest, size, lastModified));
+                    modified = true;
+                } else {
+                    invalid.add(entry.getKey());
+                }
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * Records the current modification time of a repaired file.
+     */
+    void update(String path, FileEntry entry) {
+        files.put(path, entry);
+        modified = true;
+    }
+
+    /**
+     * True if the manifest has been changed since it was read or written.
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    public String getJarDigest() {
+        return jar.digest;
+    }
+
+    public Map<String, FileEntry> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    /**
+     * Size, modification time and digest of a file.
+     */
+    public static class FileEntry {
+        final String digest;
+        final long size;
+        final long lastModified;
+
+        FileEntry(String digest, long size, long lastModified) {
+            this.digest = digest;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.tools;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Publishes files with an atomic rename of a temporary file in the same directory, so readers see either
+ * the previous or the complete new file and an interrupted build never leaves a truncated one behind.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Creates an empty temporary file next to the target, to be published with {@link #publish}.
+     */
+    public static Path tempFileFor(Path target) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        return Files.createTempFile(absolute.getParent(), "." + absolute.getFileName(), ".tmp");
+    }
+
+    /**
+     * Replaces the target with the temporary file.
+     *
+     * @param tmp    temporary file in the same directory as the target
+     * @param target the published file
+     * @param fsync  what is flushed to the disk
+     */
+    public static void publish(Path tmp, Path target, FsyncPolicy fsync) throws IOException {
+        if (fsync != FsyncPolicy.NONE) {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (fsync == FsyncPolicy.FULL) {
+            syncDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * Replaces the target with a hard link to the source or with a plain copy of it.
+     *
+     * @param source   file to publish, it is left untouched
+     * @param target   the published file
+     * @param hardLink whether to link the source instead of copying it, falls back to a copy if not supported
+     * @param fsync    what is flushed to the disk
+     */
+    public static void publishCopy(Path source, Path target, boolean hardLink, FsyncPolicy fsync) throws IOException {
+        Path tmp = tempFileFor(target);
+        try {
+            boolean linked = false;
+            if (hardLink) {
+                try {
+                    Files.delete(tmp);
+                    Files.createLink(tmp, source);
+                    linked = true;
+                } catch (IOException | UnsupportedOperationException e) {
+                    // different file store or no support for hard links, fall back to copying
+                }
+            }
+            if (!linked) {
+                Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            publish(tmp, target, fsync);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be opened on Windows, where renames are flushed with the file system journal
+            if (!System.getProperty("os.name", "").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.tools;
+
+/**
+ * How hard {@link AtomicFiles} tries to make a published file survive a crash of the operating system.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Leaves flushing to the operating system, a crash right after the build may leave an empty file.
+     */
+    NONE,
+
+    /**
+     * Flushes the content of the file before it is moved into place.
+     */
+    FILE,
+
+    /**
+     * Flushes the content of the file and, after it has been moved into place, its directory.
+     */
+    FULL
+}
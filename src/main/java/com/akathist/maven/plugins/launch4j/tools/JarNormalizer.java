@@ -0,0 +1,85 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Rewrites a jar so that its bytes only depend on the content of its entries.
+ */
+final public class JarNormalizer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private JarNormalizer() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * Copies all the entries of the source jar, in their original order and with their original compression
+     * method, into the target jar, setting their modification time to the given timestamp
+     * and dropping the extra fields which hold additional timestamps.
+     */
+    public static void normalize(File source, File target, long epochSeconds) throws IOException {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+        Files.createDirectories(target.toPath().toAbsolutePath().getParent());
+
+        try (ZipFile zip = new ZipFile(source);
+             OutputStream out = Files.newOutputStream(target.toPath());
+             ZipOutputStream zout = new ZipOutputStream(out)) {
+            if (zip.getComment() != null) {
+                zout.setComment(zip.getComment());
+            }
+            byte[] buf = new byte[BUFFER_SIZE];
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                ZipEntry copy = new ZipEntry(entry.getName());
+                // local time of the zip entry is stored as is, so it doesn't depend on the time zone of the build
+                copy.setTimeLocal(time);
+                copy.setComment(entry.getComment());
+                if (entry.getMethod() == ZipEntry.STORED) {
+                    copy.setMethod(ZipEntry.STORED);
+                    copy.setSize(entry.getSize());
+                    copy.setCompressedSize(entry.getSize());
+                    copy.setCrc(entry.getCrc());
+                }
+                zout.putNextEntry(copy);
+                try (InputStream in = zip.getInputStream(entry)) {
+                    int len;
+                    while ((len = in.read(buf)) != -1) {
+                        zout.write(buf, 0, len);
+                    }
+                }
+                zout.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Maven Launch4j Plugin
+ * Copyright (c) 2006 Paul Jungwirth
+ * Copyright (c) 2011-2025 Lukasz Lenart
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.akathist.maven.plugins.launch4j.tools;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses <code>project.build.outputTimestamp</code> the same way as the Maven archiver does.
+ */
+final public class OutputTimestamp {
+
+    /**
+     * The earliest time which can be stored in a zip entry, used when no timestamp is configured.
+     */
+    public static final long DEFAULT_EPOCH_SECONDS = 315532800L; // 1980-01-01T00:00:00Z
+
+    private OutputTimestamp() {
+        // avoids creating an instance of this class
+    }
+
+    /**
+     * @param value ISO 8601 date-time with an offset, or number of seconds since the epoch
+     * @return seconds since the epoch or null if no timestamp is configured
+     * @throws IllegalArgumentException if the value cannot be parsed
+     */
+    public static Long parse(String value) {
+        // a single character is used to disable the timestamp, see Maven archiver
+        if (value == null || value.trim().length() < 2) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(trimmed);
+        }
+        try {
+            Instant instant = OffsetDateTime.parse(trimmed).toInstant();
+            return instant.getEpochSecond();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid project.build.outputTimestamp value '" + value + "'", e);
+        }
+    }
+}
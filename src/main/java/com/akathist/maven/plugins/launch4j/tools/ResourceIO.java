@@ -18,72 +18,96 @@
  */
 package com.akathist.maven.plugins.launch4j.tools;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 final public class ResourceIO {
 
-    private static final int DEFAULT_BUFFER_SIZE = 4 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private ResourceIO() {
         // avoids creating an instance of this class
     }
 
-    private static byte[] readAllBytes(InputStream is) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        byte[] buf = new byte[DEFAULT_BUFFER_SIZE];
-        int bytesRead;
-        while ((bytesRead = is.read(buf)) != -1) {
-            baos.write(buf, 0, bytesRead);
-        }
-
-        return baos.toByteArray();
-    }
-
     public static byte[] readResourceAsBytes(String resName) throws IOException {
         ClassLoader cl = Thread.currentThread().getContextClassLoader();
         try (InputStream is = cl.getResourceAsStream(resName)) {
             if (is == null) {
                 throw new IOException("Resource not found: " + resName);
             }
-            return readAllBytes(is);
+            return is.readAllBytes();
         }
     }
 
-    public static void writeBytesIfDiff(File outFile, byte[] outBytes) throws IOException {
-        if (outFile.exists()) {
-            byte[] existingBytes = readBytes(outFile);
-            if (Arrays.equals(outBytes, existingBytes)) {
-                return;
-            }
+    /**
+     * Writes the bytes unless the file already has exactly this content, so an unchanged file
+     * keeps its modification time.
+     *
+     * @return true if the file has been written
+     */
+    public static boolean writeBytesIfDiff(File outFile, byte[] outBytes) throws IOException {
+        if (contentEquals(outFile, outBytes)) {
+            return false;
         }
         writeBytes(outFile, outBytes);
+        return true;
     }
 
-    public static byte[] readBytes(File inFile) throws IOException {
-        try (
-                FileInputStream fis = new FileInputStream(inFile);
-                BufferedInputStream bis = new BufferedInputStream(fis)
-        ) {
-            return readAllBytes(bis);
+    /**
+     * Compares the content of the file with the bytes. Sizes are compared first, then the content chunk by chunk,
+     * stopping at the first difference.
+     *
+     * @return false if the file doesn't exist or has a different content
+     */
+    public static boolean contentEquals(File file, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() != bytes.length) {
+                return false;
+            }
+            ByteBuffer buf = ByteBuffer.allocate(Math.min(BUFFER_SIZE, Math.max(bytes.length, 1)));
+            int position = 0;
+            while (position < bytes.length) {
+                buf.clear();
+                int read = channel.read(buf, position);
+                if (read < 0) {
+                    return false;
+                }
+                buf.flip();
+                if (!buf.equals(ByteBuffer.wrap(bytes, position, read))) {
+                    return false;
+                }
+                position += read;
+            }
+            // the file may have grown while being compared
+            return channel.size() == bytes.length;
+        } catch (NoSuchFileException e) {
+            return false;
         }
     }
 
+    public static byte[] readBytes(File inFile) throws IOException {
+        return Files.readAllBytes(inFile.toPath());
+    }
+
+    /**
+     * Writes the bytes into a temporary file next to the target and moves it into place,
+     * so readers never see a partially written file.
+     */
     public static void writeBytes(File outFile, byte[] outBytes) throws IOException {
-        try (
-                FileOutputStream fos = new FileOutputStream(outFile, false);
-                BufferedOutputStream bos = new BufferedOutputStream(fos)
-        ) {
-            bos.write(outBytes);
-            bos.flush();
+        Path target = outFile.toPath();
+        Path tmp = AtomicFiles.tempFileFor(target);
+        try {
+            Files.write(tmp, outBytes);
+            AtomicFiles.publish(tmp, target, FsyncPolicy.NONE);
+        } finally {
+            Files.deleteIfExists(tmp);
         }
     }
 }
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j;
+
+import com.akathist.maven.plugins.launch4j.cache.BuildFingerprint;
+import com.akathist.maven.plugins.launch4j.pe.SyntheticPe;
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the whole mojo twice with fake binutils, whose ld stamps each executable with another time,
+ * the reproducible build must produce the same bytes anyway.
+ */
+public class Launch4jMojoReproducibleTest extends AbstractMojoTestCase {
+
+    private static final String LAUNCH4J_VERSION = "3.50";
+
+    private Path temp;
+
+    private File bindir;
+
+    private String previousBindir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        temp = Files.createTempDirectory("launch4j-reproducible");
+        bindir = Files.createDirectory(temp.resolve("bin")).toFile();
+        new SyntheticPe().timestamp(1_000_000_000).withCheckSum().writeTo(new File(bindir, "linked1.exe"));
+        new SyntheticPe().timestamp(1_600_000_000).withCheckSum().writeTo(new File(bindir, "linked2.exe"));
+        // windres <preprocessor> -J rc -O coff -F pe-i386 <rc> <o>
+        script("windres", "cp \"$8\" \"$9\"");
+        // ld <options> <objects> -o <out>, each run emits the next linked executable
+        script("ld", "out=''\n"
+                + "while [ $# -gt 0 ]; do\n"
+                + "  if [ \"$1\" = '-o' ]; then out=\"$2\"; shift; fi\n"
+                + "  shift\n"
+                + "done\n"
+                + "dir=\"$(dirname \"$0\")\"\n"
+                + "run=$(( $(cat \"$dir/ld.runs\" 2>/dev/null || echo 0) + 1 ))\n"
+                + "echo $run > \"$dir/ld.runs\"\n"
+                + "cp \"$dir/linked$run.exe\" \"$out\"");
+        previousBindir = System.setProperty("launch4j.bindir", bindir.getAbsolutePath());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (previousBindir == null) {
+            System.clearProperty("launch4j.bindir");
+        } else {
+            System.setProperty("launch4j.bindir", previousBindir);
+        }
+        try (Stream<Path> files = Files.walk(temp)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+        super.tearDown();
+    }
+
+    public void testReproducibleBuildsProduceSameExecutable() throws Exception {
+        if (!temp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            // the fake binutils are shell scripts
+            return;
+        }
+        // given the same project built twice, in other directories and with jars created at other times
+        File first = project("first", "main class of the app", 1_100_000_000_000L);
+        File second = project("second", "main class of the app", 1_650_000_000_000L);
+
+        // when
+        File firstExe = execute(first);
+        File secondExe = execute(second);
+
+        // then
+        assertEquals("2", new String(Files.readAllBytes(new File(bindir, "ld.runs").toPath()), StandardCharsets.US_ASCII).trim());
+        assertFalse(Digests.sha256(new File(bindir, "linked1.exe")).equals(Digests.sha256(new File(bindir, "linked2.exe"))));
+        assertEquals(Digests.sha256(firstExe), Digests.sha256(secondExe));
+    }
+
+    public void testRewrappedExecutableIsSameAsBuiltOne() throws Exception {
+        if (!temp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            // the fake binutils are shell scripts
+            return;
+        }
+        // given an executable built before only the jar has changed
+        File rewrapped = project("rewrapped", "main class of the app", 1_100_000_000_000L);
+        execute(rewrapped);
+        project(rewrapped, "changed main class of the app", 1_200_000_000_000L);
+        File built = project("built", "changed main class of the app", 1_650_000_000_000L);
+
+        // when
+        File rewrappedExe = execute(rewrapped);
+        File builtExe = execute(built);
+
+        // then
+        assertEquals("only the second project is linked again",
+                "2", new String(Files.readAllBytes(new File(bindir, "ld.runs").toPath()), StandardCharsets.US_ASCII).trim());
+        assertEquals(Digests.sha256(builtExe), Digests.sha256(rewrappedExe));
+    }
+
+    public void testExecutableIsBuiltAgainByAnotherPluginVersion() throws Exception {
+        if (!temp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            // the fake binutils are shell scripts
+            return;
+        }
+        // given
+        File project = project("project", "main class of the app", 1_100_000_000_000L);
+        File exe = execute(project, null);
+        String digest = Digests.sha256(exe);
+
+        // when
+        execute(project, null);
+        execute(project, "0.0.1");
+
+        // then
+        BuildFingerprint fingerprint = BuildFingerprint.read(BuildFingerprint.fileFor(exe));
+        assertNotNull(fingerprint);
+        assertEquals("com.akathist.maven.plugins.launch4j:launch4j-maven-plugin:0.0.1", fingerprint.getComponents().get("plugin"));
+        assertEquals("the same version is up-to-date, another one builds the executable again",
+                "2", new String(Files.readAllBytes(new File(bindir, "ld.runs").toPath()), StandardCharsets.US_ASCII).trim());
+        assertEquals("the same inputs produce the same executable", digest, Digests.sha256(exe));
+    }
+
+    /**
+     * Executes the mojo configured by the test project in a new session, as a separate build of the project.
+     *
+     * @return the executable
+     */
+    private File execute(File basedir) throws Exception {
+        return execute(basedir, null);
+    }
+
+    /**
+     * @param pluginVersion version of the plugin the mojo reports, the one being built if null
+     */
+    private File execute(File basedir, String pluginVersion) throws Exception {
+        File testPom = new File(getBasedir(), "src/test/resources/unit/launch4j-config/launch4j-reproducible-plugin-config.xml");
+        Model model;
+        try (Reader reader = Files.newBufferedReader(testPom.toPath(), StandardCharsets.UTF_8)) {
+            model = new MavenXpp3Reader().read(reader);
+        }
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File(basedir, "pom.xml"));
+        project.getBuild().setDirectory(new File(basedir, "target").getPath());
+        project.getBuild().setFinalName("app");
+
+        MavenSession session = newMavenSession(project);
+        MojoExecution execution = newMojoExecution("launch4j");
+        Xpp3Dom configuration = (Xpp3Dom) project.getBuildPlugins().get(0).getConfiguration();
+        execution.setConfiguration(Xpp3Dom.mergeXpp3Dom(configuration, execution.getConfiguration()));
+        Launch4jMojo mojo = (Launch4jMojo) lookupConfiguredMojo(session, execution);
+
+        setVariableValueToObject(mojo, "repositorySystem", repositorySystem(temp.resolve("repository").toFile()));
+        if (pluginVersion != null) {
+            PluginDescriptor plugin = new PluginDescriptor();
+            plugin.setGroupId(execution.getGroupId());
+            plugin.setArtifactId(execution.getArtifactId());
+            plugin.setVersion(pluginVersion);
+            MojoDescriptor mojoDescriptor = new MojoDescriptor();
+            mojoDescriptor.setGoal("launch4j");
+            mojoDescriptor.setPluginDescriptor(plugin);
+            setVariableValueToObject(mojo, "mojoExecution", new MojoExecution(mojoDescriptor, execution.getExecutionId()));
+        }
+        setVariableValueToObject(mojo, "oldPluginArtifacts", Collections.singletonList(new DefaultArtifact(
+                "net.sf.launch4j", "launch4j", LAUNCH4J_VERSION, "compile", "jar", "core", new DefaultArtifactHandler("jar"))));
+
+        mojo.execute();
+        return new File(basedir, "target/launch4j-reproducible.exe");
+    }
+
+    /**
+     * Resolves the platform-specific work directory into a jar of placeholders, the binutils come from launch4j.bindir.
+     */
+    private RepositorySystem repositorySystem(File repository) throws Exception {
+        RepositorySystem system = mock(RepositorySystem.class);
+        when(system.resolveArtifact(any(), any(ArtifactRequest.class))).thenAnswer(invocation -> {
+            ArtifactRequest request = invocation.getArgument(1);
+            Artifact artifact = request.getArtifact();
+            String name = artifact.getArtifactId() + "-" + artifact.getVersion() + "-" + artifact.getClassifier();
+            File jar = new File(repository, "net/sf/launch4j/launch4j/" + artifact.getVersion() + "/" + name + ".jar");
+            if (!jar.isFile()) {
+                Files.createDirectories(jar.getParentFile().toPath());
+                try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+                    for (String file : new String[]{"bin/ld", "bin/windres", "w32api/crt2.o", "head/guihead.o", "head/head.o"}) {
+                        out.putNextEntry(new JarEntry(name + "/" + file));
+                        out.write(file.getBytes(StandardCharsets.US_ASCII));
+                        out.closeEntry();
+                    }
+                }
+            }
+            ArtifactResult result = new ArtifactResult(request);
+            result.setArtifact(artifact.setFile(jar));
+            return result;
+        });
+        return system;
+    }
+
+    private File project(String name, String content, long jarCreatedMillis) throws IOException {
+        return project(Files.createDirectory(temp.resolve(name)).toFile(), content, jarCreatedMillis);
+    }
+
+    private File project(File basedir, String content, long jarCreatedMillis) throws IOException {
+        File jar = new File(basedir, "target/app.jar");
+        Files.createDirectories(jar.getParentFile().toPath());
+        try (OutputStream file = Files.newOutputStream(jar.toPath());
+             JarOutputStream out = new JarOutputStream(file)) {
+            JarEntry entry = new JarEntry("app/Main.class");
+            entry.setTime(jarCreatedMillis);
+            out.putNextEntry(entry);
+            out.write(content.getBytes(StandardCharsets.US_ASCII));
+            out.closeEntry();
+        }
+        return basedir;
+    }
+
+    private void script(String name, String body) throws IOException {
+        File file = new File(bindir, name);
+        Files.write(file.toPath(), ("#!/bin/sh\n" + body + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+}
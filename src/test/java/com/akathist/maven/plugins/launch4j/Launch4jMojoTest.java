@@ -96,7 +96,19 @@ public class Launch4jMojoTest extends AbstractMojoTestCase {
                 "saveConfig=false, " +
                 "configOutfile=null, " +
                 "parallelExecution=false, " +
-                "skip=false" +
+                "skip=false, " +
+                "upToDateCheck=true, " +
+                "incrementalPatch=false, " +
+                "buildCache=null, " +
+                "reproducible=false, " +
+                "outputTimestamp=null, " +
+                "binutils=null, " +
+                "resourceCompiler=windres, " +
+                "outputFsync=none, " +
+                "buildReport=false, " +
+                "traceFile=null, " +
+                "launchers=null, " +
+                "matrix=null" +
                 "}", mojo.toString());
     }
 }
\ No newline at end of file
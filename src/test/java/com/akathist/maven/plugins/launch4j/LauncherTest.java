@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j;
+
+import net.sf.launch4j.config.Config;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LauncherTest {
+
+    private Config defaults;
+
+    @Before
+    public void setUp() {
+        defaults = new Config();
+        defaults.setHeaderType(Config.GUI_HEADER);
+        defaults.setOutfile(new File("target/app.exe"));
+        defaults.setJar(new File("target/app.jar"));
+        defaults.setErrTitle("App");
+        net.sf.launch4j.config.Jre jre = new net.sf.launch4j.config.Jre();
+        jre.setPath("%JAVA_HOME%;%PATH%");
+        defaults.setJre(jre);
+        net.sf.launch4j.config.VersionInfo versionInfo = new net.sf.launch4j.config.VersionInfo();
+        versionInfo.setOriginalFilename("app.exe");
+        defaults.setVersionInfo(versionInfo);
+    }
+
+    @Test
+    public void shouldOverrideDefaults() {
+        // given
+        Launcher launcher = new Launcher();
+        launcher.outfile = new File("target/appc.exe");
+        launcher.headerType = Config.CONSOLE_HEADER;
+        launcher.jre = new Jre();
+        launcher.jre.minVersion = "17";
+
+        // when
+        Config config = launcher.toL4j(defaults, Collections.emptySet());
+
+        // then
+        assertEquals(new File("target/appc.exe"), config.getOutfile());
+        assertEquals(Config.CONSOLE_HEADER, config.getHeaderType());
+        assertEquals("17", config.getJre().getMinVersion());
+        assertEquals("%JAVA_HOME%;%PATH%", config.getJre().getPath());
+        assertEquals("appc.exe", config.getVersionInfo().getOriginalFilename());
+    }
+
+    @Test
+    public void shouldKeepDefaultsUntouched() {
+        // given
+        Launcher launcher = new Launcher();
+        launcher.outfile = new File("target/admin.exe");
+        launcher.errTitle = "Admin";
+
+        // when
+        Config config = launcher.toL4j(defaults, Collections.emptySet());
+
+        // then
+        assertEquals("Admin", config.getErrTitle());
+        assertEquals(new File("target/app.jar"), config.getJar());
+        assertEquals(Config.GUI_HEADER, config.getHeaderType());
+        assertEquals("App", defaults.getErrTitle());
+        assertEquals(new File("target/app.exe"), defaults.getOutfile());
+        assertEquals("app.exe", defaults.getVersionInfo().getOriginalFilename());
+        assertNull(defaults.getJre().getMinVersion());
+    }
+}
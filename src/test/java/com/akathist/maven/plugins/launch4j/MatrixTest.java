@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j;
+
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.LanguageID;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MatrixTest {
+
+    private Config config;
+
+    @Before
+    public void setUp() {
+        config = new Config();
+        config.setHeaderType(Config.GUI_HEADER);
+        config.setOutfile(new File("target/app.exe"));
+        net.sf.launch4j.config.VersionInfo versionInfo = new net.sf.launch4j.config.VersionInfo();
+        versionInfo.setOriginalFilename("app.exe");
+        versionInfo.setLanguage(LanguageID.ENGLISH_US);
+        config.setVersionInfo(versionInfo);
+    }
+
+    @Test
+    public void shouldExpandAllCombinations() throws Exception {
+        // given
+        Matrix matrix = new Matrix();
+        matrix.headerTypes = Arrays.asList(Config.GUI_HEADER, Config.CONSOLE_HEADER);
+        matrix.locales = Arrays.asList(locale("ENGLISH_US", "en"), locale("GERMAN", null));
+        matrix.locales.get(1).messages = new Messages();
+        matrix.locales.get(1).messages.jreNotFoundErr = "Java wurde nicht gefunden";
+
+        // when
+        List<Config> variants = matrix.expand(Collections.singletonList(config));
+
+        // then
+        assertEquals(4, variants.size());
+        Config consoleGerman = variants.get(3);
+        assertEquals(new File("target/app-console-german.exe"), consoleGerman.getOutfile());
+        assertEquals(Config.CONSOLE_HEADER, consoleGerman.getHeaderType());
+        assertEquals(LanguageID.GERMAN, consoleGerman.getVersionInfo().getLanguage());
+        assertEquals("app-console-german.exe", consoleGerman.getVersionInfo().getOriginalFilename());
+        assertEquals("Java wurde nicht gefunden", consoleGerman.getMessages().getJreNotFoundErr());
+        assertEquals(new File("target/app-gui-en.exe"), variants.get(0).getOutfile());
+        assertEquals(LanguageID.ENGLISH_US, config.getVersionInfo().getLanguage());
+    }
+
+    @Test
+    public void shouldExpandSingleDimension() throws Exception {
+        // given
+        Matrix matrix = new Matrix();
+        matrix.headerTypes = Arrays.asList(Config.GUI_HEADER, Config.CONSOLE_HEADER);
+
+        // when
+        List<Config> variants = matrix.expand(Collections.singletonList(config));
+
+        // then
+        assertEquals(2, variants.size());
+        assertEquals(new File("target/app-console.exe"), variants.get(1).getOutfile());
+        assertEquals(LanguageID.ENGLISH_US, variants.get(1).getVersionInfo().getLanguage());
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void shouldRejectUnknownLanguage() throws Exception {
+        // given
+        Matrix matrix = new Matrix();
+        matrix.locales = Collections.singletonList(locale("KLINGON", null));
+
+        // when
+        matrix.expand(Collections.singletonList(config));
+    }
+
+    private static MatrixLocale locale(String language, String suffix) {
+        MatrixLocale locale = new MatrixLocale();
+        locale.language = language;
+        locale.suffix = suffix;
+        return locale;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.MavenLog;
+import com.akathist.maven.plugins.launch4j.pe.SyntheticPe;
+import com.akathist.maven.plugins.launch4j.report.BuildReport;
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+import com.akathist.maven.plugins.launch4j.tools.JarNormalizer;
+import net.sf.launch4j.BuilderException;
+import net.sf.launch4j.ExecException;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.ConfigPersister;
+import net.sf.launch4j.config.Jre;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs many builds in parallel with fake binutils, each build must produce its own executable.
+ */
+public class ExecutableBuilderStressTest {
+
+    private static final int BUILDS = 32;
+    private static final long WINDRES_MILLIS = 200;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File workDir;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("POSIX file system required", temp.getRoot().toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+        workDir = temp.newFolder("workdir");
+        assertTrue(new File(workDir, "bin").mkdir());
+        // windres <preprocessor> -J rc -O coff -F pe-i386 <rc> <o>
+        script("windres", "sleep 0." + WINDRES_MILLIS / 100 + "\necho \"$8\" >> \"$(dirname \"$0\")/windres.log\"\ncp \"$8\" \"$9\"");
+        // ld <options> <objects> -o <out>, concatenates all the existing inputs
+        script("ld", "out=''; files=''\n"
+                + "while [ $# -gt 0 ]; do\n"
+                + "  if [ \"$1\" = '-o' ]; then out=\"$2\"; shift\n"
+                + "  elif [ -f \"$1\" ]; then files=\"$files $1\"; fi\n"
+                + "  shift\n"
+                + "done\n"
+                + "cat $files > \"$out\"");
+    }
+
+    @Test
+    public void shouldBuildManyExecutablesInParallel() throws Exception {
+        // given
+        Config singleton = ConfigPersister.getInstance().getConfig();
+        List<Config> configs = new ArrayList<>();
+        for (int i = 0; i < BUILDS; i++) {
+            configs.add(config(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(BUILDS);
+
+        // when
+        long start = System.nanoTime();
+        List<Future<File>> futures = new ArrayList<>();
+        try {
+            for (Config config : configs) {
+                futures.add(executor.submit(() ->
+                        new ExecutableBuilder(new MavenLog(new SystemStreamLog()), workDir).build(config, temp.getRoot())));
+            }
+            for (Future<File> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        for (int i = 0; i < BUILDS; i++) {
+            String exe = new String(Files.readAllBytes(new File(temp.getRoot(), "app" + i + ".exe").toPath()), StandardCharsets.ISO_8859_1);
+            assertTrue("resources of build " + i, exe.contains("Error of app " + i + "."));
+            assertTrue("jar of build " + i, exe.endsWith("jar of app " + i + "."));
+            assertEquals("each build has its own resources", 1, exe.split("Error of app ").length - 1);
+        }
+        assertTrue("builds should overlap, took " + elapsedMillis + " ms", elapsedMillis < BUILDS * WINDRES_MILLIS / 2);
+        assertEquals("global configuration is left untouched", singleton, ConfigPersister.getInstance().getConfig());
+    }
+
+    @Test
+    public void shouldCompileSameResourcesOnce() throws Exception {
+        // given GUI and console variants with the same resources
+        ResourceObjects resources = new ResourceObjects(temp.newFolder("resources"));
+        List<Config> variants = new ArrayList<>();
+        for (String headerType : new String[]{Config.GUI_HEADER, Config.CONSOLE_HEADER}) {
+            for (int i = 0; i < 2; i++) {
+                Config config = config(i);
+                config.setHeaderType(headerType);
+                config.setOutfile(new File("app" + i + "-" + headerType + ".exe"));
+                variants.add(config);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(variants.size());
+
+        // when
+        List<Future<File>> futures = new ArrayList<>();
+        try {
+            for (Config config : variants) {
+                futures.add(executor.submit(() ->
+                        new ExecutableBuilder(new MavenLog(new SystemStreamLog()), workDir, null, resources).build(config, temp.getRoot())));
+            }
+            for (Future<File> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertEquals("one object per distinct resource script", 2, resources.size());
+        assertEquals(2, Files.readAllLines(new File(workDir, "bin/windres.log").toPath()).size());
+        for (String headerType : new String[]{Config.GUI_HEADER, Config.CONSOLE_HEADER}) {
+            String exe = new String(Files.readAllBytes(new File(temp.getRoot(), "app1-" + headerType + ".exe").toPath()), StandardCharsets.ISO_8859_1);
+            assertTrue(exe.contains("Error of app 1."));
+            assertTrue(exe.endsWith("jar of app 1."));
+        }
+    }
+
+    @Test
+    public void shouldCompileResourcesInProcess() throws Exception {
+        // given
+        ExecutableBuilder builder = new ExecutableBuilder(new MavenLog(new SystemStreamLog()), workDir);
+        builder.setResourceCompiler(ResourceCompiler.JAVA);
+
+        // when
+        File out = builder.build(config(0), temp.getRoot());
+
+        // then
+        String exe = new String(Files.readAllBytes(out.toPath()), StandardCharsets.ISO_8859_1);
+        assertTrue(exe.contains("Error of app 0.\0"));
+        assertTrue(exe.endsWith("jar of app 0."));
+        assertFalse("windres isn't started", new File(workDir, "bin/windres.log").exists());
+    }
+
+    @Test
+    public void shouldReportStepsAndProcesses() throws Exception {
+        // given
+        BuildReport report = new BuildReport("default");
+        ExecutableBuilder builder = new ExecutableBuilder(new MavenLog(new SystemStreamLog()), workDir);
+        builder.setReport(report);
+
+        // when
+        File out = builder.build(config(0), temp.getRoot());
+
+        // then
+        List<String> steps = new ArrayList<>();
+        for (BuildReport.Phase phase : report.getPhases()) {
+            steps.add(phase.getName());
+            assertEquals(out.getPath(), phase.getTarget());
+        }
+        assertEquals(Arrays.asList("compileResources", "link", "wrap"), steps);
+        assertEquals(Long.valueOf(2), report.getCounters().get(BuildReport.PROCESSES));
+        assertEquals(Long.valueOf("jar of app 0.".length()), report.getCounters().get(BuildReport.BYTES_READ));
+    }
+
+    @Test
+    public void shouldKeepPreviousExecutableWhenBuildFails() throws Exception {
+        // given
+        File out = new File(temp.getRoot(), "app0.exe");
+        Files.write(out.toPath(), "previous executable".getBytes(StandardCharsets.US_ASCII));
+        script("ld", "echo 'partial' > \"$(eval echo \\${$#})\"\nexit 1");
+
+        // when
+        try {
+            new ExecutableBuilder(new MavenLog(new SystemStreamLog()), workDir).build(config(0), temp.getRoot());
+            fail("the build should fail");
+        } catch (BuilderException e) {
+            // expected
+        }
+
+        // then
+        assertEquals("previous executable", new String(Files.readAllBytes(out.toPath()), StandardCharsets.US_ASCII));
+        String[] tmpFiles = temp.getRoot().list((dir, name) -> name.endsWith(".tmp"));
+        assertEquals("no temporary files are left", 0, tmpFiles.length);
+    }
+
+    @Test
+    public void shouldBuildSameExecutableFromSameInputs() throws Exception {
+        // given ld stamping each run with another time, the same as the real one does
+        new SyntheticPe().timestamp(1_000_000_000).withCheckSum().writeTo(new File(workDir, "bin/linked1.exe"));
+        new SyntheticPe().timestamp(1_600_000_000).withCheckSum().writeTo(new File(workDir, "bin/linked2.exe"));
+        script("ld", "out=''\n"
+                + "while [ $# -gt 0 ]; do\n"
+                + "  if [ \"$1\" = '-o' ]; then out=\"$2\"; shift; fi\n"
+                + "  shift\n"
+                + "done\n"
+                + "dir=\"$(dirname \"$0\")\"\n"
+                + "run=$(( $(cat \"$dir/ld.runs\" 2>/dev/null || echo 0) + 1 ))\n"
+                + "echo $run > \"$dir/ld.runs\"\n"
+                + "cp \"$dir/linked$run.exe\" \"$out\"");
+        int timestamp = 1_700_000_000;
+
+        // when
+        String first = reproducibleBuild(timestamp, 1_100_000_000_000L);
+        String second = reproducibleBuild(timestamp, 1_650_000_000_000L);
+
+        // then
+        assertNotEquals(Digests.sha256(new File(workDir, "bin/linked1.exe")), Digests.sha256(new File(workDir, "bin/linked2.exe")));
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void shouldTakeExitCodeFromFailedProcess() {
+        // given
+        ExecException failed = new ExecException("Exec failed (3): bin/ld -mi386pe (1).o");
+        ExecException unknown = new ExecException("Exec failed", 12);
+
+        // when
+        int exitCode = ExecutableBuilder.exitCode(failed);
+
+        // then
+        assertEquals(3, exitCode);
+        assertEquals(-1, ExecutableBuilder.exitCode(unknown));
+    }
+
+    @Test
+    public void shouldResolveRelativeFilesAgainstConfigDirectory() throws Exception {
+        // given
+        Config config = config(0);
+        config.setOutfile(new File("app.exe"));
+        config.setIcon(new File("app.ico"));
+
+        // when
+        Config resolved = ExecutableBuilder.resolve(config, temp.getRoot());
+
+        // then
+        assertEquals(new File(temp.getRoot(), "app.exe"), resolved.getOutfile());
+        assertEquals(new File(temp.getRoot(), "app.ico"), resolved.getIcon());
+        assertEquals(new File("app.exe"), config.getOutfile());
+    }
+
+    /**
+     * Builds the executable from a jar created at the given time and normalized the same way the mojo does it.
+     *
+     * @return SHA-256 of the executable
+     */
+    private String reproducibleBuild(int timestamp, long jarCreatedMillis) throws Exception {
+        Config config = config(0);
+        File raw = new File(temp.getRoot(), "raw.jar");
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(raw.toPath()))) {
+            JarEntry entry = new JarEntry("app/Main.class");
+            entry.setTime(jarCreatedMillis);
+            jar.putNextEntry(entry);
+            jar.write("main class of app 0.".getBytes(StandardCharsets.US_ASCII));
+            jar.closeEntry();
+        }
+        JarNormalizer.normalize(raw, new File(temp.getRoot(), config.getJar().getPath()), timestamp);
+
+        ExecutableBuilder builder = new ExecutableBuilder(new MavenLog(new SystemStreamLog()), workDir);
+        builder.setResourceCompiler(ResourceCompiler.JAVA);
+        builder.setTimestamp(timestamp);
+        return Digests.sha256(builder.build(config, temp.getRoot()));
+    }
+
+    private Config config(int i) throws Exception {
+        File jar = new File(temp.getRoot(), "app" + i + ".jar");
+        Files.write(jar.toPath(), ("jar of app " + i + ".").getBytes(StandardCharsets.US_ASCII));
+
+        Config config = new Config();
+        config.setHeaderType(Config.GUI_HEADER);
+        config.setJar(new File(jar.getName()));
+        config.setOutfile(new File("app" + i + ".exe"));
+        config.setErrTitle("Error of app " + i + ".");
+        Jre jre = new Jre();
+        jre.setPath("%JAVA_HOME%");
+        config.setJre(jre);
+        return config;
+    }
+
+    private void script(String name, String body) throws Exception {
+        File file = new File(workDir, "bin/" + name);
+        Files.write(file.toPath(), ("#!/bin/sh\n" + body + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+}
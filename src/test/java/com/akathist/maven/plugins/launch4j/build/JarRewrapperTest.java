@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.pe.PeFile;
+import com.akathist.maven.plugins.launch4j.pe.SyntheticPe;
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JarRewrapperTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldAppendNewJarToPreviousHeader() throws Exception {
+        // given
+        byte[] oldJar = jar("old", 100);
+        File exe = new SyntheticPe().timestamp(1000).overlay(oldJar).writeTo(temp.newFile("app.exe"));
+        File newJar = write(temp.newFile("app.jar"), jar("new", 5000));
+
+        // when
+        boolean rewrapped = JarRewrapper.rewrap(exe, newJar, Digests.sha256(oldJar));
+
+        // then
+        assertTrue(rewrapped);
+        byte[] bytes = Files.readAllBytes(exe.toPath());
+        byte[] expectedHeader = Arrays.copyOf(new SyntheticPe().timestamp(1000).toBytes(), SyntheticPe.IMAGE_SIZE);
+        assertArrayEquals(expectedHeader, Arrays.copyOf(bytes, SyntheticPe.IMAGE_SIZE));
+        assertArrayEquals(Files.readAllBytes(newJar.toPath()), Arrays.copyOfRange(bytes, SyntheticPe.IMAGE_SIZE, bytes.length));
+    }
+
+    @Test
+    public void shouldUpdateChecksum() throws Exception {
+        // given
+        File exe = new SyntheticPe().withCheckSum().overlay(jar("old", 10)).writeTo(temp.newFile("app.exe"));
+        File newJar = write(temp.newFile("app.jar"), jar("new", 10));
+
+        // when
+        assertTrue(JarRewrapper.rewrap(exe, newJar, null));
+
+        // then
+        assertEquals(SyntheticPe.checkSum(Files.readAllBytes(exe.toPath())), PeFile.read(exe).getCheckSum());
+    }
+
+    @Test
+    public void shouldRefuseWhenPreviousJarDiffers() throws Exception {
+        // given
+        byte[] original = new SyntheticPe().overlay(jar("old", 10)).toBytes();
+        File exe = write(temp.newFile("app.exe"), original);
+        File newJar = write(temp.newFile("app.jar"), jar("new", 10));
+
+        // when
+        boolean rewrapped = JarRewrapper.rewrap(exe, newJar, Digests.sha256("something else"));
+
+        // then
+        assertFalse(rewrapped);
+        assertArrayEquals(original, Files.readAllBytes(exe.toPath()));
+    }
+
+    @Test
+    public void shouldRefuseWhenNothingIsWrapped() throws Exception {
+        // given
+        File exe = new SyntheticPe().writeTo(temp.newFile("app.exe"));
+        File newJar = write(temp.newFile("app.jar"), jar("new", 10));
+
+        // then
+        assertFalse(JarRewrapper.rewrap(exe, newJar, null));
+        assertFalse(JarRewrapper.rewrap(write(temp.newFile("broken.exe"), new byte[100]), newJar, null));
+    }
+
+    private static byte[] jar(String name, int size) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JarOutputStream out = new JarOutputStream(bytes)) {
+            out.putNextEntry(new JarEntry(name + ".txt"));
+            out.write(new byte[size]);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static File write(File file, byte[] content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.MavenLog;
+import com.akathist.maven.plugins.launch4j.pe.SyntheticPe;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.Jre;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Wraps a jar bigger than 2 GB in a JVM limited to {@link #MAX_HEAP} of heap, the jar must be streamed
+ * into the executable and never held in memory. Run with <code>-Dlaunch4j.benchmark=true</code>,
+ * it needs about 5 GB of free disk space.
+ */
+public class JarWrapMemoryTest {
+
+    private static final String MAX_HEAP = "-Xmx48m";
+    private static final long JAR_SIZE = (2L << 30) + 4099;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File workDir;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("Benchmark disabled, use -Dlaunch4j.benchmark=true", Boolean.getBoolean("launch4j.benchmark"));
+        assumeTrue("POSIX file system required", temp.getRoot().toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+        workDir = temp.newFolder("workdir");
+        assumeTrue(new File(workDir, "bin").mkdir());
+        // ld <options> <objects> -o <out>, copies a checksummed header
+        File header = new SyntheticPe().withCheckSum().writeTo(new File(workDir, "header.exe"));
+        File ld = new File(workDir, "bin/ld");
+        Files.write(ld.toPath(), ("#!/bin/sh\n"
+                + "while [ $# -gt 0 ]; do if [ \"$1\" = '-o' ]; then cp '" + header + "' \"$2\"; shift; fi; shift; done\n")
+                .getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(ld.toPath(), PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+
+    @Test
+    public void shouldWrapHugeJarWithSmallHeap() throws Exception {
+        // given a sparse jar, only its signature is written
+        File jar = new File(temp.getRoot(), "app.jar");
+        try (RandomAccessFile file = new RandomAccessFile(jar, "rw")) {
+            file.write(new byte[]{'P', 'K', 3, 4});
+            file.setLength(JAR_SIZE);
+        }
+        File out = new File(temp.getRoot(), "app.exe");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+        // when
+        Process process = new ProcessBuilder(java, MAX_HEAP, "-cp", System.getProperty("java.class.path"),
+                Wrap.class.getName(), workDir.getPath(), temp.getRoot().getPath(), jar.getName(), out.getName())
+                .inheritIO()
+                .start();
+        assertTrue("wrapping takes too long", process.waitFor(10, TimeUnit.MINUTES));
+
+        // then
+        assertEquals("builds and rewraps the jar without running out of memory", 0, process.exitValue());
+        assertEquals(SyntheticPe.IMAGE_SIZE + JAR_SIZE, out.length());
+        try (RandomAccessFile exe = new RandomAccessFile(out, "r")) {
+            exe.seek(SyntheticPe.IMAGE_SIZE);
+            assertEquals(0x504b0304, exe.readInt());
+        }
+    }
+
+    /**
+     * Builds the executable and rewraps the jar into it, runs in the child JVM.
+     */
+    public static class Wrap {
+
+        public static void main(String[] args) throws Exception {
+            File workDir = new File(args[0]);
+            File configDir = new File(args[1]);
+
+            Config config = new Config();
+            config.setHeaderType(Config.GUI_HEADER);
+            config.setJar(new File(args[2]));
+            config.setOutfile(new File(args[3]));
+            Jre jre = new Jre();
+            jre.setPath("%JAVA_HOME%");
+            config.setJre(jre);
+
+            ExecutableBuilder builder = new ExecutableBuilder(new MavenLog(new SystemStreamLog()), workDir);
+            builder.setResourceCompiler(ResourceCompiler.JAVA);
+            File out = builder.build(config, configDir);
+            if (!JarRewrapper.rewrap(out, new File(configDir, args[2]), null)) {
+                throw new IllegalStateException("Jar has not been rewrapped");
+            }
+        }
+    }
+}
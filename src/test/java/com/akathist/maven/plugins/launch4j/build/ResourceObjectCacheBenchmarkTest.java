@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.MavenLog;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.Jre;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares builds compiling the resources with builds reusing them from the {@link ResourceObjectCache}.
+ * Run with <code>-Dlaunch4j.benchmark=true</code>. By default <code>windres</code> and <code>ld</code> are
+ * simulated by scripts taking {@link #SIMULATED_WINDRES_MILLIS}, to measure the real tools pass an extracted
+ * Launch4j work directory with <code>-Dlaunch4j.benchmark.workdir=...</code>.
+ */
+public class ResourceObjectCacheBenchmarkTest {
+
+    private static final int ROUNDS = 10;
+    private static final int SIMULATED_WINDRES_MILLIS = 300;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File workDir;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("Benchmark disabled, use -Dlaunch4j.benchmark=true", Boolean.getBoolean("launch4j.benchmark"));
+        String realWorkDir = System.getProperty("launch4j.benchmark.workdir");
+        if (realWorkDir != null) {
+            workDir = new File(realWorkDir);
+        } else {
+            assumeTrue("POSIX file system required", temp.getRoot().toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+            workDir = temp.newFolder("workdir");
+            assumeTrue(new File(workDir, "bin").mkdir());
+            script("windres", "sleep " + SIMULATED_WINDRES_MILLIS / 1000.0 + "\ncp \"$8\" \"$9\"");
+            script("ld", "while [ $# -gt 0 ]; do if [ \"$1\" = '-o' ]; then : > \"$2\"; shift; fi; shift; done");
+        }
+    }
+
+    @Test
+    public void compareWithCompilingResources() throws Exception {
+        Config config = config();
+        ResourceObjectCache cache = new ResourceObjectCache(temp.newFolder("cache"), 16);
+        // warm up, fills the cache
+        build(config, new ResourceObjects(temp.newFolder(), cache));
+
+        long compiled = 0;
+        long cached = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            build(config, null);
+            compiled += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            build(config, new ResourceObjects(temp.newFolder(), cache));
+            cached += System.nanoTime() - start;
+        }
+
+        System.out.printf("Build compiling resources: %d ms%n", compiled / ROUNDS / 1_000_000);
+        System.out.printf("Build with cached objects: %d ms%n", cached / ROUNDS / 1_000_000);
+    }
+
+    private void build(Config config, ResourceObjects resources) throws Exception {
+        new ExecutableBuilder(new MavenLog(new SystemStreamLog()), workDir, temp.getRoot(), resources).build(config, temp.getRoot());
+    }
+
+    private Config config() throws Exception {
+        File jar = temp.newFile("app.jar");
+        Files.write(jar.toPath(), new byte[64 * 1024]);
+
+        Config config = new Config();
+        config.setHeaderType(Config.GUI_HEADER);
+        config.setJar(jar);
+        config.setOutfile(new File(temp.getRoot(), "app.exe"));
+        Jre jre = new Jre();
+        jre.setPath("%JAVA_HOME%");
+        config.setJre(jre);
+        net.sf.launch4j.config.VersionInfo versionInfo = new net.sf.launch4j.config.VersionInfo();
+        versionInfo.setFileVersion("1.0.0.0");
+        versionInfo.setTxtFileVersion("1.0.0");
+        versionInfo.setFileDescription("Benchmark");
+        versionInfo.setCopyright("Nobody");
+        versionInfo.setProductVersion("1.0.0.0");
+        versionInfo.setTxtProductVersion("1.0.0");
+        versionInfo.setProductName("Benchmark");
+        versionInfo.setInternalName("app");
+        versionInfo.setOriginalFilename("app.exe");
+        config.setVersionInfo(versionInfo);
+        return config;
+    }
+
+    private void script(String name, String body) throws Exception {
+        File file = new File(workDir, "bin/" + name);
+        Files.write(file.toPath(), ("#!/bin/sh\n" + body + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceObjectCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private ResourceObjectCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new ResourceObjectCache(new File(temp.getRoot(), "cache"), 2);
+    }
+
+    @Test
+    public void shouldFindStoredObject() throws Exception {
+        // given
+        File object = object("resources");
+
+        // when
+        File cached = cache.store("abc", object);
+
+        // then
+        assertEquals(cached, cache.find("abc"));
+        assertArrayEquals(Files.readAllBytes(object.toPath()), Files.readAllBytes(cached.toPath()));
+        assertNull(cache.find("def"));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedObjects() throws Exception {
+        // given
+        cache.store("a", object("a"));
+        cache.store("b", object("b"));
+        Files.setLastModifiedTime(cache.entryFor("a"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(cache.entryFor("b"), FileTime.fromMillis(2000));
+
+        // when
+        cache.store("c", object("c"));
+
+        // then
+        assertFalse(Files.exists(cache.entryFor("a")));
+        assertTrue(Files.exists(cache.entryFor("b")));
+        assertNotNull(cache.find("c"));
+    }
+
+    @Test
+    public void shouldReuseCachedObjectWithoutCompiling() throws Exception {
+        // given
+        File first = new ResourceObjects(temp.newFolder(), cache).get("key", object ->
+                Files.write(object.toPath(), "compiled".getBytes(StandardCharsets.UTF_8)));
+
+        // when
+        File second = new ResourceObjects(temp.newFolder(), cache).get("key", object -> {
+            throw new AssertionError("windres must not run on a cache hit");
+        });
+
+        // then
+        assertEquals(first, second);
+        assertArrayEquals("compiled".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(second.toPath()));
+    }
+
+    private File object(String content) throws Exception {
+        File file = temp.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
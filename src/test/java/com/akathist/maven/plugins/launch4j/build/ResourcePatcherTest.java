@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.pe.PeFile;
+import com.akathist.maven.plugins.launch4j.pe.PeResources;
+import com.akathist.maven.plugins.launch4j.pe.SyntheticPe;
+import com.akathist.maven.plugins.launch4j.pe.VersionResource;
+import net.sf.launch4j.config.Config;
+import net.sf.launch4j.config.LanguageID;
+import net.sf.launch4j.config.VersionInfo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourcePatcherTest {
+
+    private static final byte[] JAR = "PK\u0003\u0004 wrapped jar content".getBytes();
+
+    private static final byte[] ICON = {
+            0, 0, 1, 0, 1, 0,
+            16, 16, 0, 0, 1, 0, 32, 0, 3, 0, 0, 0, 22, 0, 0, 0,
+            7, 8, 9
+    };
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldPatchVersionInfo() throws Exception {
+        // given
+        File exe = previousExecutable();
+        Config config = new Config();
+        config.setVersionInfo(versionInfo("1.0.1.0"));
+
+        // when
+        boolean patched = ResourcePatcher.patch(exe, config, temp.getRoot(), Collections.singletonList("versionInfo"));
+
+        // then
+        assertTrue(patched);
+        PeResources resources = PeResources.read(PeFile.read(exe));
+        VersionResource version = VersionResource.read(resources.find(PeResources.RT_VERSION, 1).getData());
+        assertEquals("1.0.1.0", version.getFileVersion());
+        assertEquals("1.0.1.0", version.getProductVersion());
+        assertEquals("1.0.1", version.getStrings().get("FileVersion"));
+        assertEquals("app.exe", version.getStrings().get("OriginalFilename"));
+        assertEquals(LanguageID.ENGLISH_US.getId(), version.getLanguage());
+        assertArrayEquals("old manifest".getBytes(), resources.find(PeResources.RT_MANIFEST, 1).getData());
+        assertArrayEquals(new byte[]{1}, resources.find(PeResources.RT_ICON, 1).getData());
+        assertOverlay(exe);
+    }
+
+    @Test
+    public void shouldPatchIconAndManifest() throws Exception {
+        // given
+        File exe = previousExecutable();
+        Config config = new Config();
+        Files.write(temp.newFile("app.ico").toPath(), ICON);
+        Files.write(temp.newFile("app.manifest").toPath(), "new manifest".getBytes());
+        config.setIcon(new File("app.ico"));
+        config.setManifest(new File("app.manifest"));
+
+        // when
+        boolean patched = ResourcePatcher.patch(exe, config, temp.getRoot(), Arrays.asList("icon", "manifest"));
+
+        // then
+        assertTrue(patched);
+        PeResources resources = PeResources.read(PeFile.read(exe));
+        assertArrayEquals(new byte[]{7, 8, 9}, resources.find(PeResources.RT_ICON, 1).getData());
+        assertNull(resources.find(PeResources.RT_ICON, 2));
+        assertEquals(6 + 14, resources.find(PeResources.RT_GROUP_ICON, 1).getData().length);
+        assertArrayEquals("new manifest".getBytes(), resources.find(PeResources.RT_MANIFEST, 1).getData());
+        assertOverlay(exe);
+    }
+
+    @Test
+    public void shouldRemoveManifest() throws Exception {
+        // given
+        File exe = previousExecutable();
+
+        // when
+        boolean patched = ResourcePatcher.patch(exe, new Config(), temp.getRoot(), Collections.singletonList("manifest"));
+
+        // then
+        assertTrue(patched);
+        assertNull(PeResources.read(PeFile.read(exe)).find(PeResources.RT_MANIFEST, 1));
+    }
+
+    @Test
+    public void shouldLeaveUnsupportedExecutableUntouched() throws Exception {
+        // given
+        byte[] original = new SyntheticPe().overlay(JAR).toBytes();
+        File exe = temp.newFile("app.exe");
+        Files.write(exe.toPath(), original);
+        Config config = new Config();
+        config.setVersionInfo(versionInfo("1.0.1.0"));
+
+        // when
+        boolean patched = ResourcePatcher.patch(exe, config, temp.getRoot(), Collections.singletonList("versionInfo"));
+
+        // then
+        assertFalse(patched);
+        assertArrayEquals(original, Files.readAllBytes(exe.toPath()));
+    }
+
+    private File previousExecutable() throws Exception {
+        Config config = new Config();
+        config.setVersionInfo(versionInfo("1.0.0.0"));
+        PeResources resources = new PeResources();
+        resources.put(PeResources.RT_ICON, 1, new byte[]{1});
+        resources.put(PeResources.RT_ICON, 2, new byte[]{2});
+        resources.put(PeResources.RT_GROUP_ICON, 1, new byte[34]);
+        resources.put(PeResources.RT_MANIFEST, 1, "old manifest".getBytes());
+        resources.put(PeResources.RT_VERSION, 1, new byte[]{0});
+        resources.put(10, 14, "app.jar".getBytes());
+        return new SyntheticPe().resources(resources).withRelocations().withCheckSum().overlay(JAR)
+                .writeTo(temp.newFile("app.exe"));
+    }
+
+    private static VersionInfo versionInfo(String version) {
+        VersionInfo versionInfo = new VersionInfo();
+        versionInfo.setFileVersion(version);
+        versionInfo.setTxtFileVersion(version.substring(0, version.lastIndexOf('.')));
+        versionInfo.setProductVersion(version);
+        versionInfo.setTxtProductVersion(version);
+        versionInfo.setProductName("App");
+        versionInfo.setOriginalFilename("app.exe");
+        versionInfo.setLanguage(LanguageID.ENGLISH_US);
+        return versionInfo;
+    }
+
+    private static void assertOverlay(File exe) throws Exception {
+        PeFile pe = PeFile.read(exe);
+        byte[] bytes = Files.readAllBytes(exe.toPath());
+        assertArrayEquals(JAR, Arrays.copyOfRange(bytes, (int) pe.getOverlayOffset(), bytes.length));
+        assertArrayEquals("app.jar".getBytes(), PeResources.read(pe).find(10, 14).getData());
+        assertEquals(SyntheticPe.checkSum(bytes), pe.getCheckSum());
+    }
+}
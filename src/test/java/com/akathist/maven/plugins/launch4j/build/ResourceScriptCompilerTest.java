@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.build;
+
+import com.akathist.maven.plugins.launch4j.pe.CoffResourceObject;
+import com.akathist.maven.plugins.launch4j.pe.PeResources;
+import com.akathist.maven.plugins.launch4j.pe.VersionResource;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Compiles resource scripts generated by Launch4j and reads the objects back or compares them with the ones
+ * compiled by windres.
+ */
+public class ResourceScriptCompilerTest {
+
+    private static final byte[] ICON = {
+            0, 0, 1, 0, 2, 0,
+            16, 16, 0, 0, 1, 0, 32, 0, 2, 0, 0, 0, 38, 0, 0, 0,
+            32, 32, 0, 0, 1, 0, 32, 0, 3, 0, 0, 0, 40, 0, 0, 0,
+            1, 2, 3, 4, 5
+    };
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldCompileGoldenScript() throws Exception {
+        // given
+        File script = golden("launch4j.rc");
+        File object = new File(temp.getRoot(), "launch4j.o");
+
+        // when
+        ResourceScriptCompiler.compile(script, object);
+
+        // then
+        PeResources resources = CoffResourceObject.read(object);
+        assertEquals(14, resources.getResources().size());
+        PeResources.Resource version = resources.find(PeResources.RT_VERSION, 1);
+        assertEquals(PeResources.LANGUAGE_DEFAULT, version.getLanguage());
+        VersionResource versionInfo = VersionResource.read(version.getData());
+        assertEquals("1.2.3.4", versionInfo.getFileVersion());
+        assertEquals(0x409, versionInfo.getLanguage());
+        assertEquals(0x4e4, versionInfo.getCodePage());
+        assertEquals("Application", versionInfo.getStrings().get("FileDescription"));
+        assertEquals("", versionInfo.getStrings().get("LegalTrademarks"));
+        assertEquals(9, versionInfo.getStrings().size());
+        assertArrayEquals("%JAVA_HOME%;%PATH%\0".getBytes(StandardCharsets.US_ASCII), resources.find(10, 1).getData());
+        assertArrayEquals("Error \"quoted\" \\ path\r\nline\0".getBytes(StandardCharsets.US_ASCII), resources.find(10, 10).getData());
+        assertArrayEquals("true\0".getBytes(StandardCharsets.US_ASCII), resources.find(10, 17).getData());
+    }
+
+    @Test
+    public void shouldCompileFilesReferencedByScript() throws Exception {
+        // given
+        File icon = write("app.ico", ICON);
+        File manifest = write("app.manifest", "<assembly/>".getBytes(StandardCharsets.US_ASCII));
+        File bitmap = write("splash.bmp", "BM012345678901pixels".getBytes(StandardCharsets.US_ASCII));
+        File script = write("app.rc", ("LANGUAGE 0, 1\n"
+                + "1 24 \"" + manifest.getAbsolutePath() + "\"\n"
+                + "1 ICON DISCARDABLE \"" + icon.getAbsolutePath() + "\"\n"
+                + "1 BITMAP \"" + bitmap.getAbsolutePath() + "\"\n").getBytes(StandardCharsets.ISO_8859_1));
+        File object = new File(temp.getRoot(), "app.o");
+
+        // when
+        ResourceScriptCompiler.compile(script, object);
+
+        // then
+        PeResources resources = CoffResourceObject.read(object);
+        assertArrayEquals("<assembly/>".getBytes(StandardCharsets.US_ASCII), resources.find(PeResources.RT_MANIFEST, 1).getData());
+        assertArrayEquals(new byte[]{1, 2}, resources.find(PeResources.RT_ICON, 1).getData());
+        assertArrayEquals(new byte[]{3, 4, 5}, resources.find(PeResources.RT_ICON, 2).getData());
+        assertEquals(6 + 2 * 14, resources.find(PeResources.RT_GROUP_ICON, 1).getData().length);
+        assertArrayEquals("pixels".getBytes(StandardCharsets.US_ASCII), resources.find(2, 1).getData());
+    }
+
+    @Test
+    public void shouldCompileStringTablesAndEscapes() throws Exception {
+        // when
+        PeResources resources = ResourceScriptCompiler.parse("LANGUAGE 9, 1\n"
+                + "STRINGTABLE\nBEGIN\n  1, \"one\"\n  17 \"seventeen \\x41\\101\"\nEND\n"
+                + "/* comment */ 5 RCDATA { L\"wide\", 0x1234, 7L } // comment\n"
+                + "6 RCDATA LANGUAGE 7, 1 BEGIN \"café\" END\n");
+
+        // then
+        byte[] first = resources.find(6, 1).getData();
+        assertEquals(16 * 2 + 2 * 3, first.length);
+        assertEquals(3, first[2]);
+        assertEquals('o', first[4]);
+        byte[] second = resources.find(6, 2).getData();
+        assertEquals("seventeen AA", new String(second, 4, 12 * 2, StandardCharsets.UTF_16LE));
+        assertEquals(0x409, resources.find(6, 2).getLanguage());
+        assertArrayEquals(new byte[]{'w', 0, 'i', 0, 'd', 0, 'e', 0, 0x34, 0x12, 7, 0, 0, 0}, resources.find(10, 5).getData());
+        assertArrayEquals(new byte[]{'c', 'a', 'f', (byte) 0xe9}, resources.find(10, 6).getData());
+        assertEquals(0x407, resources.find(10, 6).getLanguage());
+    }
+
+    @Test
+    public void shouldReportUnsupportedStatements() throws Exception {
+        try {
+            // when
+            ResourceScriptCompiler.parse("LANGUAGE 0, 1\n1 DIALOG 0, 0, 100, 100\n");
+            fail("DIALOG is not supported");
+        } catch (ResourceScriptException e) {
+            // then
+            assertEquals("Line 2: Unsupported resource type DIALOG", e.getMessage());
+        }
+    }
+
+    /**
+     * The golden object is compiled from <code>launch4j.rc</code> with windres 2.26 of
+     * <code>net.sf.launch4j:launch4j:3.50:workdir-linux64</code>:
+     * <code>windres --preprocessor=cat -J rc -O coff -F pe-i386 launch4j.rc launch4j.o</code>
+     */
+    @Test
+    public void shouldProduceSameResourcesAsWindres() throws Exception {
+        // given
+        File script = golden("launch4j.rc");
+        File expected = golden("launch4j.o");
+        File actual = new File(temp.getRoot(), "java.o");
+
+        // when
+        ResourceScriptCompiler.compile(script, actual);
+
+        // then
+        assertEquals(describe(CoffResourceObject.read(expected)), describe(CoffResourceObject.read(actual)));
+        // only the flags of the file header and the symbol table differ, they don't end up in the executable
+        assertArrayEquals(rsrcSection(expected), rsrcSection(actual));
+    }
+
+    /**
+     * The section header, raw data and relocations of the single <code>.rsrc</code> section of the object.
+     */
+    private static byte[] rsrcSection(File object) throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(object.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(1, buffer.getShort(2));
+        int symbolTable = buffer.getInt(8);
+        return Arrays.copyOfRange(buffer.array(), 20, symbolTable);
+    }
+
+    private static String describe(PeResources resources) {
+        StringBuilder sb = new StringBuilder();
+        for (PeResources.Resource resource : resources.getResources()) {
+            sb.append(resource).append(' ').append(Arrays.toString(resource.getData())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private File golden(String name) throws Exception {
+        File file = new File(temp.getRoot(), name);
+        try (InputStream in = getClass().getResourceAsStream("/unit/resources/" + name)) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    private File write(String name, byte[] content) throws Exception {
+        File file = new File(temp.getRoot(), name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+}
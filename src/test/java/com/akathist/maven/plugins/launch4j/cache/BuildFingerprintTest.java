@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.cache;
+
+import net.sf.launch4j.config.Config;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BuildFingerprintTest {
+
+    private static final String TOOLCHAIN = "net.sf.launch4j:launch4j:3.50:linux64";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldNotDependOnLocationOfInputs() throws Exception {
+        // given
+        File first = temp.newFolder("first");
+        File second = temp.newFolder("second");
+
+        // when
+        BuildFingerprint a = BuildFingerprint.of(config(first, "icon"), first, TOOLCHAIN, null, null);
+        BuildFingerprint b = BuildFingerprint.of(config(second, "icon"), second, TOOLCHAIN, null, null);
+
+        // then
+        assertEquals(a, b);
+        assertEquals(a.getDigest(), b.getDigest());
+    }
+
+    @Test
+    public void shouldReportChangedComponents() throws Exception {
+        // given
+        File project = temp.newFolder("project");
+        BuildFingerprint before = BuildFingerprint.of(config(project, "icon"), project, TOOLCHAIN, null, null);
+
+        // when
+        BuildFingerprint after = BuildFingerprint.of(config(project, "another icon"), project, TOOLCHAIN, null, null);
+
+        // then
+        assertNotEquals(before, after);
+        assertEquals(Collections.singletonList("icon"), after.diff(before));
+    }
+
+    @Test
+    public void shouldTrackLaunch4jVersionAndConfig() throws Exception {
+        // given
+        File project = temp.newFolder("project");
+        Config config = config(project, "icon");
+        BuildFingerprint before = BuildFingerprint.of(config, project, TOOLCHAIN, null, null);
+
+        // when
+        config.setErrTitle("Another title");
+        BuildFingerprint after = BuildFingerprint.of(config, project, "net.sf.launch4j:launch4j:3.51:linux64", null, null);
+
+        // then
+        assertEquals(Arrays.asList("config", "launch4j"), after.diff(before));
+    }
+
+    @Test
+    public void shouldTrackContentOfHeaderObjectsOfTheProject() throws Exception {
+        // given
+        File project = temp.newFolder("project");
+        File obj = new File(project, "src/main/objs/head.o");
+        assertTrue(obj.getParentFile().mkdirs());
+        Files.write(obj.toPath(), "object".getBytes(StandardCharsets.UTF_8));
+        Map<String, Path> objs = new LinkedHashMap<>();
+        objs.put("src/main/objs/head.o", obj.toPath());
+        objs.put("w32api/crt2.o", null);
+        Config config = config(project, "icon");
+        BuildFingerprint before = BuildFingerprint.of(config, project, TOOLCHAIN, objs, null);
+
+        // when
+        Files.write(obj.toPath(), "another object".getBytes(StandardCharsets.UTF_8));
+        BuildFingerprint after = BuildFingerprint.of(config, project, TOOLCHAIN, objs, null);
+
+        // then
+        assertEquals(Collections.singletonList("objs"), after.diff(before));
+        assertEquals(Collections.singletonList("objs"), after.diff(BuildFingerprint.of(config, project, TOOLCHAIN, null, null)));
+    }
+
+    @Test
+    public void shouldAddAndRemoveComponents() throws Exception {
+        // given
+        File project = temp.newFolder("project");
+        BuildFingerprint fingerprint = BuildFingerprint.of(config(project, "icon"), project, TOOLCHAIN, null, null);
+
+        // when
+        BuildFingerprint marked = fingerprint.with("patched", "true");
+
+        // then
+        assertEquals(Collections.singletonList("patched"), marked.diff(fingerprint));
+        assertEquals(fingerprint, marked.without("patched"));
+        assertEquals(fingerprint, fingerprint.without("patched"));
+    }
+
+    @Test
+    public void shouldStoreAndReadFingerprint() throws Exception {
+        // given
+        File project = temp.newFolder("project");
+        BuildFingerprint fingerprint = BuildFingerprint.of(config(project, "icon"), project, TOOLCHAIN, null, null);
+        File file = BuildFingerprint.fileFor(new File(project, "app.exe"));
+
+        // when
+        fingerprint.write(file);
+
+        // then
+        assertEquals(new File(project, "app.exe.fingerprint"), file);
+        assertEquals(fingerprint, BuildFingerprint.read(file));
+        assertNull(BuildFingerprint.read(new File(project, "missing.fingerprint")));
+    }
+
+    private Config config(File dir, String iconContent) throws IOException {
+        File jar = new File(dir, "app.jar");
+        Files.write(jar.toPath(), "jar".getBytes(StandardCharsets.UTF_8));
+        File icon = new File(dir, "app.ico");
+        Files.write(icon.toPath(), iconContent.getBytes(StandardCharsets.UTF_8));
+
+        Config config = new Config();
+        config.setHeaderType("gui");
+        config.setJar(jar);
+        config.setIcon(icon);
+        config.setOutfile(new File(dir, "app.exe"));
+        config.setErrTitle("App");
+        return config;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LocalExecutableCacheTest {
+
+    private static final String KEY_A = "aa0000000000000000000000000000000000000000000000000000000000000a";
+    private static final String KEY_B = "bb0000000000000000000000000000000000000000000000000000000000000b";
+    private static final String KEY_C = "cc0000000000000000000000000000000000000000000000000000000000000c";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreStoredExecutable() throws Exception {
+        // given
+        LocalExecutableCache cache = new LocalExecutableCache(temp.newFolder("cache"), 1024);
+        File exe = executable("app.exe", 10);
+        File restored = new File(temp.getRoot(), "other/app.exe");
+
+        // when
+        cache.store(KEY_A, exe);
+
+        // then
+        assertTrue(cache.restore(KEY_A, restored, false));
+        assertArrayEquals(Files.readAllBytes(exe.toPath()), Files.readAllBytes(restored.toPath()));
+    }
+
+    @Test
+    public void shouldMissUnknownKey() throws Exception {
+        // given
+        LocalExecutableCache cache = new LocalExecutableCache(temp.newFolder("cache"), 1024);
+
+        // expect
+        assertFalse(cache.restore(KEY_A, new File(temp.getRoot(), "app.exe"), false));
+    }
+
+    @Test
+    public void shouldRestoreAsHardLink() throws Exception {
+        // given
+        LocalExecutableCache cache = new LocalExecutableCache(temp.newFolder("cache"), 1024);
+        cache.store(KEY_A, executable("app.exe", 10));
+        File restored = new File(temp.getRoot(), "restored.exe");
+
+        // when
+        assertTrue(cache.restore(KEY_A, restored, true));
+
+        // then
+        assertTrue(Files.isSameFile(cache.entryFor(KEY_A), restored.toPath()));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() throws Exception {
+        // given
+        LocalExecutableCache cache = new LocalExecutableCache(temp.newFolder("cache"), 250);
+        cache.store(KEY_A, executable("a.exe", 100));
+        cache.store(KEY_B, executable("b.exe", 100));
+        Files.setLastModifiedTime(cache.entryFor(KEY_A), FileTime.fromMillis(2000));
+        Files.setLastModifiedTime(cache.entryFor(KEY_B), FileTime.fromMillis(1000));
+
+        // when
+        cache.store(KEY_C, executable("c.exe", 100));
+
+        // then
+        assertTrue(Files.exists(cache.entryFor(KEY_A)));
+        assertFalse(Files.exists(cache.entryFor(KEY_B)));
+        assertTrue(Files.exists(cache.entryFor(KEY_C)));
+    }
+
+    private File executable(String name, int size) throws Exception {
+        File file = temp.newFile(name);
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (name.hashCode() + i);
+        }
+        Files.write(file.toPath(), content);
+        return file;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.cache;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs the remote cache against an embedded HTTP server storing the executables in memory.
+ */
+public class RemoteExecutableCacheTest {
+
+    private static final String KEY = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final Map<String, byte[]> stored = new ConcurrentHashMap<>();
+
+    private volatile long delayMillis;
+
+    private volatile long stallMillis;
+
+    private HttpServer server;
+
+    private String url;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/cache/", this::handle);
+        server.start();
+        url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/cache";
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldReportMissForUnknownExecutable() throws Exception {
+        // given
+        RemoteExecutableCache cache = new RemoteExecutableCache(url, Duration.ofSeconds(5));
+        File target = new File(temp.getRoot(), "app.exe");
+
+        // expect
+        assertFalse(cache.fetch(KEY, target));
+        assertFalse(target.exists());
+    }
+
+    @Test
+    public void shouldDownloadUploadedExecutable() throws Exception {
+        // given
+        RemoteExecutableCache cache = new RemoteExecutableCache(url + "/", Duration.ofSeconds(5));
+        File exe = temp.newFile("built.exe");
+        Files.write(exe.toPath(), "MZ executable".getBytes(StandardCharsets.UTF_8));
+        File target = new File(temp.getRoot(), "target/app.exe");
+
+        // when
+        cache.upload(KEY, exe);
+
+        // then
+        assertTrue(stored.containsKey("/cache/" + KEY + ".exe"));
+        assertTrue(cache.fetch(KEY, target));
+        assertArrayEquals(Files.readAllBytes(exe.toPath()), Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void shouldFailWhenServerDoesNotRespondInTime() throws Exception {
+        // given
+        RemoteExecutableCache cache = new RemoteExecutableCache(url, Duration.ofMillis(200));
+        delayMillis = 1000;
+
+        // when
+        try {
+            cache.fetch(KEY, new File(temp.getRoot(), "app.exe"));
+            fail("Expected a timeout");
+        } catch (IOException expected) {
+            // then
+            assertFalse(new File(temp.getRoot(), "app.exe").exists());
+        }
+    }
+
+    @Test
+    public void shouldFailWhenBodyIsNotTransferredInTime() throws Exception {
+        // given
+        RemoteExecutableCache cache = new RemoteExecutableCache(url, Duration.ofMillis(500));
+        stored.put("/cache/" + KEY + ".exe", "MZ executable".getBytes(StandardCharsets.UTF_8));
+        stallMillis = 2000;
+        File target = new File(temp.getRoot(), "app.exe");
+
+        // when
+        long start = System.nanoTime();
+        try {
+            cache.fetch(KEY, target);
+            fail("Expected a timeout");
+        } catch (IOException expected) {
+            // then
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1500);
+            assertFalse(target.exists());
+        }
+    }
+
+    @Test
+    public void shouldRejectBodyWhichIsNotAnExecutable() throws Exception {
+        // given
+        RemoteExecutableCache cache = new RemoteExecutableCache(url, Duration.ofSeconds(5));
+        stored.put("/cache/" + KEY + ".exe", "<html>proxy error</html>".getBytes(StandardCharsets.UTF_8));
+        File target = new File(temp.getRoot(), "app.exe");
+        Files.write(target.toPath(), "MZ previous".getBytes(StandardCharsets.UTF_8));
+
+        // when
+        try {
+            cache.fetch(KEY, target);
+            fail("Expected a rejected executable");
+        } catch (IOException expected) {
+            // then
+            assertArrayEquals("MZ previous".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(target.toPath()));
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        pause(delayMillis);
+        String path = exchange.getRequestURI().getPath();
+        if ("PUT".equals(exchange.getRequestMethod())) {
+            try (InputStream in = exchange.getRequestBody()) {
+                stored.put(path, in.readAllBytes());
+            }
+            exchange.sendResponseHeaders(201, -1);
+        } else if (stored.containsKey(path)) {
+            byte[] body = stored.get(path);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body, 0, 2);
+                out.flush();
+                pause(stallMillis);
+                out.write(body, 2, body.length - 2);
+            } catch (IOException e) {
+                // the client gave up
+            }
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+        }
+        exchange.close();
+    }
+
+    private static void pause(long millis) {
+        try {
+            if (millis > 0) {
+                Thread.sleep(millis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.pe;
+
+import com.akathist.maven.plugins.launch4j.tools.Digests;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class PeFileTest {
+
+    private static final byte[] JAR = "PK\u0003\u0004 wrapped jar content".getBytes();
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldReadSectionsAndOverlay() throws Exception {
+        // given
+        File exe = new SyntheticPe().timestamp(1000).overlay(JAR).writeTo(temp.newFile("app.exe"));
+
+        // when
+        PeFile pe = PeFile.read(exe);
+
+        // then
+        assertEquals(2, pe.getSections().size());
+        assertEquals(".rsrc", pe.getSections().get(1).getName());
+        assertEquals(SyntheticPe.IMAGE_SIZE, pe.getOverlayOffset());
+        assertEquals(JAR.length, pe.getOverlayLength());
+        assertEquals(1000, pe.getTimeDateStamp());
+        assertEquals(SyntheticPe.RSRC_OFFSET, pe.rvaToOffset(pe.getDataDirectoryRva(PeFile.DIRECTORY_RESOURCE)));
+    }
+
+    @Test
+    public void shouldProduceIdenticalFilesFromDifferentBuildTimes() throws Exception {
+        // given
+        File first = new SyntheticPe().timestamp(1000).overlay(JAR).writeTo(temp.newFile("first.exe"));
+        File second = new SyntheticPe().timestamp(2000).overlay(JAR).writeTo(temp.newFile("second.exe"));
+        assertNotEquals(Digests.sha256(first), Digests.sha256(second));
+
+        // when
+        PeFile.normalizeTimestamps(first, 315532800);
+        PeFile.normalizeTimestamps(second, 315532800);
+
+        // then
+        assertEquals(Digests.sha256(first), Digests.sha256(second));
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(first.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(315532800, bytes.getInt(SyntheticPe.COFF_OFFSET + 4));
+        assertEquals(315532800, bytes.getInt(SyntheticPe.RSRC_OFFSET + 4));
+        assertEquals(315532800, bytes.getInt(SyntheticPe.RSRC_OFFSET + 0x18 + 4));
+    }
+
+    @Test
+    public void shouldRecomputeCheckSum() throws Exception {
+        // given
+        File exe = new SyntheticPe().timestamp(1000).withCheckSum().overlay(JAR).writeTo(temp.newFile("app.exe"));
+
+        // when
+        PeFile.normalizeTimestamps(exe, 315532800);
+
+        // then
+        byte[] bytes = Files.readAllBytes(exe.toPath());
+        assertEquals(SyntheticPe.checkSum(bytes), PeFile.read(exe).getCheckSum());
+    }
+
+    @Test
+    public void shouldKeepOverlayAndMissingCheckSum() throws Exception {
+        // given
+        File exe = new SyntheticPe().timestamp(1000).overlay(JAR).writeTo(temp.newFile("app.exe"));
+
+        // when
+        PeFile.normalizeTimestamps(exe, 315532800);
+
+        // then
+        byte[] bytes = Files.readAllBytes(exe.toPath());
+        assertArrayEquals(JAR, Arrays.copyOfRange(bytes, SyntheticPe.IMAGE_SIZE, bytes.length));
+        assertEquals(0, PeFile.read(exe).getCheckSum());
+    }
+
+    @Test(expected = PeFormatException.class)
+    public void shouldRejectNonPeFile() throws Exception {
+        // given
+        File file = temp.newFile("app.jar");
+        Files.write(file.toPath(), JAR);
+
+        // when
+        PeFile.read(file);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.pe;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class PeResourcesTest {
+
+    private static final byte[] JAR = "PK\u0003\u0004 wrapped jar content".getBytes();
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldReadBackWrittenResources() throws Exception {
+        // given
+        PeResources resources = new PeResources();
+        resources.put(PeResources.RT_MANIFEST, 1, "<assembly/>".getBytes());
+        resources.put(PeResources.RT_VERSION, 1, new byte[]{1, 2, 3});
+        resources.put("SPLASH", "IMAGE", new byte[]{4, 5});
+        File exe = new SyntheticPe().resources(resources).overlay(JAR).writeTo(temp.newFile("app.exe"));
+
+        // when
+        PeResources read = PeResources.read(PeFile.read(exe));
+
+        // then
+        assertEquals(3, read.getResources().size());
+        assertEquals("SPLASH", read.getResources().get(0).getType());
+        assertArrayEquals(new byte[]{4, 5}, read.find("SPLASH", "IMAGE").getData());
+        assertArrayEquals("<assembly/>".getBytes(), read.find(PeResources.RT_MANIFEST, 1).getData());
+        assertEquals(PeResources.LANGUAGE_DEFAULT, read.find(PeResources.RT_VERSION, 1).getLanguage());
+    }
+
+    @Test
+    public void shouldGrowResourcesAndMoveRelocations() throws Exception {
+        // given
+        PeResources resources = new PeResources();
+        resources.put(PeResources.RT_MANIFEST, 1, "<assembly/>".getBytes());
+        File exe = new SyntheticPe().resources(resources).withRelocations().withCheckSum().overlay(JAR)
+                .writeTo(temp.newFile("app.exe"));
+        PeFile pe = PeFile.read(exe);
+        byte[] relocations = section(pe, ".reloc");
+        byte[] manifest = new byte[10000];
+        Arrays.fill(manifest, (byte) 'x');
+
+        // when
+        PeResources patched = PeResources.read(pe);
+        patched.put(PeResources.RT_MANIFEST, 1, manifest);
+        File target = temp.newFile("patched.exe");
+        pe.writeWithResources(patched, target);
+
+        // then
+        PeFile result = PeFile.read(target);
+        byte[] bytes = Files.readAllBytes(target.toPath());
+        assertArrayEquals(manifest, PeResources.read(result).find(PeResources.RT_MANIFEST, 1).getData());
+        assertArrayEquals(relocations, section(result, ".reloc"));
+        assertEquals(0x5000, result.getDataDirectoryRva(PeFile.DIRECTORY_BASERELOC));
+        assertEquals(0x5000, result.getSections().get(2).getVirtualAddress());
+        assertArrayEquals(JAR, Arrays.copyOfRange(bytes, (int) result.getOverlayOffset(), bytes.length));
+        assertEquals(JAR.length, result.getOverlayLength());
+        assertEquals(SyntheticPe.checkSum(bytes), result.getCheckSum());
+    }
+
+    @Test
+    public void shouldShrinkResources() throws Exception {
+        // given
+        PeResources resources = new PeResources();
+        resources.put(PeResources.RT_MANIFEST, 1, new byte[5000]);
+        resources.put(PeResources.RT_VERSION, 1, new byte[8]);
+        File exe = new SyntheticPe().resources(resources).withRelocations().overlay(JAR).writeTo(temp.newFile("app.exe"));
+        PeFile pe = PeFile.read(exe);
+
+        // when
+        PeResources patched = PeResources.read(pe);
+        patched.remove(PeResources.RT_MANIFEST, null);
+        File target = temp.newFile("patched.exe");
+        pe.writeWithResources(patched, target);
+
+        // then
+        PeFile result = PeFile.read(target);
+        PeResources read = PeResources.read(result);
+        assertNull(read.find(PeResources.RT_MANIFEST, 1));
+        assertEquals(1, read.getResources().size());
+        assertEquals(0x3000, result.getDataDirectoryRva(PeFile.DIRECTORY_BASERELOC));
+        assertEquals(exe.length() - 0x1400, target.length());
+    }
+
+    @Test
+    public void shouldRoundTripVersionResource() throws Exception {
+        // given
+        Map<String, String> strings = new LinkedHashMap<>();
+        strings.put("CompanyName", "Companyé");
+        strings.put("FileVersion", "1.2.3");
+        strings.put("LegalTrademarks", null);
+
+        // when
+        byte[] data = new VersionResource("1.2.3.4", "5.6.7.8", 0x409, 1252, strings).toBytes();
+        VersionResource read = VersionResource.read(data);
+
+        // then
+        assertEquals(data.length, data[0] & 0xff | (data[1] & 0xff) << 8);
+        assertEquals("1.2.3.4", read.getFileVersion());
+        assertEquals("5.6.7.8", read.getProductVersion());
+        assertEquals(0x409, read.getLanguage());
+        assertEquals(1252, read.getCodePage());
+        assertEquals("Companyé", read.getStrings().get("CompanyName"));
+        assertEquals("1.2.3", read.getStrings().get("FileVersion"));
+        assertEquals("", read.getStrings().get("LegalTrademarks"));
+    }
+
+    @Test
+    public void shouldSplitIconIntoImagesAndGroup() throws Exception {
+        // given
+        byte[] ico = {
+                0, 0, 1, 0, 2, 0,
+                16, 16, 0, 0, 1, 0, 32, 0, 2, 0, 0, 0, 38, 0, 0, 0,
+                32, 32, 0, 0, 1, 0, 32, 0, 3, 0, 0, 0, 40, 0, 0, 0,
+                1, 2, 3, 4, 5
+        };
+
+        // when
+        IconResources icon = IconResources.read(ico);
+        byte[] group = icon.toGroup(7);
+
+        // then
+        assertEquals(2, icon.getImages().size());
+        assertArrayEquals(new byte[]{1, 2}, icon.getImages().get(0));
+        assertArrayEquals(new byte[]{3, 4, 5}, icon.getImages().get(1));
+        assertArrayEquals(new byte[]{
+                0, 0, 1, 0, 2, 0,
+                16, 16, 0, 0, 1, 0, 32, 0, 2, 0, 0, 0, 7, 0,
+                32, 32, 0, 0, 1, 0, 32, 0, 3, 0, 0, 0, 8, 0
+        }, group);
+    }
+
+    @Test
+    public void shouldRejectIncompleteResourceTree() throws Exception {
+        // given
+        File exe = new SyntheticPe().overlay(JAR).writeTo(temp.newFile("app.exe"));
+        PeFile pe = PeFile.read(exe);
+
+        // when
+        try {
+            PeResources.read(pe);
+            fail("The resource tree of the synthetic executable has only two levels");
+        } catch (PeFormatException e) {
+            // then
+            assertEquals("Resource data entry found where a directory was expected", e.getMessage());
+        }
+    }
+
+    private static byte[] section(PeFile pe, String name) throws Exception {
+        byte[] bytes = Files.readAllBytes(pe.getFile().toPath());
+        for (PeFile.Section section : pe.getSections()) {
+            if (section.getName().equals(name)) {
+                return Arrays.copyOfRange(bytes, section.getPointerToRawData(), section.getPointerToRawData() + section.getSizeOfRawData());
+            }
+        }
+        throw new AssertionError("No section " + name);
+    }
+}
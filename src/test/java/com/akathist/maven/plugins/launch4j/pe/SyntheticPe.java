@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.pe;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+/**
+ * Builds a minimal PE32 executable with a <code>.text</code> and a <code>.rsrc</code> section,
+ * optionally followed by a <code>.reloc</code> section, similar in layout to the headers produced by Launch4j.
+ */
+public class SyntheticPe {
+
+    static final int PE_OFFSET = 0x40;
+    static final int COFF_OFFSET = PE_OFFSET + 4;
+    static final int OPTIONAL_HEADER_OFFSET = COFF_OFFSET + 20;
+    static final int CHECKSUM_OFFSET = OPTIONAL_HEADER_OFFSET + 64;
+    static final int RSRC_OFFSET = 0x400;
+    public static final int IMAGE_SIZE = 0x600;
+
+    private int timestamp;
+    private boolean checkSum;
+    private byte[] overlay = new byte[0];
+    private PeResources resources;
+    private boolean relocations;
+
+    public SyntheticPe timestamp(int timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    public SyntheticPe withCheckSum() {
+        this.checkSum = true;
+        return this;
+    }
+
+    public SyntheticPe overlay(byte[] overlay) {
+        this.overlay = overlay;
+        return this;
+    }
+
+    public SyntheticPe resources(PeResources resources) {
+        this.resources = resources;
+        return this;
+    }
+
+    public SyntheticPe withRelocations() {
+        this.relocations = true;
+        return this;
+    }
+
+    public byte[] toBytes() {
+        byte[] rsrc = resources != null ? resources.toBytes(0x2000) : null;
+        int rsrcSize = rsrc != null ? rsrc.length : 0x40;
+        int rsrcRawSize = Math.max(0x200, (rsrcSize + 0x1ff) & ~0x1ff);
+        int relocOffset = RSRC_OFFSET + rsrcRawSize;
+        int relocRva = 0x2000 + ((rsrcSize + 0xfff) & ~0xfff);
+        int imageSize = relocations ? relocOffset + 0x200 : relocOffset;
+
+        ByteBuffer buf = ByteBuffer.allocate(imageSize + overlay.length).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putShort(0, (short) 0x5a4d);
+        buf.putInt(0x3c, PE_OFFSET);
+        buf.putInt(PE_OFFSET, 0x4550);
+
+        buf.putShort(COFF_OFFSET, (short) 0x14c);
+        buf.putShort(COFF_OFFSET + 2, (short) (relocations ? 3 : 2));
+        buf.putInt(COFF_OFFSET + 4, timestamp);
+        buf.putShort(COFF_OFFSET + 16, (short) 224);
+        buf.putShort(COFF_OFFSET + 18, (short) 0x102);
+
+        int opt = OPTIONAL_HEADER_OFFSET;
+        buf.putShort(opt, (short) 0x10b);
+        buf.putInt(opt + 28, 0x400000);
+        buf.putInt(opt + 32, 0x1000);
+        buf.putInt(opt + 36, 0x200);
+        buf.putInt(opt + 56, relocations ? relocRva + 0x1000 : relocRva);
+        buf.putInt(opt + 60, 0x200);
+        buf.putInt(opt + 64, checkSum ? 0x12345 : 0);
+        buf.putShort(opt + 68, (short) 2);
+        buf.putInt(opt + 92, 16);
+        // resource directory
+        buf.putInt(opt + 96 + 2 * 8, 0x2000);
+        buf.putInt(opt + 96 + 2 * 8 + 4, rsrcSize);
+
+        int sections = opt + 224;
+        section(buf, sections, ".text", 0x10, 0x1000, 0x200, 0x200);
+        section(buf, sections + 40, ".rsrc", rsrcSize, 0x2000, rsrcRawSize, RSRC_OFFSET);
+
+        buf.put(0x200, (byte) 0xc3);
+
+        if (relocations) {
+            buf.putInt(opt + 96 + 5 * 8, relocRva);
+            buf.putInt(opt + 96 + 5 * 8 + 4, 12);
+            section(buf, sections + 80, ".reloc", 12, relocRva, 0x200, relocOffset);
+            // a single block relocating one address in .text
+            buf.putInt(relocOffset, 0x1000);
+            buf.putInt(relocOffset + 4, 12);
+            buf.putShort(relocOffset + 8, (short) 0x3001);
+        }
+
+        if (rsrc != null) {
+            buf.position(RSRC_OFFSET);
+            buf.put(rsrc);
+            buf.position(imageSize);
+            buf.put(overlay);
+            return buf.array();
+        }
+
+        // root directory with one entry pointing to a subdirectory with one data entry
+        buf.putInt(RSRC_OFFSET + 4, timestamp);
+        buf.putShort(RSRC_OFFSET + 14, (short) 1);
+        buf.putInt(RSRC_OFFSET + 16, 3);
+        buf.putInt(RSRC_OFFSET + 20, 0x80000018);
+        buf.putInt(RSRC_OFFSET + 0x18 + 4, timestamp);
+        buf.putShort(RSRC_OFFSET + 0x18 + 14, (short) 1);
+        buf.putInt(RSRC_OFFSET + 0x18 + 16, 1);
+        buf.putInt(RSRC_OFFSET + 0x18 + 20, 0x30);
+        buf.putInt(RSRC_OFFSET + 0x30, 0x2040);
+        buf.putInt(RSRC_OFFSET + 0x30 + 4, 4);
+
+        buf.position(imageSize);
+        buf.put(overlay);
+        return buf.array();
+    }
+
+    public File writeTo(File file) throws IOException {
+        Files.write(file.toPath(), toBytes());
+        return file;
+    }
+
+    private static void section(ByteBuffer buf, int header, String name, int virtualSize, int rva, int rawSize, int rawPointer) {
+        byte[] bytes = name.getBytes();
+        for (int i = 0; i < bytes.length; i++) {
+            buf.put(header + i, bytes[i]);
+        }
+        buf.putInt(header + 8, virtualSize);
+        buf.putInt(header + 12, rva);
+        buf.putInt(header + 16, rawSize);
+        buf.putInt(header + 20, rawPointer);
+    }
+
+    /**
+     * Straightforward implementation of the PE checksum, used to verify the one computed by {@link PeFile}.
+     */
+    public static int checkSum(byte[] file) {
+        ByteBuffer buf = ByteBuffer.wrap(file.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(CHECKSUM_OFFSET, 0);
+        long sum = 0;
+        for (int i = 0; i + 1 < file.length; i += 2) {
+            sum += buf.getShort(i) & 0xffff;
+            sum = (sum & 0xffff) + (sum >> 16);
+        }
+        if (file.length % 2 != 0) {
+            sum += file[file.length - 1] & 0xff;
+            sum = (sum & 0xffff) + (sum >> 16);
+        }
+        return (int) ((sum & 0xffff) + file.length);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.report;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BuildEventsTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldRecordPhasesAsEvents() throws Exception {
+        // given
+        BuildReport report = new BuildReport("app", "default");
+        BuildEvents.ConfigSave save = new BuildEvents.ConfigSave();
+        save.file = "launch4j.xml";
+
+        // when
+        List<RecordedEvent> events = record(() -> {
+            try (BuildReport.Phase ignored = report.start("executable", "app.exe")) {
+                report.start("link", "app.exe").close();
+            }
+            try (BuildReport.Phase ignored = report.start("saveConfig", null, save)) {
+                save.bytes = 100;
+            }
+        });
+
+        // then
+        assertEquals(3, events.size());
+        RecordedEvent link = events.get(0);
+        assertEquals("launch4j.Phase", link.getEventType().getName());
+        assertEquals("app", link.getString("module"));
+        assertEquals("default", link.getString("execution"));
+        assertEquals("link", link.getString("phase"));
+        assertEquals("app.exe", link.getString("target"));
+        assertEquals(1, link.getInt("depth"));
+        assertEquals("executable", events.get(1).getString("phase"));
+        assertEquals(0, events.get(1).getInt("depth"));
+        RecordedEvent config = events.get(2);
+        assertEquals("launch4j.ConfigSave", config.getEventType().getName());
+        assertNull(config.getString("target"));
+        assertEquals("launch4j.xml", config.getString("file"));
+        assertEquals(100, config.getLong("bytes"));
+    }
+
+    @Test
+    public void shouldRecordEventsWithinTheRunningPhase() throws Exception {
+        // given
+        BuildReport report = new BuildReport("app", "default");
+
+        // when
+        List<RecordedEvent> events = record(() -> {
+            try (BuildReport.Phase ignored = report.start("link", "app.exe")) {
+                BuildEvents.Process process = new BuildEvents.Process();
+                process.tool = "ld";
+                process.exitCode = 1;
+                process.begin();
+                report.record(process, "ld", "app.exe");
+            }
+        });
+
+        // then
+        assertEquals(2, events.size());
+        RecordedEvent process = events.get(0);
+        assertEquals("launch4j.Process", process.getEventType().getName());
+        assertEquals("ld", process.getString("tool"));
+        assertEquals(1, process.getInt("exitCode"));
+        assertEquals(1, process.getInt("depth"));
+        assertEquals("app.exe", process.getString("target"));
+        assertEquals(1, report.getPhases().size());
+    }
+
+    private List<RecordedEvent> record(Runnable build) throws Exception {
+        Path dump = temp.newFile("build.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("launch4j.*");
+            recording.start();
+            build.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().startsWith("launch4j."))
+                .sorted((a, b) -> a.getEndTime().compareTo(b.getEndTime()))
+                .collect(Collectors.toList());
+    }
+}
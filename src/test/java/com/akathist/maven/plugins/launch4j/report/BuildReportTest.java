@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.report;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BuildReportTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldMeasureNestedPhases() throws Exception {
+        // given
+        BuildReport report = new BuildReport("default");
+
+        // when
+        try (BuildReport.Phase ignored = report.start("executable", "app.exe")) {
+            try (BuildReport.Phase link = report.start("link", "app.exe")) {
+                Thread.sleep(5);
+            }
+        }
+        try (BuildReport.Phase ignored = report.start("saveConfig")) {
+            report.count(BuildReport.BYTES_WRITTEN, 100);
+        }
+        report.finish();
+
+        // then
+        List<BuildReport.Phase> phases = report.getPhases();
+        assertEquals(3, phases.size());
+        assertEquals("executable", phases.get(0).getName());
+        assertEquals(0, phases.get(0).getDepth());
+        assertEquals("link", phases.get(1).getName());
+        assertEquals(1, phases.get(1).getDepth());
+        assertEquals(0, phases.get(2).getDepth());
+        assertTrue(phases.get(1).getDuration() >= 5_000_000L);
+        assertTrue(phases.get(0).getDuration() >= phases.get(1).getDuration());
+        assertTrue(phases.get(2).getStart() >= phases.get(0).getStart() + phases.get(0).getDuration());
+    }
+
+    @Test
+    public void shouldSummarizeTopLevelPhasesInOneLine() throws Exception {
+        // given
+        BuildReport report = new BuildReport("default");
+        for (int i = 0; i < 2; i++) {
+            try (BuildReport.Phase ignored = report.start("relativizeAndCopy")) {
+                report.start("nested").close();
+            }
+        }
+        report.count(BuildReport.PROCESSES, 2);
+        report.count(BuildReport.BYTES_READ, 10);
+        report.finish();
+
+        // when
+        String summary = report.summary();
+
+        // then
+        assertTrue(summary, summary.matches("Launch4j took \\d+ ms: relativizeAndCopy \\d+ ms \\(2x\\); "
+                + "2 processes, 10 bytes read, 0 bytes written"));
+    }
+
+    @Test
+    public void shouldWriteJsonReport() throws Exception {
+        // given
+        BuildReport report = new BuildReport("app", "default");
+        report.start("build", "C:\\app \"1\".exe").close();
+        report.result("C:\\app \"1\".exe", "localCache", "miss");
+        report.result("C:\\app \"1\".exe", "outcome", "built");
+        report.count(BuildReport.PROCESSES, 2);
+        report.finish();
+        File file = new File(temp.getRoot(), "launch4j/build-report-default.json");
+
+        // when
+        report.write(file);
+
+        // then
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json, json.startsWith("{\n  \"module\": \"app\",\n  \"execution\": \"default\",\n"));
+        assertTrue(json, json.contains("\"counters\": {\n    \"processes\": 2\n  },"));
+        assertTrue(json, json.contains("{\"name\": \"build\", \"target\": \"C:\\\\app \\\"1\\\".exe\", \"thread\": "));
+        assertTrue(json, json.contains("\"C:\\\\app \\\"1\\\".exe\": {\"localCache\": \"miss\", \"outcome\": \"built\"}"));
+        assertTrue(json, json.endsWith("}\n}\n"));
+    }
+
+    @Test
+    public void shouldEscapeControlCharacters() {
+        assertEquals("\"a\\tb\\u0001\"", BuildReport.quote("a\tb\u0001"));
+    }
+}
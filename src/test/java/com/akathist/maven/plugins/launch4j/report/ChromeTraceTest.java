@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.report;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChromeTraceTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldShareTraceWithinSession() {
+        // given
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        File file = new File(temp.getRoot(), "trace.json");
+
+        // when
+        ChromeTrace first = ChromeTrace.of(session, file);
+
+        // then
+        assertSame(first, ChromeTrace.of(session, new File(temp.getRoot(), "target/../trace.json")));
+        assertNotSame(first, ChromeTrace.of(session, new File(temp.getRoot(), "other.json")));
+        assertNotSame(first, ChromeTrace.of(new DefaultRepositorySystemSession(), file));
+    }
+
+    @Test
+    public void shouldWriteExecutionsOfAllModules() throws Exception {
+        // given
+        File file = new File(temp.getRoot(), "target/trace.json");
+        ChromeTrace trace = new ChromeTrace(file);
+        BuildReport app = new BuildReport("app", "default");
+        try (BuildReport.Phase ignored = app.start("executable", "app.exe")) {
+            app.waitFor("outputLock", "app.exe").close();
+        }
+        app.finish();
+        BuildReport[] cli = new BuildReport[1];
+        Thread thread = new Thread(() -> {
+            cli[0] = new BuildReport("cli", "default");
+            cli[0].start("toolchain").close();
+            cli[0].finish();
+        }, "mvn-builder-cli");
+        thread.start();
+        thread.join();
+
+        // when
+        trace.add(app);
+        trace.add(cli[0]);
+
+        // then
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json, json.startsWith("{\"displayTimeUnit\": \"ms\", \"traceEvents\": [\n"));
+        assertTrue(json, json.endsWith("\n]}\n"));
+        assertTrue(json, json.contains("{\"name\": \"thread_name\", \"ph\": \"M\", \"pid\": 1, \"tid\": 1, \"args\": {\"name\": \"" + Thread.currentThread().getName() + "\"}}"));
+        assertTrue(json, json.contains("{\"name\": \"thread_name\", \"ph\": \"M\", \"pid\": 1, \"tid\": 2, \"args\": {\"name\": \"mvn-builder-cli\"}}"));
+        assertTrue(json, json.contains("{\"name\": \"app:default\", \"cat\": \"execution\", \"ph\": \"X\", \"pid\": 1, \"tid\": 1, \"ts\": 0, "));
+        assertTrue(json, json.contains("{\"name\": \"outputLock\", \"cat\": \"lock\", \"ph\": \"X\", \"pid\": 1, \"tid\": 1, "));
+        assertTrue(json, json.contains("\"args\": {\"module\": \"app\", \"execution\": \"default\", \"target\": \"app.exe\"}}"));
+        assertTrue(json, json.contains("{\"name\": \"toolchain\", \"cat\": \"phase\", \"ph\": \"X\", \"pid\": 1, \"tid\": 2, "));
+        assertEquals("process, 2 threads and 5 spans", 8, json.split("\n").length - 2);
+    }
+}
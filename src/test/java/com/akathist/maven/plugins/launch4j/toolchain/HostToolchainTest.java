@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class HostToolchainTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File bundled;
+    private File ld;
+    private File windres;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("POSIX file system required", temp.getRoot().toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+        bundled = temp.newFolder("launch4j-3.50-workdir-linux");
+        assertTrue(new File(bundled, "bin").mkdir());
+        assertTrue(new File(bundled, "w32api").mkdir());
+        Files.write(new File(bundled, "w32api/libkernel32.a").toPath(), new byte[]{1});
+        assertTrue(new File(bundled, "head").mkdir());
+
+        ld = script("i686-w64-mingw32-ld", "echo 'GNU ld (GNU Binutils) 2.41'");
+        windres = script("i686-w64-mingw32-windres", "echo 'GNU windres (GNU Binutils) 2.41'");
+    }
+
+    @Test
+    public void shouldProbeVersion() throws Exception {
+        assertEquals("GNU ld (GNU Binutils) 2.41", HostToolchain.probe(ld));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailProbeOfBrokenTool() throws Exception {
+        HostToolchain.probe(script("broken-ld", "echo 'cannot execute binary file' >&2; exit 126"));
+    }
+
+    @Test
+    public void shouldStopProbeOfHangingTool() throws Exception {
+        // given
+        File hanging = script("hanging-ld", "echo 'GNU ld (GNU Binutils) 2.41'; exec sleep 60");
+
+        // when
+        long start = System.nanoTime();
+        try {
+            HostToolchain.probe(hanging, 500);
+            fail("Expected a timeout");
+        } catch (IOException expected) {
+            // then
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10_000);
+        }
+    }
+
+    @Test
+    public void shouldLinkBundledFilesAndHostTools() throws Exception {
+        // when
+        File workDir = HostToolchain.createWorkDir(bundled, ld, windres, "2.41");
+
+        // then
+        assertEquals(bundled.getParentFile(), workDir.getParentFile());
+        assertEquals(ld.toPath(), Files.readSymbolicLink(new File(workDir, "bin/ld").toPath()));
+        assertEquals(windres.toPath(), Files.readSymbolicLink(new File(workDir, "bin/windres").toPath()));
+        assertTrue(new File(workDir, "w32api/libkernel32.a").isFile());
+        assertTrue(new File(workDir, "head").isDirectory());
+    }
+
+    @Test
+    public void shouldReuseWorkDirUntilToolsChange() throws Exception {
+        // given
+        File first = HostToolchain.createWorkDir(bundled, ld, windres, "2.41");
+
+        // when
+        File same = HostToolchain.createWorkDir(bundled, ld, windres, "2.41");
+        File upgraded = HostToolchain.createWorkDir(bundled, ld, windres, "2.42");
+
+        // then
+        assertEquals(first, same);
+        assertNotEquals(first, upgraded);
+    }
+
+    private File script(String name, String body) throws IOException {
+        File file = new File(temp.getRoot(), name);
+        Files.write(file.toPath(), ("#!/bin/sh\n" + body + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rwxr-xr-x"));
+        return file;
+    }
+}
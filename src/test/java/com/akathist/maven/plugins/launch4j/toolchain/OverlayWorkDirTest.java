@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class OverlayWorkDirTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File toolchain;
+
+    @Before
+    public void setUp() throws Exception {
+        toolchain = temp.newFolder("launch4j-3.50-workdir-linux");
+        write(new File(toolchain, "bin/ld"), "ld");
+        write(new File(toolchain, "w32api/libkernel32.a"), "kernel32");
+        write(new File(toolchain, "head/guihead.o"), "guihead");
+    }
+
+    @Test
+    public void shouldMirrorToolchain() throws Exception {
+        // when
+        File overlay = OverlayWorkDir.create(toolchain, temp.newFolder("execution"));
+
+        // then
+        assertEquals(toolchain.getName(), overlay.getName());
+        assertTrue(new File(overlay, "head").isDirectory());
+        assertFalse(Files.isSymbolicLink(new File(overlay, "head").toPath()));
+        assertArrayEquals(bytes("kernel32"), Files.readAllBytes(new File(overlay, "w32api/libkernel32.a").toPath()));
+        assertArrayEquals(bytes("ld"), Files.readAllBytes(new File(overlay, "bin/ld").toPath()));
+    }
+
+    @Test
+    public void shouldKeepToolchainUntouchedWhenFilesAreReplaced() throws Exception {
+        // given
+        File overlay = OverlayWorkDir.create(toolchain, temp.newFolder("execution"));
+        File custom = write(temp.newFile("guihead.o"), "custom");
+
+        // when
+        Files.copy(custom.toPath(), new File(overlay, "head/guihead.o").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(custom.toPath(), new File(overlay, "head/extra.o").toPath());
+
+        // then
+        assertArrayEquals(bytes("custom"), Files.readAllBytes(new File(overlay, "head/guihead.o").toPath()));
+        assertArrayEquals(bytes("guihead"), Files.readAllBytes(new File(toolchain, "head/guihead.o").toPath()));
+        assertFalse(new File(toolchain, "head/extra.o").exists());
+    }
+
+    @Test
+    public void shouldRemoveFilesOfPreviousExecution() throws Exception {
+        // given
+        File scratch = temp.newFolder("execution");
+        File overlay = OverlayWorkDir.create(toolchain, scratch);
+        write(new File(overlay, "src/main/resources/custom.o"), "custom");
+
+        // when
+        overlay = OverlayWorkDir.create(toolchain, scratch);
+
+        // then
+        assertFalse(new File(overlay, "src").exists());
+        assertTrue(new File(toolchain, "head/guihead.o").isFile());
+    }
+
+    @Test
+    public void shouldFollowLinkedDirectories() throws Exception {
+        assumeTrue("POSIX file system required", temp.getRoot().toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+        // given a host toolchain linking the directories of the bundled one
+        File host = temp.newFolder("launch4j-3.50-workdir-linux-host-0123456789ab");
+        Files.createSymbolicLink(new File(host, "head").toPath(), new File(toolchain, "head").toPath());
+
+        // when
+        File overlay = OverlayWorkDir.create(host, temp.newFolder("execution"));
+        Files.delete(new File(overlay, "head/guihead.o").toPath());
+
+        // then
+        assertFalse(Files.isSymbolicLink(new File(overlay, "head").toPath()));
+        assertTrue(new File(toolchain, "head/guihead.o").isFile());
+    }
+
+    private static File write(File file, String content) throws Exception {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), bytes(content));
+        return file;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ToolchainCacheTest {
+
+    private static final String KEY = "net.sf.launch4j:launch4j:3.50:linux64";
+
+    @Test
+    public void shouldShareCacheWithinSession() {
+        // given
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+
+        // when
+        ToolchainCache first = ToolchainCache.of(session);
+        ToolchainCache second = ToolchainCache.of(session);
+
+        // then
+        assertSame(first, second);
+        assertNotSame(first, ToolchainCache.of(new DefaultRepositorySystemSession()));
+    }
+
+    @Test
+    public void shouldPrepareWorkDirOnceForConcurrentExecutions() throws Exception {
+        // given
+        ToolchainCache cache = new ToolchainCache();
+        AtomicInteger setups = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<File>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 60; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cache.getWorkDir(KEY, () -> {
+                    setups.incrementAndGet();
+                    sleep();
+                    return new File("workdir-linux64");
+                });
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (Future<File> future : futures) {
+            assertEquals(new File("workdir-linux64"), future.get());
+        }
+        executor.shutdown();
+        assertEquals(1, setups.get());
+    }
+
+    @Test
+    public void shouldNotCacheFailures() throws Exception {
+        // given
+        ToolchainCache cache = new ToolchainCache();
+        try {
+            cache.getWorkDir(KEY, () -> {
+                throw new MojoExecutionException("Artifact is not available!");
+            });
+            fail("Expected MojoExecutionException");
+        } catch (MojoExecutionException e) {
+            assertEquals("Artifact is not available!", e.getMessage());
+        }
+
+        // when
+        File workDir = cache.getWorkDir(KEY, () -> new File("workdir-linux64"));
+
+        // then
+        assertEquals(new File("workdir-linux64"), workDir);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
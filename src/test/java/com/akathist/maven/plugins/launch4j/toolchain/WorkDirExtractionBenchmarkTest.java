@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares the extraction of a work directory jar by {@link WorkDirInstaller} with the previous,
+ * serial implementation using a 1 KiB buffer. Run with <code>-Dlaunch4j.benchmark=true</code>.
+ */
+public class WorkDirExtractionBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File platJar;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("Benchmark disabled, use -Dlaunch4j.benchmark=true", Boolean.getBoolean("launch4j.benchmark"));
+        platJar = createJar(temp.newFile("launch4j-workdir-linux64.jar"));
+    }
+
+    @Test
+    public void compareWithSerialExtraction() throws Exception {
+        // warm up
+        serialExtract(platJar, temp.newFolder());
+        new WorkDirInstaller(new SystemStreamLog()).extract(platJar, temp.newFolder());
+
+        long serial = 0;
+        long parallel = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            serialExtract(platJar, temp.newFolder());
+            serial += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            new WorkDirInstaller(new SystemStreamLog()).extract(platJar, temp.newFolder());
+            parallel += System.nanoTime() - start;
+        }
+
+        System.out.printf("Serial extraction:   %d ms%n", serial / ROUNDS / 1_000_000);
+        System.out.printf("Parallel extraction: %d ms%n", parallel / ROUNDS / 1_000_000);
+    }
+
+    /**
+     * Mimics the content of a workdir jar: two big binaries, a few libraries and many small files.
+     */
+    private static File createJar(File file) throws IOException {
+        Random random = new Random(42);
+        try (OutputStream out = Files.newOutputStream(file.toPath()); JarOutputStream jout = new JarOutputStream(out)) {
+            add(jout, "workdir/bin/ld", random, 8 * 1024 * 1024);
+            add(jout, "workdir/bin/windres", random, 4 * 1024 * 1024);
+            for (int i = 0; i < 8; i++) {
+                add(jout, "workdir/w32api/lib" + i + ".a", random, 1024 * 1024);
+            }
+            for (int i = 0; i < 200; i++) {
+                add(jout, "workdir/head/file" + i + ".o", random, 4 * 1024);
+            }
+        }
+        return file;
+    }
+
+    private static void add(JarOutputStream jout, String name, Random random, int size) throws IOException {
+        // half random, half repeated content, so the entry compresses like a binary
+        byte[] content = new byte[size];
+        byte[] noise = new byte[size / 2];
+        random.nextBytes(noise);
+        System.arraycopy(noise, 0, content, 0, noise.length);
+        jout.putNextEntry(new JarEntry(name));
+        jout.write(content);
+    }
+
+    /**
+     * The implementation used before {@link WorkDirInstaller}.
+     */
+    private static void serialExtract(File platJar, File dest) throws IOException {
+        try (JarFile jf = new JarFile(platJar)) {
+            Enumeration<JarEntry> en = jf.entries();
+            while (en.hasMoreElements()) {
+                JarEntry je = en.nextElement();
+                File outFile = new File(dest, je.getName());
+                if (!outFile.toPath().normalize().startsWith(dest.toPath().normalize())) {
+                    throw new RuntimeException("Bad zip entry");
+                }
+                File parent = outFile.getParentFile();
+                if (parent != null) parent.mkdirs();
+                if (je.isDirectory()) {
+                    outFile.mkdirs();
+                } else {
+                    try (InputStream in = jf.getInputStream(je)) {
+                        try (FileOutputStream fout = new FileOutputStream(outFile)) {
+                            byte[] buf = new byte[1024];
+                            int len;
+                            while ((len = in.read(buf)) >= 0) {
+                                fout.write(buf, 0, len);
+                            }
+                        }
+                    }
+                    outFile.setLastModified(je.getTime());
+                }
+            }
+        }
+    }
+}
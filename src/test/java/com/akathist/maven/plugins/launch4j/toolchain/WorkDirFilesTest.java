@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WorkDirFilesTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File basedir;
+    private File workDir;
+
+    @Before
+    public void setUp() throws Exception {
+        basedir = temp.newFolder("project");
+        workDir = temp.newFolder("workdir");
+    }
+
+    @Test
+    public void shouldExpandGlobsAndKeepToolchainPaths() throws Exception {
+        // given
+        write(new File(basedir, "src/objs/b.o"), "b");
+        write(new File(basedir, "src/objs/sub/a.o"), "a");
+        write(new File(basedir, "src/objs/readme.txt"), "not an object");
+
+        // when
+        List<String> paths = WorkDirFiles.copy(basedir, workDir, Arrays.asList("src/objs/**.o", "w32api/crt2.o"));
+
+        // then
+        assertEquals(Arrays.asList(path("src/objs/b.o"), path("src/objs/sub/a.o"), "w32api/crt2.o"), paths);
+        assertEquals("a", read(new File(workDir, "src/objs/sub/a.o")));
+        assertFalse(new File(workDir, "src/objs/readme.txt").exists());
+    }
+
+    @Test
+    public void shouldResolveFilesWithoutCopyingThem() throws Exception {
+        // given
+        File obj = write(new File(basedir, "src/objs/b.o"), "b");
+
+        // when
+        Map<String, Path> files = WorkDirFiles.resolve(basedir, Arrays.asList("src/objs/*.o", "w32api/crt2.o"));
+
+        // then
+        assertEquals(Arrays.asList(path("src/objs/b.o"), "w32api/crt2.o"), new ArrayList<>(files.keySet()));
+        assertEquals(obj.toPath().toAbsolutePath().normalize(), files.get(path("src/objs/b.o")));
+        assertNull(files.get("w32api/crt2.o"));
+        assertEquals(0, workDir.list().length);
+    }
+
+    @Test
+    public void shouldLeaveIdenticalFilesUntouched() throws Exception {
+        // given
+        File source = write(new File(basedir, "app.o"), "same");
+        File changedSource = write(new File(basedir, "lib.a"), "new");
+        File identical = write(new File(workDir, "app.o"), "same");
+        File outdated = write(new File(workDir, "lib.a"), "old");
+        FileTime past = FileTime.fromMillis(1_500_000_000_000L);
+        Files.setLastModifiedTime(identical.toPath(), past);
+
+        // when
+        boolean copied = WorkDirFiles.copyIfChanged(source.toPath(), identical.toPath());
+        boolean changed = WorkDirFiles.copyIfChanged(changedSource.toPath(), outdated.toPath());
+
+        // then
+        assertFalse(copied);
+        assertEquals(past, Files.getLastModifiedTime(identical.toPath()));
+        assertTrue(changed);
+        assertEquals("new", read(outdated));
+    }
+
+    @Test
+    public void shouldCopyManyFilesInParallel() throws Exception {
+        // given
+        int count = WorkDirFiles.PARALLEL_THRESHOLD * 3;
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = String.format("objs/obj%03d.o", i);
+            write(new File(basedir, name), "object " + i);
+            expected.add(path(name));
+        }
+
+        // when
+        List<String> paths = WorkDirFiles.copy(basedir, workDir, Collections.singletonList("objs/*.o"), 4);
+
+        // then
+        assertEquals(expected, paths);
+        for (int i = 0; i < count; i++) {
+            assertEquals("object " + i, read(new File(workDir, paths.get(i))));
+        }
+    }
+
+    @Test
+    public void shouldRejectFilesOutsideProject() throws Exception {
+        // given
+        write(new File(temp.getRoot(), "outside.o"), "outside");
+
+        // when
+        try {
+            WorkDirFiles.copy(basedir, workDir, Collections.singletonList("../outside.o"));
+            fail("files outside of the project must be rejected");
+        } catch (IllegalArgumentException e) {
+            // then
+            assertEquals("File must reside in the project directory: ../outside.o", e.getMessage());
+        }
+    }
+
+    private static String path(String path) {
+        return path.replace('/', File.separatorChar);
+    }
+
+    private static File write(File file, String content) throws Exception {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
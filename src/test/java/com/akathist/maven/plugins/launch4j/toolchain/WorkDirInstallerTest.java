@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.toolchain;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class WorkDirInstallerTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File repo;
+    private File platJar;
+    private CountingInstaller installer;
+
+    @Before
+    public void setUp() throws Exception {
+        repo = temp.newFolder("repo");
+        platJar = createJar(new File(repo, "launch4j-3.50-workdir-linux.jar"), "ld-binary", "windres-binary");
+        installer = new CountingInstaller();
+    }
+
+    @Test
+    public void shouldExtractJarAndWriteManifest() throws Exception {
+        // when
+        installer.install(platJar, repo);
+
+        // then
+        assertEquals("ld-binary", read("launch4j-3.50-workdir-linux/bin/ld"));
+        assertEquals("windres-binary", read("launch4j-3.50-workdir-linux/bin/windres"));
+        WorkDirManifest manifest = WorkDirManifest.read(WorkDirInstaller.manifestFor(platJar));
+        assertNotNull(manifest);
+        assertEquals(2, manifest.getFiles().size());
+        assertEquals(1, installer.extractions.get());
+    }
+
+    @Test
+    public void shouldNotExtractAgainWhenOnlyJarTimestampChanged() throws Exception {
+        // given
+        installer.install(platJar, repo);
+        assertTrue(platJar.setLastModified(platJar.lastModified() + 60_000));
+
+        // when
+        installer.install(platJar, repo);
+
+        // then
+        assertEquals(1, installer.extractions.get());
+        WorkDirManifest manifest = WorkDirManifest.read(WorkDirInstaller.manifestFor(platJar));
+        assertTrue(manifest.matchesJar(platJar));
+        assertFalse(manifest.isModified());
+    }
+
+    @Test
+    public void shouldRepairMissingAndModifiedFiles() throws Exception {
+        // given
+        installer.install(platJar, repo);
+        File ld = new File(repo, "launch4j-3.50-workdir-linux/bin/ld");
+        File windres = new File(repo, "launch4j-3.50-workdir-linux/bin/windres");
+        Files.delete(ld.toPath());
+        Files.write(windres.toPath(), "windres-hacked".getBytes(StandardCharsets.UTF_8));
+
+        // when
+        installer.install(platJar, repo);
+
+        // then
+        assertEquals(1, installer.extractions.get());
+        assertEquals("ld-binary", read("launch4j-3.50-workdir-linux/bin/ld"));
+        assertEquals("windres-binary", read("launch4j-3.50-workdir-linux/bin/windres"));
+        assertTrue(WorkDirManifest.read(WorkDirInstaller.manifestFor(platJar)).findInvalidFiles(repo).isEmpty());
+    }
+
+    @Test
+    public void shouldExtractAgainWhenJarChanged() throws Exception {
+        // given
+        installer.install(platJar, repo);
+        createJar(platJar, "ld-binary-v2", "windres-binary");
+
+        // when
+        installer.install(platJar, repo);
+
+        // then
+        assertEquals(2, installer.extractions.get());
+        assertEquals("ld-binary-v2", read("launch4j-3.50-workdir-linux/bin/ld"));
+    }
+
+    @Test
+    public void shouldExtractOnceForConcurrentBuilds() throws Exception {
+        // given
+        AtomicInteger extractions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                new CountingInstaller(extractions).install(platJar, repo);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(1, extractions.get());
+        assertEquals("ld-binary", read("launch4j-3.50-workdir-linux/bin/ld"));
+    }
+
+    @Test
+    public void shouldReplaceWorkDirWithoutLeftovers() throws Exception {
+        // given
+        installer.install(platJar, repo);
+        File crashed = new File(repo, "." + platJar.getName() + ".tmp123/launch4j-3.50-workdir-linux/bin");
+        assertTrue(crashed.mkdirs());
+        File stale = new File(repo, "launch4j-3.50-workdir-linux/bin/stale");
+        Files.write(stale.toPath(), new byte[]{1});
+        createJar(platJar, "ld-binary-v2", "windres-binary");
+
+        // when
+        installer.install(platJar, repo);
+
+        // then
+        assertEquals("ld-binary-v2", read("launch4j-3.50-workdir-linux/bin/ld"));
+        assertFalse(stale.exists());
+        String[] names = repo.list();
+        Arrays.sort(names);
+        assertEquals(Arrays.asList("launch4j-3.50-workdir-linux", "launch4j-3.50-workdir-linux.jar",
+                "launch4j-3.50-workdir-linux.jar.lock", "launch4j-3.50-workdir-linux.jar.manifest"), Arrays.asList(names));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectEntriesOutsideOfDestination() throws Exception {
+        // given
+        File jar = new File(repo, "evil.jar");
+        try (OutputStream out = Files.newOutputStream(jar.toPath()); JarOutputStream jout = new JarOutputStream(out)) {
+            jout.putNextEntry(new JarEntry("../evil"));
+            jout.write(1);
+        }
+
+        // when
+        installer.install(jar, repo);
+    }
+
+    private String read(String path) throws IOException {
+        return new String(Files.readAllBytes(new File(repo, path).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static File createJar(File file, String ld, String windres) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file.toPath()); JarOutputStream jout = new JarOutputStream(out)) {
+            jout.putNextEntry(new JarEntry("launch4j-3.50-workdir-linux/"));
+            jout.putNextEntry(new JarEntry("launch4j-3.50-workdir-linux/bin/ld"));
+            jout.write(ld.getBytes(StandardCharsets.UTF_8));
+            jout.putNextEntry(new JarEntry("launch4j-3.50-workdir-linux/bin/windres"));
+            jout.write(windres.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static class CountingInstaller extends WorkDirInstaller {
+        final AtomicInteger extractions;
+
+        CountingInstaller() {
+            this(new AtomicInteger());
+        }
+
+        CountingInstaller(AtomicInteger extractions) {
+            super(new SystemStreamLog());
+            this.extractions = extractions;
+        }
+
+        @Override
+        WorkDirManifest extract(File platJar, File dest) throws IOException {
+            extractions.incrementAndGet();
+            return super.extract(platJar, dest);
+        }
+    }
+}
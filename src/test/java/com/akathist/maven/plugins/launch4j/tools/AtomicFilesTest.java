@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.tools;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class AtomicFilesTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldReplaceTargetWithTemporaryFile() throws Exception {
+        // given
+        Path target = write(temp.newFile("app.exe"), "previous");
+        Path tmp = AtomicFiles.tempFileFor(target);
+        Files.write(tmp, "next".getBytes(StandardCharsets.US_ASCII));
+
+        // when
+        AtomicFiles.publish(tmp, target, FsyncPolicy.FULL);
+
+        // then
+        assertEquals("next", new String(Files.readAllBytes(target), StandardCharsets.US_ASCII));
+        assertFalse(Files.exists(tmp));
+        assertEquals("no temporary files are left", 1, temp.getRoot().list().length);
+    }
+
+    @Test
+    public void shouldPublishCopy() throws Exception {
+        // given
+        Path source = write(temp.newFile("cached.exe"), "cached");
+        Path target = write(temp.newFile("app.exe"), "previous");
+
+        // when
+        AtomicFiles.publishCopy(source, target, false, FsyncPolicy.FILE);
+        Files.write(source, "changed".getBytes(StandardCharsets.US_ASCII));
+
+        // then
+        assertEquals("cached", new String(Files.readAllBytes(target), StandardCharsets.US_ASCII));
+        assertEquals(2, temp.getRoot().list().length);
+    }
+
+    @Test
+    public void shouldPublishHardLink() throws Exception {
+        // given
+        assumeTrue("unix file attributes required", temp.getRoot().toPath().getFileSystem().supportedFileAttributeViews().contains("unix"));
+        Path source = write(temp.newFile("cached.exe"), "cached");
+        Path target = write(temp.newFile("app.exe"), "previous");
+
+        // when
+        AtomicFiles.publishCopy(source, target, true, FsyncPolicy.NONE);
+
+        // then
+        assertEquals("cached", new String(Files.readAllBytes(target), StandardCharsets.US_ASCII));
+        assertTrue(Files.isSameFile(source, target));
+        assertEquals(2, Files.getAttribute(target, "unix:nlink"));
+        assertEquals(2, temp.getRoot().list().length);
+    }
+
+    private static Path write(File file, String content) throws Exception {
+        return Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
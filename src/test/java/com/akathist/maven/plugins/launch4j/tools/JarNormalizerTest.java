@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.tools;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class JarNormalizerTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldProduceIdenticalJarsFromDifferentBuildTimes() throws Exception {
+        // given
+        File first = createJar(temp.newFile("first.jar"), 1_500_000_000_000L);
+        File second = createJar(temp.newFile("second.jar"), 1_600_000_000_000L);
+        assertNotEquals(Digests.sha256(first), Digests.sha256(second));
+
+        // when
+        File firstOut = new File(temp.getRoot(), "out/first.jar");
+        File secondOut = new File(temp.getRoot(), "out/second.jar");
+        JarNormalizer.normalize(first, firstOut, OutputTimestamp.DEFAULT_EPOCH_SECONDS);
+        JarNormalizer.normalize(second, secondOut, OutputTimestamp.DEFAULT_EPOCH_SECONDS);
+
+        // then
+        assertEquals(Digests.sha256(firstOut), Digests.sha256(secondOut));
+    }
+
+    @Test
+    public void shouldKeepEntriesOrderAndMethod() throws Exception {
+        // given
+        File jar = createJar(temp.newFile("app.jar"), 1_500_000_000_000L);
+
+        // when
+        File out = new File(temp.getRoot(), "out.jar");
+        JarNormalizer.normalize(jar, out, OutputTimestamp.DEFAULT_EPOCH_SECONDS);
+
+        // then
+        try (ZipFile zip = new ZipFile(out)) {
+            List<? extends ZipEntry> entries = Collections.list(zip.entries());
+            List<String> names = new ArrayList<>();
+            for (ZipEntry entry : entries) {
+                names.add(entry.getName());
+            }
+            assertEquals(Arrays.asList("META-INF/MANIFEST.MF", "stored.txt", "deflated.txt"), names);
+            assertEquals(ZipEntry.STORED, entries.get(1).getMethod());
+            assertEquals(ZipEntry.DEFLATED, entries.get(2).getMethod());
+            assertEquals("deflated content", new String(readAll(zip, entries.get(2))));
+        }
+    }
+
+    @Test
+    public void shouldParseOutputTimestamp() {
+        assertEquals(null, OutputTimestamp.parse(null));
+        assertEquals(null, OutputTimestamp.parse("a"));
+        assertEquals(Long.valueOf(1700000000L), OutputTimestamp.parse("1700000000"));
+        assertEquals(Long.valueOf(1704067200L), OutputTimestamp.parse("2024-01-01T00:00:00Z"));
+        assertEquals(Long.valueOf(1704063600L), OutputTimestamp.parse("2024-01-01T00:00:00+01:00"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidOutputTimestamp() {
+        OutputTimestamp.parse("yesterday");
+    }
+
+    private static byte[] readAll(ZipFile zip, ZipEntry entry) throws IOException {
+        try (InputStream in = zip.getInputStream(entry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static File createJar(File file, long time) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file.toPath());
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            ZipEntry manifest = new ZipEntry("META-INF/MANIFEST.MF");
+            manifest.setTime(time);
+            zip.putNextEntry(manifest);
+            zip.write("Manifest-Version: 1.0\r\n".getBytes());
+
+            byte[] stored = "stored content".getBytes();
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            ZipEntry storedEntry = new ZipEntry("stored.txt");
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(stored.length);
+            storedEntry.setCrc(crc.getValue());
+            storedEntry.setTime(time);
+            zip.putNextEntry(storedEntry);
+            zip.write(stored);
+
+            ZipEntry deflated = new ZipEntry("deflated.txt");
+            deflated.setTime(time);
+            zip.putNextEntry(deflated);
+            zip.write("deflated content".getBytes());
+        }
+        return file;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.akathist.maven.plugins.launch4j.tools;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceIOTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void shouldLeaveIdenticalFileUntouched() throws Exception {
+        // given
+        byte[] manifest = "<assembly/>".getBytes(StandardCharsets.UTF_8);
+        File file = temp.newFile("app.manifest");
+        Files.write(file.toPath(), manifest);
+        FileTime past = FileTime.fromMillis(1_500_000_000_000L);
+        Files.setLastModifiedTime(file.toPath(), past);
+
+        // when
+        boolean written = ResourceIO.writeBytesIfDiff(file, manifest);
+
+        // then
+        assertFalse(written);
+        assertEquals(past, Files.getLastModifiedTime(file.toPath()));
+    }
+
+    @Test
+    public void shouldReplaceFileDifferingAfterFirstChunk() throws Exception {
+        // given
+        byte[] previous = new byte[200_000];
+        byte[] next = Arrays.copyOf(previous, previous.length);
+        next[next.length - 1] = 1;
+        File file = temp.newFile("splash.bmp");
+        Files.write(file.toPath(), previous);
+
+        // when
+        boolean written = ResourceIO.writeBytesIfDiff(file, next);
+
+        // then
+        assertTrue(written);
+        assertTrue(Arrays.equals(next, Files.readAllBytes(file.toPath())));
+        assertEquals("no temporary files are left", 1, temp.getRoot().list().length);
+    }
+
+    @Test
+    public void shouldCompareSizeAndContent() throws Exception {
+        // given
+        File file = temp.newFile("config.xml");
+        Files.write(file.toPath(), "<launch4jConfig/>".getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertTrue(ResourceIO.contentEquals(file, "<launch4jConfig/>".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(ResourceIO.contentEquals(file, "<launch4jConfig />".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(ResourceIO.contentEquals(file, "<launch4jConfig/!".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(ResourceIO.contentEquals(new File(temp.getRoot(), "missing.xml"), new byte[0]));
+    }
+}